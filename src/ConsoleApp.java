@@ -26,7 +26,7 @@ public class ConsoleApp {
                 "src/repository/data/customers.csv", "src/repository/data/concerts.csv", "src/repository/data/sports_events.csv",
                 "src/repository/data/concert_line_ups.csv", "src/repository/data/sports_event_line_ups.csv"
         );
-        IdInitializer.initializeGlobalId(csvFiles);
+        IdInitializer.initializeGlobalId(csvFiles, "src/repository/data/global_id.meta");
 
         boolean running = true;
 
@@ -53,7 +53,7 @@ public class ConsoleApp {
         EventService eventService = new EventService(repositoryFactory, repositoryFactory, repositoryFactory, venueService,
                 artistService, athleteService);
         TicketService ticketService = new TicketService(repositoryFactory, venueService);
-        CartService cartService = new CartService(repositoryFactory);
+        CartService cartService = new CartService(repositoryFactory, ticketService);
         CustomerService customerService = new CustomerService();
         UserService userService = new UserService(repositoryFactory, customerService);
 
@@ -1,6 +1,8 @@
 package controller;
 
 import model.*;
+import repository.Page;
+import repository.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -109,6 +111,8 @@ public class Controller {
         return venueController.getAllRows();}
     public void addSeatsToRow(int rowId, int numberOfSeats) {
         venueController.addSeatsToRow(rowId, numberOfSeats);}
+    public List<Row> addRowsWithSeats(Section section, int numberOfRows, int seatsPerRow) {
+        return venueController.addRowsWithSeats(section, numberOfRows, seatsPerRow);}
     public List<Seat> getSeatsByRow(int rowId) {
         return venueController.getSeatsByRow(rowId);}
     public List<Row> findRowsBySection(int sectionId) {
@@ -186,6 +190,14 @@ public class Controller {
         return ticketController.getAvailableTicketsByType(event, ticketType);}
     public List<Ticket> getTicketsByCustomer(Customer customer) {
         return ticketController.getTicketsByCustomer(customer);}
+    public Page<Ticket> getTicketsByEventPage(Event event, int pageSize) {
+        return ticketController.getTicketsByEventPage(event, pageSize);}
+    public Page<Ticket> getTicketsByEventPage(Event event, PageRequest<Ticket> request) {
+        return ticketController.getTicketsByEventPage(event, request);}
+    public Page<Ticket> getTicketsByCustomerPage(Customer customer, int pageSize) {
+        return ticketController.getTicketsByCustomerPage(customer, pageSize);}
+    public Page<Ticket> getTicketsByCustomerPage(Customer customer, PageRequest<Ticket> request) {
+        return ticketController.getTicketsByCustomerPage(customer, request);}
 
     // 5. Cart
     public Cart createCart(Customer customer, Event event) {
@@ -240,6 +252,10 @@ public class Controller {
         return eventController.deleteEvent(eventId);}
     public List<Event> getAllEvents() {
         return eventController.getAllEvents();}
+    public Page<Event> getEventsPage(int pageSize) {
+        return eventController.getEventsPage(pageSize);}
+    public Page<Event> getEventsPage(PageRequest<Event> request) {
+        return eventController.getEventsPage(request);}
     public Concert findConcertByID(int concertID) {
         return eventController.findConcertByID(concertID);}
     public SportsEvent findSportsEventByID(int sportsEventID) {
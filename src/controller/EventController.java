@@ -1,6 +1,8 @@
 package controller;
 
 import model.*;
+import repository.Page;
+import repository.PageRequest;
 import service.EventService;
 
 import java.time.LocalDateTime;
@@ -85,6 +87,33 @@ public class EventController {
         return events;
     }
 
+    /**
+     * Retrieves and displays the first page of all events, sorted by start date.
+     * @param pageSize The maximum number of events on the page.
+     * @return The first page of events.
+     */
+    public Page<Event> getEventsPage(int pageSize) {
+        Page<Event> page = eventService.getEventsPage(pageSize);
+        if (!page.getItems().isEmpty()) {
+            System.out.println("All Events:");
+            page.getItems().forEach(System.out::println);
+        } else {
+            System.out.println("No events found.");
+        }
+        return page;
+    }
+
+    /**
+     * Retrieves and displays a further page of events.
+     * @param request The page to retrieve.
+     * @return The requested page of events.
+     */
+    public Page<Event> getEventsPage(PageRequest<Event> request) {
+        Page<Event> page = eventService.getEventsPage(request);
+        page.getItems().forEach(System.out::println);
+        return page;
+    }
+
     /**
      * Retrieves upcoming events for a specific artist.
      * @return A list of upcoming events featuring the specified artist.
@@ -1,6 +1,8 @@
 package controller;
 
 import model.*;
+import repository.Page;
+import repository.PageRequest;
 import service.TicketService;
 
 import java.util.List;
@@ -187,4 +189,16 @@ public class TicketController {
 
     public List<Ticket> getTicketsByCustomer(Customer customer) {
         return ticketService.getTicketsByCustomer(customer);}
+
+    public Page<Ticket> getTicketsByEventPage(Event event, int pageSize) {
+        return ticketService.getTicketsByEventPage(event, pageSize);}
+
+    public Page<Ticket> getTicketsByEventPage(Event event, PageRequest<Ticket> request) {
+        return ticketService.getTicketsByEventPage(event, request);}
+
+    public Page<Ticket> getTicketsByCustomerPage(Customer customer, int pageSize) {
+        return ticketService.getTicketsByCustomerPage(customer, pageSize);}
+
+    public Page<Ticket> getTicketsByCustomerPage(Customer customer, PageRequest<Ticket> request) {
+        return ticketService.getTicketsByCustomerPage(customer, request);}
 }
@@ -244,6 +244,25 @@ public class VenueController {
         }
     }
 
+    /**
+     * Adds Rows filled with Seats to a Section.
+     *
+     * @param section      The Section to which the rows belong.
+     * @param numberOfRows The number of rows to add.
+     * @param seatsPerRow  The number of seats in each row.
+     * @return The created Rows.
+     */
+    public List<Row> addRowsWithSeats(Section section, int numberOfRows, int seatsPerRow) {
+        try {
+            List<Row> rows = venueService.addRowsWithSeats(section, numberOfRows, seatsPerRow);
+            System.out.println("Added " + numberOfRows + " rows of " + seatsPerRow + " seats to Section with ID " + section.getID() + ".");
+            return rows;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Failed to add rows: " + e.getMessage());
+            return List.of();
+        }
+    }
+
     /**
      * Retrieves all Seats in a specific Row.
      *
@@ -0,0 +1,11 @@
+package exception;
+
+/**
+ * Thrown when an object could not be saved because it was changed or deleted by someone else
+ * since it was read.
+ */
+public class ConcurrencyException extends RuntimeException {
+    public ConcurrencyException(String message) {
+        super(message);
+    }
+}
@@ -9,19 +9,6 @@ import javax.persistence.*;
 @Table(name = "admin")
 public class Admin extends User {
 
-    @Id
-    @Column(name = "user_id", nullable = false)
-    private int userID;
-
-    @Column(name = "username", nullable = false)
-    private String username;
-
-    @Column(name = "email", nullable = false)
-    private String email;
-
-    @Column(name = "password", nullable = false)
-    private String password;
-
     public Admin() {}
 
     /**
@@ -43,7 +30,7 @@ public class Admin extends User {
      */
     @Override
     public String toString() {
-        return "Admin{" + ", username='" + username + '\'' + ", password='" + password + '\'' + '}';
+        return "Admin{" + ", username='" + getUsername() + '\'' + ", password='" + getPassword() + '\'' + '}';
     }
 
     /**
@@ -55,7 +42,12 @@ public class Admin extends User {
      */
     @Override
     public String toCsv() {
-        return getID() + "," + getUsername() + "," + getEmail() + "," + getPassword();
+        return new CsvWriter()
+                .add(getID())
+                .add(getUsername())
+                .add(getEmail())
+                .add(getPassword())
+                .toString();
     }
 
     /**
@@ -66,11 +58,11 @@ public class Admin extends User {
      * @return An Admin object parsed from the input string.
      */
     public static Admin fromCsv(String csvLine) {
-        String[] fields = csvLine.split(",");
-        int id = Integer.parseInt(fields[0].trim());
-        String username = fields[1].trim();
-        String email = fields[2].trim();
-        String password = fields[3].trim();
+        CsvReader fields = new CsvReader(csvLine);
+        int id = fields.nextInt();
+        String username = fields.nextString();
+        String email = fields.nextString();
+        String password = fields.nextString();
         Admin admin = new Admin();
         admin.setID(id);
         admin.setUsername(username);
@@ -79,40 +71,4 @@ public class Admin extends User {
         return admin;
     }
 
-    // Getters and setters
-
-    public int getUserID() {
-        return userID;
-    }
-
-    public void setUserID(int userID) {
-        this.userID = userID;
-    }
-
-    @Override
-    public String getUsername() {
-        return username;
-    }
-
-    public void setUsername(String username) {
-        this.username = username;
-    }
-
-    @Override
-    public String getEmail() {
-        return email;
-    }
-
-    public void setEmail(String email) {
-        this.email = email;
-    }
-
-    @Override
-    public String getPassword() {
-        return password;
-    }
-
-    public void setPassword(String password) {
-        this.password = password;
-    }
 }
@@ -1,5 +1,8 @@
 package model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.List;
 
@@ -7,6 +10,8 @@ import java.util.List;
  * Represents an artist with an ID, name, and genre. Implements Identifiable and FavouriteEntity interfaces.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "artist")
 public class Artist implements Identifiable, FavouriteEntity {
 
@@ -107,15 +112,15 @@ public class Artist implements Identifiable, FavouriteEntity {
     }
 
     public static Artist fromCsv(String csvLine) {
-        String[] fields = csvLine.split(",");
-        int artistID = Integer.parseInt(fields[0]);
-        String artistName = fields[1];
-        String genre = fields[2];
+        CsvReader fields = new CsvReader(csvLine);
+        int artistID = fields.nextInt();
+        String artistName = fields.nextString();
+        String genre = fields.nextString();
         return new Artist(artistID, artistName, genre);
     }
 
     @Override
     public String toCsv() {
-        return getID() + "," + getArtistName() + "," + getGenre();
+        return new CsvWriter().add(getID()).add(getArtistName()).add(getGenre()).toString();
     }
 }
\ No newline at end of file
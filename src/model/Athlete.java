@@ -1,5 +1,8 @@
 package model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -10,6 +13,8 @@ import java.util.List;
  * Represents an athlete with an ID, name, and sport. Implements Identifiable and FavouriteEntity interfaces.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "athlete")
 public class Athlete implements Identifiable, FavouriteEntity {
 
@@ -110,15 +115,15 @@ public class Athlete implements Identifiable, FavouriteEntity {
     }
 
     public static Athlete fromCsv(String csvLine) {
-        String[] fields = csvLine.split(",");
-        int athleteID = Integer.parseInt(fields[0]);
-        String athleteName = fields[1];
-        String athleteSport = fields[2];
+        CsvReader fields = new CsvReader(csvLine);
+        int athleteID = fields.nextInt();
+        String athleteName = fields.nextString();
+        String athleteSport = fields.nextString();
         return new Athlete(athleteID, athleteName, athleteSport);
     }
 
     @Override
     public String toCsv() {
-        return getID() + "," + getName() + "," + getAthleteSport();
+        return new CsvWriter().add(getID()).add(getName()).add(getAthleteSport()).toString();
     }
 }
@@ -14,13 +14,21 @@ public class Cart implements Identifiable {
     @Column(name = "cart_id", nullable = false)
     private int cartID;
 
-    @OneToOne(mappedBy = "cart", fetch = FetchType.LAZY, cascade = CascadeType.ALL, optional = false)
+    // Owned by the cart, since customers do not store their cart; nullable because carts stored before have none
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id")
     private Customer customer;
 
+    @Transient
+    private Integer pendingCustomerID; // Customer ID read from CSV, resolved on first access
+
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "event_id", nullable = false)
     private Event event;
 
+    @Transient
+    private Integer pendingEventID; // Event ID read from CSV, resolved on first access
+
     @Column(name = "is_payment_processed", nullable = false)
     private boolean isPaymentProcessed = false;
 
@@ -30,6 +38,10 @@ public class Cart implements Identifiable {
     @Column(name = "total_price", nullable = false)
     private double totalPrice = 0.0;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private int version;
+
     static Controller controller = ControllerProvider.getController();
 
     public Cart() {}
@@ -57,10 +69,16 @@ public class Cart implements Identifiable {
     }
 
     public Customer getCustomer() {
+        if (pendingCustomerID != null) {
+            Customer resolved = controller.findCustomerByID(pendingCustomerID);
+            pendingCustomerID = null;
+            setCustomer(resolved);
+        }
         return customer;
     }
 
     public void setCustomer(Customer customer) {
+        this.pendingCustomerID = null;
         if (this.customer != null) {
             this.customer.setCart(null);
         }
@@ -71,11 +89,16 @@ public class Cart implements Identifiable {
     }
 
     public Event getEvent() {
+        if (pendingEventID != null) {
+            event = controller.findEventByID(pendingEventID);
+            pendingEventID = null;
+        }
         return event;
     }
 
     public void setEvent(Event event) {
         this.event = event;
+        this.pendingEventID = null;
     }
 
     public boolean isPaymentProcessed() {
@@ -156,23 +179,42 @@ public class Cart implements Identifiable {
 
 
 
+    /**
+     * Gets the ID of the referenced Customer without resolving it.
+     */
+    private Integer customerID() {
+        return pendingCustomerID != null ? pendingCustomerID : (customer != null ? customer.getID() : null);
+    }
+
+    /**
+     * Gets the ID of the referenced Event without resolving it.
+     */
+    private Integer eventID() {
+        return pendingEventID != null ? pendingEventID : (event != null ? event.getID() : null);
+    }
+
     public String toCsv() {
-        return cartID + "," +
-                (customer != null ? customer.getID() : "null") + "," +
-                (event != null ? event.getID() : "null") + "," +
-                isPaymentProcessed + "," +
-                totalPrice;
+        return new CsvWriter()
+                .add(cartID)
+                .add(customerID())
+                .add(eventID())
+                .add(isPaymentProcessed)
+                .add(totalPrice)
+                .toString();
     }
 
     public static Cart fromCsv(String csvLine) {
-        String[] fields = csvLine.split(",");
-        int cartID = Integer.parseInt(fields[0].trim());
-        Customer customer = controller.findCustomerByID(Integer.parseInt(fields[1].trim()));
-        Event event = controller.findEventByID(Integer.parseInt(fields[2].trim()));
-        boolean isPaymentProcessed = Boolean.parseBoolean(fields[3].trim());
-        double totalPrice = Double.parseDouble(fields[4].trim());
-
-        Cart cart = new Cart(customer, event);
+        CsvReader fields = new CsvReader(csvLine);
+        int cartID = fields.nextInt();
+        Integer customerID = fields.nextNullableInt();
+        Integer eventID = fields.nextNullableInt();
+        boolean isPaymentProcessed = fields.nextBoolean();
+        double totalPrice = fields.nextDouble();
+
+        // References are resolved when first accessed, so loading carts does not read other files
+        Cart cart = new Cart();
+        cart.pendingCustomerID = customerID;
+        cart.pendingEventID = eventID;
         cart.setCartID(cartID);
         cart.setPaymentProcessed(isPaymentProcessed);
         cart.setTotalPrice(totalPrice);
@@ -183,8 +225,8 @@ public class Cart implements Identifiable {
     public String toString() {
         return "Cart{" +
                 "cartID=" + cartID +
-                ", customerID=" + (customer != null ? customer.getID() : "null") +
-                ", eventID=" + (event != null ? event.getID() : "not loaded") +
+                ", customerID=" + customerID() +
+                ", eventID=" + eventID() +
                 ", isPaymentProcessed=" + isPaymentProcessed +
                 '}';
     }
@@ -2,6 +2,8 @@ package model;
 
 import service.TicketService;
 
+import org.hibernate.annotations.BatchSize;
+
 import javax.persistence.*;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -13,35 +15,14 @@ import java.util.List;
  * Represents a concert event, which is a type of event featuring a list of artists.
  */
 @Entity
-@Table(name = "concert")
+@BatchSize(size = 50)
+@Table(name = "concert", indexes = {
+        @Index(name = "idx_concert_venue", columnList = "venue_id"),
+        @Index(name = "idx_concert_start", columnList = "start_date_time, event_id")
+})
 public class Concert extends Event {
 
-    @Id
-    @Column(name = "concert_id", nullable = false)
-    int eventID;
-
-    @Column(name = "event_name", nullable = false)
-    private String eventName;
-
-    @Column(name = "event_description", nullable = false)
-    private String eventDescription;
-
-    @Column(name = "start_date_time", nullable = false)
-    private LocalDateTime startDateTime;
-
-    @Column(name = "end_date_time", nullable = false)
-    private LocalDateTime endDateTime;
-
-    @Column(name = "venue_id", nullable = false)
-    private int venueID;
-
-    @Column(name = "event_status", nullable = false)
-    @Enumerated(EnumType.STRING)
-    private EventStatus eventStatus;
-
-    @Column(name = "base_price", nullable = false)
-    private double basePrice;
-
+    @Transient
     @ManyToMany(mappedBy = "concerts", cascade = CascadeType.ALL)
     private List<Artist> artists;
 
@@ -61,24 +42,26 @@ public class Concert extends Event {
 
     @Override
     public String toCsv() {
-        return getID() + "," +
-                getEventName() + "," +
-                getEventDescription() + "," +
-                getStartDateTime() + "," +
-                getEndDateTime() + "," +
-                getVenueID() + "," +
-                getEventStatus();
+        return new CsvWriter()
+                .add(getID())
+                .add(getEventName())
+                .add(getEventDescription())
+                .add(getStartDateTime())
+                .add(getEndDateTime())
+                .add(getVenueID())
+                .add(getEventStatus())
+                .toString();
     }
 
     public static Concert fromCsv(String csvLine) {
-        String[] fields = csvLine.split(",");
-        int id = Integer.parseInt(fields[0]);
-        String eventName = fields[1];
-        String eventDescription = fields[2];
-        LocalDateTime startDateTime = LocalDateTime.parse(fields[3]);
-        LocalDateTime endDateTime = LocalDateTime.parse(fields[4]);
-        int venueID = Integer.parseInt(fields[5]);
-        EventStatus eventStatus = EventStatus.valueOf(fields[6]);
+        CsvReader fields = new CsvReader(csvLine);
+        int id = fields.nextInt();
+        String eventName = fields.nextString();
+        String eventDescription = fields.nextString();
+        LocalDateTime startDateTime = fields.nextDateTime();
+        LocalDateTime endDateTime = fields.nextDateTime();
+        int venueID = fields.nextInt();
+        EventStatus eventStatus = fields.nextEnum(EventStatus.class);
         return new Concert(id, eventName, eventDescription, startDateTime, endDateTime, venueID, eventStatus);
     }
 
@@ -20,10 +20,16 @@ public class ConcertLineUp implements Identifiable {
     @JoinColumn(name = "concert_id", nullable = false)
     private Concert concert;
 
+    @Transient
+    private Integer pendingConcertID; // Concert ID read from CSV, resolved on first access
+
     @ManyToOne
     @JoinColumn(name = "artist_id", nullable = false)
     private Artist artist;
 
+    @Transient
+    private Integer pendingArtistID; // Artist ID read from CSV, resolved on first access
+
     static Controller controller = ControllerProvider.getController();
 
     public ConcertLineUp() {}
@@ -42,44 +48,70 @@ public class ConcertLineUp implements Identifiable {
     }
 
     public Concert getConcert() {
+        if (pendingConcertID != null) {
+            concert = controller.findConcertByID(pendingConcertID);
+            pendingConcertID = null;
+        }
         return concert;
     }
 
     public void setConcert(Concert concert) {
         this.concert = concert;
+        this.pendingConcertID = null;
     }
 
     public Artist getArtist() {
+        if (pendingArtistID != null) {
+            artist = controller.findArtistByID(pendingArtistID);
+            pendingArtistID = null;
+        }
         return artist;
     }
 
     public void setArtist(Artist artist) {
         this.artist = artist;
+        this.pendingArtistID = null;
+    }
+
+    /**
+     * Gets the ID of the referenced Concert without resolving it.
+     */
+    private Integer concertID() {
+        return pendingConcertID != null ? pendingConcertID : (concert != null ? concert.getID() : null);
+    }
+
+    /**
+     * Gets the ID of the referenced Artist without resolving it.
+     */
+    private Integer artistID() {
+        return pendingArtistID != null ? pendingArtistID : (artist != null ? artist.getID() : null);
     }
 
     @Override
     public String toString() {
         return "ConcertLineUp{" +
                 "id=" + id +
-                ", concert=" + concert +
-                ", artist=" + artist +
+                ", concert=" + concertID() +
+                ", artist=" + artistID() +
                 '}';
     }
 
     @Override
     public String toCsv() {
-        return id + "," + concert.getID() + "," + artist.getID();
+        return new CsvWriter().add(id).add(concertID()).add(artistID()).toString();
     }
 
     public static ConcertLineUp fromCsv(String line) {
-        String[] fields = line.split(",");
-        int id = Integer.parseInt(fields[0]);
-        int concertID = Integer.parseInt(fields[1]);
-        int artistID = Integer.parseInt(fields[2]);
-        Concert concert = controller.findConcertByID(concertID);
-        Artist artist = controller.findArtistByID(artistID);
-        ConcertLineUp concertLineUp = new ConcertLineUp(concert, artist);
+        CsvReader fields = new CsvReader(line);
+        int id = fields.nextInt();
+        Integer concertID = fields.nextNullableInt();
+        Integer artistID = fields.nextNullableInt();
+
+        // References are resolved when first accessed, so loading line-ups does not read other files
+        ConcertLineUp concertLineUp = new ConcertLineUp();
         concertLineUp.setID(id);
+        concertLineUp.pendingConcertID = concertID;
+        concertLineUp.pendingArtistID = artistID;
         return concertLineUp;
     }
 }
\ No newline at end of file
@@ -0,0 +1,367 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the fields of a single CSV line one after another.
+ * Numbers, booleans and dates are parsed directly from the characters of the line, so
+ * reading a field does not allocate an intermediate String. Text fields may be quoted
+ * with double quotes, in which case they can contain commas, and a doubled quote
+ * ({@code ""}) stands for a literal quote. Unquoted fields are trimmed.
+ * <p>
+ * The literal {@code null} marks a missing value for the nullable readers.
+ */
+public final class CsvReader {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final CharSequence line;
+    private final int length;
+    private int position;
+    private int fieldIndex;
+    private boolean exhausted;
+
+    /**
+     * Creates a reader positioned at the first field of the line.
+     *
+     * @param line The CSV line, without its line terminator.
+     */
+    public CsvReader(CharSequence line) {
+        this.line = line;
+        this.length = line.length();
+    }
+
+    /**
+     * @return Whether another field is available.
+     */
+    public boolean hasNext() {
+        return !exhausted;
+    }
+
+    /**
+     * Skips the next field.
+     */
+    public void skip() {
+        int start = beginField();
+        if (start < length && line.charAt(start) == '"') {
+            nextString(start);
+        } else {
+            finishField(findFieldEnd(start));
+        }
+    }
+
+    /**
+     * Reads the next field as text.
+     *
+     * @return The unquoted field, or the trimmed field if it was not quoted.
+     */
+    public String nextString() {
+        return nextString(beginField());
+    }
+
+    /**
+     * Reads the next field as an int.
+     *
+     * @throws NumberFormatException If the field is not a valid int.
+     */
+    public int nextInt() {
+        int start = beginField();
+        int end = findFieldEnd(start);
+        int value = parseInt(start, trimEnd(start, end));
+        finishField(end);
+        return value;
+    }
+
+    /**
+     * Reads the next field as an int that may be {@code null}.
+     *
+     * @return The value, or null if the field is empty or the literal {@code null}.
+     */
+    public Integer nextNullableInt() {
+        int start = beginField();
+        int end = findFieldEnd(start);
+        int trimmed = trimEnd(start, end);
+        Integer value = isNull(start, trimmed) ? null : parseInt(start, trimmed);
+        finishField(end);
+        return value;
+    }
+
+    /**
+     * Reads the next field as a double.
+     * Plain decimal numbers are parsed exactly from the characters; other notations fall back
+     * to {@link Double#parseDouble(String)}.
+     *
+     * @throws NumberFormatException If the field is not a valid double.
+     */
+    public double nextDouble() {
+        int start = beginField();
+        int end = findFieldEnd(start);
+        double value = parseDouble(start, trimEnd(start, end));
+        finishField(end);
+        return value;
+    }
+
+    /**
+     * Reads the next field as a boolean, following {@link Boolean#parseBoolean(String)}:
+     * only {@code true}, ignoring case, is true.
+     */
+    public boolean nextBoolean() {
+        int start = beginField();
+        int end = findFieldEnd(start);
+        int trimmed = trimEnd(start, end);
+        boolean value = trimmed - start == 4
+                && Character.toLowerCase(line.charAt(start)) == 't'
+                && Character.toLowerCase(line.charAt(start + 1)) == 'r'
+                && Character.toLowerCase(line.charAt(start + 2)) == 'u'
+                && Character.toLowerCase(line.charAt(start + 3)) == 'e';
+        finishField(end);
+        return value;
+    }
+
+    /**
+     * Reads the next field as a date and time in ISO-8601 form, as written by {@link LocalDateTime#toString()}.
+     *
+     * @throws java.time.format.DateTimeParseException If the field is not a valid date and time.
+     */
+    public LocalDateTime nextDateTime() {
+        int start = beginField();
+        int end = findFieldEnd(start);
+        LocalDateTime value = parseDateTime(start, trimEnd(start, end));
+        finishField(end);
+        return value;
+    }
+
+    /**
+     * Reads the next field as a date and time that may be {@code null}.
+     *
+     * @return The value, or null if the field is empty or the literal {@code null}.
+     */
+    public LocalDateTime nextNullableDateTime() {
+        int start = beginField();
+        int end = findFieldEnd(start);
+        int trimmed = trimEnd(start, end);
+        LocalDateTime value = isNull(start, trimmed) ? null : parseDateTime(start, trimmed);
+        finishField(end);
+        return value;
+    }
+
+    /**
+     * Reads the next field as a constant of the given enum type.
+     *
+     * @throws IllegalArgumentException If the field does not name a constant of the enum.
+     */
+    public <E extends Enum<E>> E nextEnum(Class<E> type) {
+        return Enum.valueOf(type, nextString());
+    }
+
+    /**
+     * Moves past the whitespace in front of the next field and returns where the field starts.
+     */
+    private int beginField() {
+        if (exhausted) {
+            throw new NoSuchElementException("CSV line has no field " + (fieldIndex + 1) + ": " + line);
+        }
+        int start = position;
+        while (start < length && isBlank(line.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private int findFieldEnd(int start) {
+        int end = start;
+        while (end < length && line.charAt(end) != ',') {
+            end++;
+        }
+        return end;
+    }
+
+    private int trimEnd(int start, int end) {
+        while (end > start && isBlank(line.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Moves past the separator at {@code end}, or marks the line as exhausted if there is none.
+     */
+    private void finishField(int end) {
+        fieldIndex++;
+        if (end < length) {
+            position = end + 1;
+        } else {
+            position = length;
+            exhausted = true;
+        }
+    }
+
+    private String nextString(int start) {
+        if (start < length && line.charAt(start) == '"') {
+            StringBuilder value = new StringBuilder();
+            int i = start + 1;
+            while (true) {
+                if (i >= length) {
+                    throw new IllegalArgumentException("Unterminated quoted field in CSV line: " + line);
+                }
+                char c = line.charAt(i++);
+                if (c == '"') {
+                    if (i < length && line.charAt(i) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+            int end = findFieldEnd(i);
+            if (trimEnd(i, end) != i) {
+                throw new IllegalArgumentException("Unexpected characters after quoted field in CSV line: " + line);
+            }
+            finishField(end);
+            return value.toString();
+        }
+        int end = findFieldEnd(start);
+        String value = line.subSequence(start, trimEnd(start, end)).toString();
+        finishField(end);
+        return value;
+    }
+
+    private boolean isNull(int start, int end) {
+        return start == end || (end - start == 4
+                && line.charAt(start) == 'n'
+                && line.charAt(start + 1) == 'u'
+                && line.charAt(start + 2) == 'l'
+                && line.charAt(start + 3) == 'l');
+    }
+
+    private int parseInt(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            throw invalidNumber(start, end);
+        }
+        // Accumulate negatively so Integer.MIN_VALUE does not overflow
+        long limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        long value = 0;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalidNumber(start, end);
+            }
+            value = value * 10 - (c - '0');
+            if (value < limit) {
+                throw invalidNumber(start, end);
+            }
+        }
+        return (int) (negative ? value : -value);
+    }
+
+    private double parseDouble(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    return slowParseDouble(start, end);
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                // Exponents, NaN, Infinity and malformed input
+                return slowParseDouble(start, end);
+            }
+        }
+        if (digits == 0 || fractionDigits >= POWERS_OF_TEN.length) {
+            return slowParseDouble(start, end);
+        }
+        // Both operands are exact, so the division is correctly rounded
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private double slowParseDouble(int start, int end) {
+        return Double.parseDouble(line.subSequence(start, end).toString());
+    }
+
+    private LocalDateTime parseDateTime(int start, int end) {
+        // yyyy-MM-ddTHH:mm[:ss[.fffffffff]], the forms produced by LocalDateTime.toString()
+        int length = end - start;
+        if (length >= 16 && line.charAt(start + 4) == '-' && line.charAt(start + 7) == '-'
+                && line.charAt(start + 10) == 'T' && line.charAt(start + 13) == ':') {
+            int year = digits(start, 4);
+            int month = digits(start + 5, 2);
+            int day = digits(start + 8, 2);
+            int hour = digits(start + 11, 2);
+            int minute = digits(start + 14, 2);
+            int second = 0;
+            int nano = 0;
+            boolean valid = year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0;
+            if (valid && length > 16) {
+                valid = length >= 19 && line.charAt(start + 16) == ':';
+                second = valid ? digits(start + 17, 2) : -1;
+                valid = valid && second >= 0;
+                if (valid && length > 19) {
+                    int fraction = length - 20;
+                    valid = line.charAt(start + 19) == '.' && fraction >= 1 && fraction <= 9;
+                    nano = valid ? digits(start + 20, fraction) : -1;
+                    valid = valid && nano >= 0;
+                    for (int i = fraction; valid && i < 9; i++) {
+                        nano *= 10;
+                    }
+                }
+            }
+            if (valid) {
+                return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+            }
+        }
+        return LocalDateTime.parse(line.subSequence(start, end));
+    }
+
+    /**
+     * Parses a fixed number of decimal digits, returning -1 if any of them is not a digit.
+     */
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private NumberFormatException invalidNumber(int start, int end) {
+        return new NumberFormatException("For input string: \"" + line.subSequence(start, end) + "\"");
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+}
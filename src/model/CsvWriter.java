@@ -0,0 +1,102 @@
+package model;
+
+/**
+ * Builds a single CSV line field by field.
+ * Text that contains a comma, a double quote, or leading or trailing whitespace is quoted so that
+ * {@link CsvReader} reads it back unchanged. Null values are written as the literal {@code null}.
+ */
+public final class CsvWriter {
+    private final StringBuilder line = new StringBuilder(64);
+    private boolean first = true;
+
+    /**
+     * Appends a text field, quoting it if necessary.
+     *
+     * @throws IllegalArgumentException If the text contains a line break, which the line-based CSV files cannot store.
+     */
+    public CsvWriter add(String value) {
+        separate();
+        if (value == null) {
+            line.append("null");
+        } else if (needsQuoting(value)) {
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        } else {
+            line.append(value);
+        }
+        return this;
+    }
+
+    /**
+     * Appends an int field.
+     */
+    public CsvWriter add(int value) {
+        separate();
+        line.append(value);
+        return this;
+    }
+
+    /**
+     * Appends a double field.
+     */
+    public CsvWriter add(double value) {
+        separate();
+        line.append(value);
+        return this;
+    }
+
+    /**
+     * Appends a boolean field.
+     */
+    public CsvWriter add(boolean value) {
+        separate();
+        line.append(value);
+        return this;
+    }
+
+    /**
+     * Appends a field holding the string form of a value, such as an ID, an enum constant or a date.
+     */
+    public CsvWriter add(Object value) {
+        return add(value == null ? null : value.toString());
+    }
+
+    /**
+     * Appends the ID of a referenced entity, or {@code null} if there is none.
+     */
+    public CsvWriter addID(Identifiable entity) {
+        return add(entity == null ? null : entity.getID());
+    }
+
+    @Override
+    public String toString() {
+        return line.toString();
+    }
+
+    private void separate() {
+        if (!first) {
+            line.append(',');
+        }
+        first = false;
+    }
+
+    private static boolean needsQuoting(String value) {
+        boolean quote = !value.isEmpty()
+                && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)));
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\r') {
+                throw new IllegalArgumentException("CSV fields cannot contain line breaks: " + value);
+            }
+            quote |= c == ',' || c == '"';
+        }
+        return quote;
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import org.hibernate.annotations.BatchSize;
+
 import javax.persistence.*;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -10,28 +12,15 @@ import java.util.Set;
  * Represents a customer user with specific preferences, favourites, and a shopping cart.
  */
 @Entity
+@BatchSize(size = 50)
 @Table(name = "customer")
 public class Customer extends User {
 
-    @Id
-    @Column(name = "user_id", nullable = false)
-    private int userID;
-
-    @Column(name = "username", nullable = false)
-    private String username;
-
-    @Column(name = "email", nullable = false)
-    private String email;
-
-    @Column(name = "password", nullable = false)
-    private String password;
-
     @Transient
     private Set<FavouriteEntity> favourites = new HashSet<>();
 
     @Transient
-    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
-    @JoinColumn(name = "cart_id", nullable = true)
+    @OneToOne(mappedBy = "customer", fetch = FetchType.LAZY)
     private Cart cart;
 
     @Transient
@@ -104,8 +93,8 @@ public class Customer extends User {
     @Override
     public String toString() {
         return "Customer{" +
-                ", username='" + username + '\'' +
-                ", password='" + password + '\'' +
+                ", username='" + getUsername() + '\'' +
+                ", password='" + getPassword() + '\'' +
                 ", favourites=" + favourites +
                 ", preferredSections=" + preferredSections +
                 '}';
@@ -120,7 +109,12 @@ public class Customer extends User {
      */
     @Override
     public String toCsv() {
-        return getID() + "," + getUsername() + "," + getEmail() + "," + getPassword();
+        return new CsvWriter()
+                .add(getID())
+                .add(getUsername())
+                .add(getEmail())
+                .add(getPassword())
+                .toString();
     }
 
     /**
@@ -131,11 +125,11 @@ public class Customer extends User {
      * @return A Customer object parsed from the input string.
      */
     public static Customer fromCsv(String csvLine) {
-        String[] fields = csvLine.split(",");
-        int id = Integer.parseInt(fields[0].trim());
-        String username = fields[1].trim();
-        String email = fields[2].trim();
-        String password = fields[3].trim();
+        CsvReader fields = new CsvReader(csvLine);
+        int id = fields.nextInt();
+        String username = fields.nextString();
+        String email = fields.nextString();
+        String password = fields.nextString();
         Customer customer = new Customer();
         customer.setID(id);
         customer.setUsername(username);
@@ -146,41 +140,6 @@ public class Customer extends User {
 
     // Getters and setters
 
-    public int getUserID() {
-        return userID;
-    }
-
-    public void setUserID(int userID) {
-        this.userID = userID;
-    }
-
-    @Override
-    public String getUsername() {
-        return username;
-    }
-
-    public void setUsername(String username) {
-        this.username = username;
-    }
-
-    @Override
-    public String getEmail() {
-        return email;
-    }
-
-    public void setEmail(String email) {
-        this.email = email;
-    }
-
-    @Override
-    public String getPassword() {
-        return password;
-    }
-
-    public void setPassword(String password) {
-        this.password = password;
-    }
-
     public void setFavourites(Set<FavouriteEntity> favourites) {
         this.favourites = favourites;
     }
@@ -1,18 +1,40 @@
 package model;
 
+import javax.persistence.*;
 import java.time.LocalDateTime;
 
 /**
  * Represents an abstract event with a unique ID, name, description, schedule, venue ID, and status.
+ * Each kind of event is stored in its own table, which holds all of the columns declared here.
  */
+@Entity
+@Inheritance(strategy = InheritanceType.TABLE_PER_CLASS)
 public abstract class Event implements Identifiable {
+
+    @Id
+    @Column(name = "event_id", nullable = false)
     private int eventID;
+
+    @Column(name = "event_name", nullable = false)
     private String eventName;
+
+    @Column(name = "event_description", nullable = false)
     private String eventDescription;
+
+    @Column(name = "start_date_time", nullable = false)
     private LocalDateTime startDateTime;
+
+    @Column(name = "end_date_time", nullable = false)
     private LocalDateTime endDateTime;
+
+    @Column(name = "venue_id", nullable = false)
     private int venueID;
+
+    @Column(name = "event_status", nullable = false)
+    @Enumerated(EnumType.STRING)
     private EventStatus eventStatus;
+
+    @Column(name = "base_price", nullable = false)
     private double basePrice;
 
     public Event() {}
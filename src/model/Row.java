@@ -2,6 +2,9 @@ package model;
 
 import controller.Controller;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -10,6 +13,8 @@ import java.util.List;
  * Represents a row within a section, containing details such as its ID, capacity, and associated section ID.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "row")
 public class Row implements Identifiable {
 
@@ -24,6 +29,9 @@ public class Row implements Identifiable {
     @JoinColumn(name = "section_id", nullable = false)
     private Section section;
 
+    @Transient
+    private Integer pendingSectionID; // Section ID read from CSV, resolved on first access
+
     @OneToMany(mappedBy = "row", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Seat> seats = new ArrayList<>();
 
@@ -64,11 +72,16 @@ public class Row implements Identifiable {
     }
 
     public Section getSection() {
+        if (pendingSectionID != null) {
+            section = controller.findSectionByID(pendingSectionID);
+            pendingSectionID = null;
+        }
         return section;
     }
 
     public void setSection(Section section) {
         this.section = section;
+        this.pendingSectionID = null;
     }
 
     public List<Seat> getSeats() {
@@ -105,12 +118,19 @@ public class Row implements Identifiable {
         seat.setRow(null); // Break bidirectional relationship
     }
 
+    /**
+     * Gets the ID of the referenced Section without resolving it.
+     */
+    private Integer sectionID() {
+        return pendingSectionID != null ? pendingSectionID : (section != null ? section.getID() : null);
+    }
+
     @Override
     public String toString() {
         return "Row{" +
                 "rowID=" + rowID +
                 ", rowCapacity=" + rowCapacity +
-                ", section=" + (section != null ? section.getID() : "null") +
+                ", section=" + sectionID() +
                 ", seatsCount=" + seats.size() +
                 '}';
     }
@@ -124,11 +144,11 @@ public class Row implements Identifiable {
      */
     @Override
     public String toCsv() {
-        return String.join(",",
-                String.valueOf(rowID),
-                String.valueOf(rowCapacity),
-                String.valueOf(section != null ? section.getID() : "null")
-        );
+        return new CsvWriter()
+                .add(rowID)
+                .add(rowCapacity)
+                .add(sectionID())
+                .toString();
     }
 
     /**
@@ -138,12 +158,14 @@ public class Row implements Identifiable {
      * @return A Row object.
      */
     public static Row fromCsv(String csvLine) {
-        String[] fields = csvLine.split(",");
-        int rowID = Integer.parseInt(fields[0].trim());
-        int rowCapacity = Integer.parseInt(fields[1].trim());
-        int sectionID = Integer.parseInt(fields[2].trim());
-
-        // Create the Row object with the Section retrieved from the controller
-        return new Row(rowID, rowCapacity, controller.findSectionByID(sectionID));
+        CsvReader fields = new CsvReader(csvLine);
+        int rowID = fields.nextInt();
+        int rowCapacity = fields.nextInt();
+        int sectionID = fields.nextInt();
+
+        // The Section is resolved when first accessed
+        Row row = new Row(rowID, rowCapacity, null);
+        row.pendingSectionID = sectionID;
+        return row;
     }
 }
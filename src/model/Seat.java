@@ -2,6 +2,8 @@ package model;
 
 import controller.Controller;
 
+import org.hibernate.annotations.BatchSize;
+
 import javax.persistence.*;
 
 /**
@@ -9,6 +11,7 @@ import javax.persistence.*;
  * and an optional association with a ticket if reserved.
  */
 @Entity
+@BatchSize(size = 50)
 @Table(name = "seat")
 public class Seat implements Identifiable {
 
@@ -22,10 +25,17 @@ public class Seat implements Identifiable {
     @Column(name = "is_reserved", nullable = false)
     private boolean isReserved = false; // Indicates if the seat is reserved (default is false)
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private int version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "row_id", nullable = false)
     private Row row; // Many-to-One relationship with Row
 
+    @Transient
+    private Integer pendingRowID; // Row ID read from CSV, resolved on first access
+
     @OneToOne(mappedBy = "seat", cascade = CascadeType.ALL, orphanRemoval = true)
     private Ticket ticket; // 1:1 relationship with Ticket
 
@@ -78,11 +88,16 @@ public class Seat implements Identifiable {
     }
 
     public Row getRow() {
+        if (pendingRowID != null) {
+            row = controller.findRowByID(pendingRowID);
+            pendingRowID = null;
+        }
         return row;
     }
 
     public void setRow(Row row) {
         this.row = row;
+        this.pendingRowID = null;
     }
 
     public Ticket getTicket() {
@@ -105,16 +120,24 @@ public class Seat implements Identifiable {
      * @return The Section object.
      */
     public Section getSection() {
+        Row row = getRow();
         return row != null ? row.getSection() : null;
     }
 
+    /**
+     * Gets the ID of the referenced Row without resolving it.
+     */
+    private Integer rowID() {
+        return pendingRowID != null ? pendingRowID : (row != null ? row.getID() : null);
+    }
+
     @Override
     public String toString() {
         return "Seat{" +
                 "seatID=" + seatID +
                 ", number=" + number +
                 ", isReserved=" + isReserved +
-                ", rowID=" + (row != null && row.getID() != null ? row.getID() : "not loaded") +
+                ", rowID=" + (rowID() != null ? rowID() : "not loaded") +
                 ", ticketID=" + (ticket != null ? ticket.getID() : "null") +
                 '}';
     }
@@ -128,13 +151,13 @@ public class Seat implements Identifiable {
      */
     @Override
     public String toCsv() {
-        return String.join(",",
-                String.valueOf(seatID),
-                String.valueOf(number),
-                String.valueOf(isReserved),
-                row != null ? String.valueOf(row.getID()) : "null",
-                ticket != null ? String.valueOf(ticket.getID()) : "null"
-        );
+        return new CsvWriter()
+                .add(seatID)
+                .add(number)
+                .add(isReserved)
+                .add(rowID())
+                .addID(ticket)
+                .toString();
     }
 
     /**
@@ -144,12 +167,15 @@ public class Seat implements Identifiable {
      * @return A Seat object.
      */
     public static Seat fromCsv(String csvLine) {
-        String[] fields = csvLine.split(",");
-        int seatID = Integer.parseInt(fields[0].trim());
-        int number = Integer.parseInt(fields[1].trim());
-        boolean isReserved = Boolean.parseBoolean(fields[2].trim());
-        int rowID = Integer.parseInt(fields[3].trim());
-
-        Row row = controller.findRowByID(rowID);
-        return new Seat(seatID, number, isReserved, row);    }
+        CsvReader fields = new CsvReader(csvLine);
+        int seatID = fields.nextInt();
+        int number = fields.nextInt();
+        boolean isReserved = fields.nextBoolean();
+        int rowID = fields.nextInt();
+
+        // The Row is resolved when first accessed
+        Seat seat = new Seat(seatID, number, isReserved, null);
+        seat.pendingRowID = rowID;
+        return seat;
+    }
 }
@@ -2,6 +2,9 @@ package model;
 
 import controller.Controller;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +15,8 @@ import java.util.List;
  * and venue using IDs and a controller.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "section")
 public class Section implements Identifiable {
 
@@ -31,6 +36,9 @@ public class Section implements Identifiable {
     @JoinColumn(name = "venue_id", nullable = false)
     private Venue venue;
 
+    @Transient
+    private Integer pendingVenueID; // Venue ID read from CSV, resolved on first access
+
     @OneToMany(mappedBy = "section", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Row> rows = new ArrayList<>();
 
@@ -85,11 +93,16 @@ public class Section implements Identifiable {
     }
 
     public Venue getVenue() {
+        if (pendingVenueID != null) {
+            venue = controller.findVenueByID(pendingVenueID);
+            pendingVenueID = null;
+        }
         return venue;
     }
 
     public void setVenue(Venue venue) {
         this.venue = venue;
+        this.pendingVenueID = null;
     }
 
     public List<Row> getRows() {
@@ -123,13 +136,20 @@ public class Section implements Identifiable {
         row.setSection(null); // Break bidirectional relationship
     }
 
+    /**
+     * Gets the ID of the referenced Venue without resolving it.
+     */
+    private Integer venueID() {
+        return pendingVenueID != null ? pendingVenueID : (venue != null ? venue.getID() : null);
+    }
+
     @Override
     public String toString() {
         return "Section{" +
                 "sectionID=" + sectionID +
                 ", sectionName='" + sectionName + '\'' +
                 ", sectionCapacity=" + sectionCapacity +
-                ", venue=" + (venue != null ? venue.getID() : "null") +
+                ", venue=" + venueID() +
                 ", rowsCount=" + rows.size() +
                 '}';
     }
@@ -143,12 +163,12 @@ public class Section implements Identifiable {
      */
     @Override
     public String toCsv() {
-        return String.join(",",
-                String.valueOf(sectionID),
-                sectionName,
-                String.valueOf(sectionCapacity),
-                String.valueOf(venue != null ? venue.getID() : "null")
-        );
+        return new CsvWriter()
+                .add(sectionID)
+                .add(sectionName)
+                .add(sectionCapacity)
+                .add(venueID())
+                .toString();
     }
 
     /**
@@ -158,14 +178,15 @@ public class Section implements Identifiable {
      * @return A Section object.
      */
     public static Section fromCsv(String csvLine) {
-        String[] fields = csvLine.split(",");
-        int sectionID = Integer.parseInt(fields[0].trim());
-        String sectionName = fields[1].trim();
-        int sectionCapacity = Integer.parseInt(fields[2].trim());
-        int venueID = Integer.parseInt(fields[3].trim());
-
-        // Create the Section object with the Venue retrieved from the controller
-        Section section = new Section(sectionID, sectionName, sectionCapacity, controller.findVenueByID(venueID));
+        CsvReader fields = new CsvReader(csvLine);
+        int sectionID = fields.nextInt();
+        String sectionName = fields.nextString();
+        int sectionCapacity = fields.nextInt();
+        int venueID = fields.nextInt();
+
+        // The Venue is resolved when first accessed
+        Section section = new Section(sectionID, sectionName, sectionCapacity, null);
+        section.pendingVenueID = venueID;
 
         // No need to initialize rows; it's already initialized
         return section;
@@ -1,5 +1,7 @@
 package model;
 
+import org.hibernate.annotations.BatchSize;
+
 import javax.persistence.*;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -11,36 +13,13 @@ import java.util.List;
  * Represents a sports event, extending the general Event class with a list of participating athletes.
  */
 @Entity
-@Table(name = "sports_event")
+@BatchSize(size = 50)
+@Table(name = "sports_event", indexes = {
+        @Index(name = "idx_sports_event_venue", columnList = "venue_id"),
+        @Index(name = "idx_sports_event_start", columnList = "start_date_time, event_id")
+})
 public class SportsEvent extends Event {
 
-    @Id
-    @Column(name = "sports_event_id", nullable = false)
-    int eventID;
-
-    @Column(name = "event_name", nullable = false)
-    private String eventName;
-
-    @Column(name = "event_description", nullable = false)
-    private String eventDescription;
-
-    @Column(name = "start_date_time", nullable = false)
-    private LocalDateTime startDateTime;
-
-    @Column(name = "end_date_time", nullable = false)
-    private LocalDateTime endDateTime;
-
-    @Column(name = "venue_id", nullable = false)
-    private int venueID;
-
-    @Column(name = "event_status", nullable = false)
-    @Enumerated(EnumType.STRING)
-    private EventStatus eventStatus;
-
-    @Transient
-    @Column(name = "base_price", nullable = false)
-    private double basePrice;
-
     @Transient
     @ManyToMany(mappedBy = "sportsEvents", cascade = CascadeType.ALL)
     private List<Athlete> athletes;
@@ -61,24 +40,26 @@ public class SportsEvent extends Event {
 
     @Override
     public String toCsv() {
-        return getID() + "," +
-                getEventName() + "," +
-                getEventDescription() + "," +
-                getStartDateTime() + "," +
-                getEndDateTime() + "," +
-                getVenueID() + "," +
-                getEventStatus() + ",";
+        return new CsvWriter()
+                .add(getID())
+                .add(getEventName())
+                .add(getEventDescription())
+                .add(getStartDateTime())
+                .add(getEndDateTime())
+                .add(getVenueID())
+                .add(getEventStatus())
+                .toString();
     }
 
     public static SportsEvent fromCsv(String csvLine) {
-        String[] fields = csvLine.split(",");
-        int id = Integer.parseInt(fields[0]);
-        String eventName = fields[1];
-        String eventDescription = fields[2];
-        LocalDateTime startDateTime = LocalDateTime.parse(fields[3]);
-        LocalDateTime endDateTime = LocalDateTime.parse(fields[4]);
-        int venueID = Integer.parseInt(fields[5]);
-        EventStatus eventStatus = EventStatus.valueOf(fields[6]);
+        CsvReader fields = new CsvReader(csvLine);
+        int id = fields.nextInt();
+        String eventName = fields.nextString();
+        String eventDescription = fields.nextString();
+        LocalDateTime startDateTime = fields.nextDateTime();
+        LocalDateTime endDateTime = fields.nextDateTime();
+        int venueID = fields.nextInt();
+        EventStatus eventStatus = fields.nextEnum(EventStatus.class);
         return new SportsEvent(id,eventName,eventDescription,startDateTime,endDateTime,venueID,eventStatus);
     }
 }
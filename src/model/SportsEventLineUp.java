@@ -20,10 +20,16 @@ public class SportsEventLineUp implements Identifiable {
     @JoinColumn(name = "sports_event_id", nullable = false)
     private SportsEvent sportsEvent;
 
+    @Transient
+    private Integer pendingSportsEventID; // SportsEvent ID read from CSV, resolved on first access
+
     @ManyToOne
     @JoinColumn(name = "athlete_id", nullable = false)
     private Athlete athlete;
 
+    @Transient
+    private Integer pendingAthleteID; // Athlete ID read from CSV, resolved on first access
+
     static Controller controller = ControllerProvider.getController();
 
     public SportsEventLineUp() {}
@@ -42,44 +48,70 @@ public class SportsEventLineUp implements Identifiable {
     }
 
     public SportsEvent getSportsEvent() {
+        if (pendingSportsEventID != null) {
+            sportsEvent = controller.findSportsEventByID(pendingSportsEventID);
+            pendingSportsEventID = null;
+        }
         return sportsEvent;
     }
 
     public void setSportsEvent(SportsEvent sportsEvent) {
         this.sportsEvent = sportsEvent;
+        this.pendingSportsEventID = null;
     }
 
     public Athlete getAthlete() {
+        if (pendingAthleteID != null) {
+            athlete = controller.findAthleteByID(pendingAthleteID);
+            pendingAthleteID = null;
+        }
         return athlete;
     }
 
     public void setAthlete(Athlete athlete) {
         this.athlete = athlete;
+        this.pendingAthleteID = null;
+    }
+
+    /**
+     * Gets the ID of the referenced SportsEvent without resolving it.
+     */
+    private Integer sportsEventID() {
+        return pendingSportsEventID != null ? pendingSportsEventID : (sportsEvent != null ? sportsEvent.getID() : null);
+    }
+
+    /**
+     * Gets the ID of the referenced Athlete without resolving it.
+     */
+    private Integer athleteID() {
+        return pendingAthleteID != null ? pendingAthleteID : (athlete != null ? athlete.getID() : null);
     }
 
     @Override
     public String toString() {
         return "SportsEventLineUp{" +
                 "id=" + id +
-                ", sportsEvent=" + sportsEvent +
-                ", athlete=" + athlete +
+                ", sportsEvent=" + sportsEventID() +
+                ", athlete=" + athleteID() +
                 '}';
     }
 
     @Override
     public String toCsv() {
-        return id + "," + sportsEvent.getID() + "," + athlete.getID();
+        return new CsvWriter().add(id).add(sportsEventID()).add(athleteID()).toString();
     }
 
     public static SportsEventLineUp fromCsv(String csv) {
-        String[] fields = csv.split(",");
-        int id = Integer.parseInt(fields[0]);
-        int sportsEventID = Integer.parseInt(fields[1]);
-        int athleteID = Integer.parseInt(fields[2]);
-        SportsEvent sportsEvent = controller.findSportsEventByID(sportsEventID);
-        Athlete athlete = controller.findAthleteByID(athleteID);
-        SportsEventLineUp sportsEventLineUp = new SportsEventLineUp(sportsEvent, athlete);
+        CsvReader fields = new CsvReader(csv);
+        int id = fields.nextInt();
+        Integer sportsEventID = fields.nextNullableInt();
+        Integer athleteID = fields.nextNullableInt();
+
+        // References are resolved when first accessed, so loading line-ups does not read other files
+        SportsEventLineUp sportsEventLineUp = new SportsEventLineUp();
         sportsEventLineUp.setID(id);
+        sportsEventLineUp.pendingSportsEventID = sportsEventID;
+        sportsEventLineUp.pendingAthleteID = athleteID;
         return sportsEventLineUp;
     }
 }
\ No newline at end of file
@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
  * Represents a ticket for an event, including details about the event, seat, price, purchaser, and sale status.
  */
 @Entity
-@Table(name = "ticket")
+@Table(name = "ticket", indexes = {
+        @Index(name = "idx_ticket_availability", columnList = "event_id, ticket_type, is_sold")
+})
 public class Ticket implements Identifiable {
 
     @Id
@@ -20,18 +22,30 @@ public class Ticket implements Identifiable {
     @JoinColumn(name = "event_id", nullable = false)
     private Event event; // Abstract class; can be Concert or SportsEvent
 
+    @Transient
+    private Integer pendingEventID; // Event ID read from CSV, resolved on first access
+
     @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "seat_id")
     private Seat seat; // Nullable for general admission
 
+    @Transient
+    private Integer pendingSeatID; // Seat ID read from CSV, resolved on first access
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = true)
     private Customer customer;
 
+    @Transient
+    private Integer pendingCustomerID; // Customer ID read from CSV, resolved on first access
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cart_id")
     private Cart cart;
 
+    @Transient
+    private Integer pendingCartID; // Cart ID read from the database, resolved on first access
+
     @Column(name = "price", nullable = false)
     private double price;
 
@@ -45,6 +59,10 @@ public class Ticket implements Identifiable {
     @Column(name = "purchase_date")
     private LocalDateTime purchaseDate;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private int version; // Incremented on every update, for optimistic concurrency control
+
     static Controller controller = ControllerProvider.getController();
 
     /**
@@ -82,27 +100,42 @@ public class Ticket implements Identifiable {
     }
 
     public Event getEvent() {
+        if (pendingEventID != null) {
+            event = controller.findEventByID(pendingEventID);
+            pendingEventID = null;
+        }
         return event;
     }
 
     public void setEvent(Event event) {
         this.event = event;
+        this.pendingEventID = null;
     }
 
     public Seat getSeat() {
+        if (pendingSeatID != null) {
+            seat = controller.findSeatByID(pendingSeatID);
+            pendingSeatID = null;
+        }
         return seat;
     }
 
     public void setSeat(Seat seat) {
         this.seat = seat;
+        this.pendingSeatID = null;
     }
 
     public Customer getCustomer() {
+        if (pendingCustomerID != null) {
+            customer = controller.findCustomerByID(pendingCustomerID);
+            pendingCustomerID = null;
+        }
         return customer;
     }
 
     public void setCustomer(Customer customer) {
         this.customer = customer;
+        this.pendingCustomerID = null;
     }
 
     public double getPrice() {
@@ -137,12 +170,25 @@ public class Ticket implements Identifiable {
         this.purchaseDate = purchaseDate;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public Cart getCart() {
+        if (pendingCartID != null) {
+            cart = controller.findCartByID(pendingCartID);
+            pendingCartID = null;
+        }
         return cart;
     }
 
     public void setCart(Cart cart) {
         this.cart = cart;
+        this.pendingCartID = null;
     }
 
     /**
@@ -151,8 +197,8 @@ public class Ticket implements Identifiable {
     public void markAsSold(Customer customer) {
         this.isSold = true;
         this.purchaseDate = LocalDateTime.now();
-        this.customer = customer;
-        seat.setReserved(true);
+        setCustomer(customer);
+        getSeat().setReserved(true);
     }
 
     public void adjustPrice(double percentage) {
@@ -165,13 +211,34 @@ public class Ticket implements Identifiable {
         this.price *= (1 + percentage / 100);
     }
 
+    /**
+     * Gets the ID of the referenced Event without resolving it.
+     */
+    private Integer eventID() {
+        return pendingEventID != null ? pendingEventID : (event != null ? event.getID() : null);
+    }
+
+    /**
+     * Gets the ID of the referenced Seat without resolving it.
+     */
+    private Integer seatID() {
+        return pendingSeatID != null ? pendingSeatID : (seat != null ? seat.getID() : null);
+    }
+
+    /**
+     * Gets the ID of the referenced Customer without resolving it.
+     */
+    private Integer customerID() {
+        return pendingCustomerID != null ? pendingCustomerID : (customer != null ? customer.getID() : null);
+    }
+
     @Override
     public String toString() {
         return "Ticket{" +
                 "ticketID=" + ticketID +
-                ", event=" + (event != null ? event.getID() : "null") +
-                ", seat=" + (seat != null ? seat.getID() : "null") +
-                ", customer=" + (customer != null ? customer.getID() : "null") +
+                ", event=" + eventID() +
+                ", seat=" + seatID() +
+                ", customer=" + customerID() +
                 ", price=" + price +
                 ", ticketType=" + ticketType +
                 ", isSold=" + isSold +
@@ -187,16 +254,16 @@ public class Ticket implements Identifiable {
      */
     @Override
     public String toCsv() {
-        return String.join(",",
-                String.valueOf(ticketID),
-                event != null ? String.valueOf(event.getID()) : "null",
-                seat != null ? String.valueOf(seat.getID()) : "null",
-                customer != null ? String.valueOf(customer.getID()) : "null",
-                String.valueOf(price),
-                ticketType.name(),
-                String.valueOf(isSold),
-                purchaseDate != null ? purchaseDate.toString() : "null"
-        );
+        return new CsvWriter()
+                .add(ticketID)
+                .add(eventID())
+                .add(seatID())
+                .add(customerID())
+                .add(price)
+                .add(ticketType)
+                .add(isSold)
+                .add(purchaseDate)
+                .toString();
     }
 
     /**
@@ -206,21 +273,21 @@ public class Ticket implements Identifiable {
      * @return A Ticket object.
      */
     public static Ticket fromCsv(String csvLine) {
-        String[] fields = csvLine.split(",");
-        int ticketID = Integer.parseInt(fields[0].trim());
-        int eventID = Integer.parseInt(fields[1].trim());
-        Integer seatID = fields[2].trim().equals("null") ? null : Integer.parseInt(fields[2].trim());
-        int customerID = Integer.parseInt(fields[3].trim());
-        double price = Double.parseDouble(fields[4].trim());
-        TicketType ticketType = TicketType.valueOf(fields[5].trim());
-        boolean isSold = Boolean.parseBoolean(fields[6].trim());
-        LocalDateTime purchaseDate = fields[7].trim().equals("null") ? null : LocalDateTime.parse(fields[7].trim());
-
-        Event event = controller.findEventByID(eventID);
-        Seat seat = seatID != null ? controller.findSeatByID(seatID) : null;
-        Customer customer = controller.findCustomerByID(customerID);
-
-        Ticket ticket = new Ticket(ticketID, event, seat, customer, price, ticketType);
+        CsvReader fields = new CsvReader(csvLine);
+        int ticketID = fields.nextInt();
+        Integer eventID = fields.nextNullableInt();
+        Integer seatID = fields.nextNullableInt();
+        Integer customerID = fields.nextNullableInt();
+        double price = fields.nextDouble();
+        TicketType ticketType = fields.nextEnum(TicketType.class);
+        boolean isSold = fields.nextBoolean();
+        LocalDateTime purchaseDate = fields.nextNullableDateTime();
+
+        // References are resolved when first accessed, so loading tickets does not read other files
+        Ticket ticket = new Ticket(ticketID, null, null, null, price, ticketType);
+        ticket.pendingEventID = eventID;
+        ticket.pendingSeatID = seatID;
+        ticket.pendingCustomerID = customerID;
         ticket.setSold(isSold);
         ticket.setPurchaseDate(purchaseDate);
 
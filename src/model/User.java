@@ -9,9 +9,17 @@ import javax.persistence.*;
 @MappedSuperclass
 public abstract class User implements Identifiable {
 
+    @Id
+    @Column(name = "user_id", nullable = false)
     private int userID;
+
+    @Column(name = "username", nullable = false)
     private String username;
+
+    @Column(name = "email", nullable = false)
     private String email;
+
+    @Column(name = "password", nullable = false)
     private String password;
 
     public User() {}
@@ -44,6 +52,14 @@ public abstract class User implements Identifiable {
         this.userID = userID;
     }
 
+    public int getUserID() {
+        return userID;
+    }
+
+    public void setUserID(int userID) {
+        this.userID = userID;
+    }
+
     /**
      * Gets the username of the user.
      * @return the username of the user
@@ -52,6 +68,10 @@ public abstract class User implements Identifiable {
         return username;
     }
 
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
     /**
      * Gets the password of the user.
      * @return the password of the user
@@ -60,6 +80,10 @@ public abstract class User implements Identifiable {
         return password;
     }
 
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
     /**
      * Gets the email address of the user.
      * @return the email address of the user
@@ -68,6 +92,10 @@ public abstract class User implements Identifiable {
         return email;
     }
 
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
     /**
      * Returns a string representation of the user, displaying the user's ID, username, email, and password.
      * @return a string containing the user details
@@ -1,5 +1,8 @@
 package model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -9,6 +12,8 @@ import java.util.List;
  * Includes relationships with Sections (1:N).
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "venue")
 public class Venue implements Identifiable {
 
@@ -145,13 +150,13 @@ public class Venue implements Identifiable {
      * @return A comma-separated string representing the venue.
      */
     public String toCsv() {
-        return String.join(",",
-                String.valueOf(getID()),
-                getVenueName(),
-                getLocation(),
-                String.valueOf(getVenueCapacity()),
-                String.valueOf(hasSeats)
-        );
+        return new CsvWriter()
+                .add(getID())
+                .add(getVenueName())
+                .add(getLocation())
+                .add(getVenueCapacity())
+                .add(hasSeats)
+                .toString();
     }
 
     /**
@@ -161,12 +166,12 @@ public class Venue implements Identifiable {
      * @return A Venue object.
      */
     public static Venue fromCsv(String csvLine) {
-        String[] fields = csvLine.split(",");
-        int venueID = Integer.parseInt(fields[0].trim());
-        String venueName = fields[1].trim();
-        String location = fields[2].trim();
-        int venueCapacity = Integer.parseInt(fields[3].trim());
-        boolean hasSeats = Boolean.parseBoolean(fields[4].trim());
+        CsvReader fields = new CsvReader(csvLine);
+        int venueID = fields.nextInt();
+        String venueName = fields.nextString();
+        String location = fields.nextString();
+        int venueCapacity = fields.nextInt();
+        boolean hasSeats = fields.nextBoolean();
 
         // No need to initialize sections list; it's already initialized
         return new Venue(venueID, venueName, location, venueCapacity, hasSeats);
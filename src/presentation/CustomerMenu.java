@@ -5,10 +5,13 @@ import exception.BusinessLogicException;
 import exception.EntityNotFoundException;
 import exception.ValidationException;
 import model.*;
+import repository.Page;
 
 import java.util.*;
 
 public class CustomerMenu {
+
+    private static final int PAGE_SIZE = 10;
     /**
      * Displays the customer menu and handles user input for various customer operations.
      *
@@ -50,7 +53,7 @@ public class CustomerMenu {
                         handleViewAllEvents(scanner, controller);
                         break;
                     case "6":
-                        handleViewPreviousOrders(controller);
+                        handleViewPreviousOrders(scanner, controller);
                         break;
                     case "7":
                         handleManageFavourites(scanner, controller);
@@ -163,19 +166,29 @@ public class CustomerMenu {
     }
 
     /**
-     * Handles the viewing of all events and allows the user to select an event.
+     * Handles the viewing of all events, one page at a time, and allows the user to select an event.
      *
      * @param scanner    the scanner for reading user input.
      * @param controller the controller for accessing application functionality.
      */
     private static void handleViewAllEvents(Scanner scanner, Controller controller) {
-        List<Event> events = controller.getAllEvents();
-        if (events.isEmpty()) {
+        Page<Event> page = controller.getEventsPage(PAGE_SIZE);
+        if (page.getItems().isEmpty()) {
             return;
         }
-        System.out.print("Enter Event ID to view sections and tickets: ");
+        String input;
+        while (true) {
+            System.out.print(page.hasNext()
+                    ? "Enter Event ID to view sections and tickets, or press Enter for more events: "
+                    : "Enter Event ID to view sections and tickets: ");
+            input = scanner.nextLine().trim();
+            if (!input.isEmpty() || !page.hasNext()) {
+                break;
+            }
+            page = controller.getEventsPage(page.getNextRequest());
+        }
         try {
-            int eventId = Integer.parseInt(scanner.nextLine());
+            int eventId = Integer.parseInt(input);
             Event event = controller.findEventByID(eventId);
             if (event != null) {
                 handleSectionAndTicketSelection(scanner, controller, event);
@@ -517,17 +530,21 @@ public class CustomerMenu {
      * event name, price, purchase date, and seat information. If no orders are found, an appropriate
      * message is displayed.
      *
+     * Orders are shown newest first, one page at a time.
+     *
+     * @param scanner    the scanner for reading user input.
      * @param controller the Controller instance used to access the customer's data and previous orders.
      */
-    private static void handleViewPreviousOrders(Controller controller) {
+    private static void handleViewPreviousOrders(Scanner scanner, Controller controller) {
         try {
             Customer currentCustomer = (Customer) controller.getCurrentUser();
-            List<Ticket> purchasedTickets = controller.getTicketsByCustomer(currentCustomer);
-            if (purchasedTickets.isEmpty()) {
+            Page<Ticket> page = controller.getTicketsByCustomerPage(currentCustomer, PAGE_SIZE);
+            if (page.getItems().isEmpty()) {
                 throw new EntityNotFoundException("No previous orders found.");
-            } else {
-                System.out.println("Previous Orders:");
-                purchasedTickets.forEach(ticket -> {
+            }
+            System.out.println("Previous Orders:");
+            while (true) {
+                page.getItems().forEach(ticket -> {
                     System.out.println("Ticket ID: " + ticket.getID());
                     System.out.println("Event: " + ticket.getEvent().getEventName());
                     System.out.println("Price: $" + ticket.getPrice());
@@ -539,6 +556,14 @@ public class CustomerMenu {
                     }
                     System.out.println("-----------------------------");
                 });
+                if (!page.hasNext()) {
+                    break;
+                }
+                System.out.print("Press Enter for older orders, or type anything to return: ");
+                if (!scanner.nextLine().trim().isEmpty()) {
+                    break;
+                }
+                page = controller.getTicketsByCustomerPage(currentCustomer, page.getNextRequest());
             }
         } catch (IllegalArgumentException | EntityNotFoundException e) {
             System.out.println("Error" + e.getMessage());
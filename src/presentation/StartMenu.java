@@ -1,11 +1,14 @@
 package presentation;
 
+import exception.DatabaseException;
 import exception.ValidationException;
 import repository.factory.*;
+
+import javax.persistence.PersistenceException;
 import java.util.Scanner;
 
 /**
- * Displays the initial menu to choose the data representation (InMemory, File, DB).
+ * Displays the initial menu to choose the data representation (InMemory, File, DB, JPA).
  */
 public class StartMenu {
 
@@ -15,6 +18,7 @@ public class StartMenu {
             System.out.println("1. InMemory");
             System.out.println("2. File");
             System.out.println("3. Database");
+            System.out.println("4. Database (JPA)");
             System.out.print("Your choice: ");
 
             String choice = scanner.nextLine();
@@ -27,9 +31,32 @@ public class StartMenu {
                     return new FileRepositoryFactory();
                 case "3":
                     System.out.println("You selected Database storage.");
-                    return new DBRepositoryFactory();
+                    DBRepositoryFactory factory = new DBRepositoryFactory();
+                    try {
+                        factory.migrateSchema();
+                    } catch (DatabaseException e) {
+                        System.out.println(e.getMessage());
+                    }
+                    return factory;
+                case "4":
+                    System.out.println("You selected Database storage through JPA.");
+                    // Hibernate's schema update adds missing columns but cannot rename them, so the schema
+                    // manager brings existing tables up to date first
+                    DBRepositoryFactory schemaFactory = new DBRepositoryFactory();
+                    try {
+                        schemaFactory.migrateSchema();
+                    } catch (DatabaseException e) {
+                        System.out.println(e.getMessage());
+                    } finally {
+                        schemaFactory.getConnectionPool().close();
+                    }
+                    try {
+                        return new JpaRepositoryFactory();
+                    } catch (PersistenceException e) {
+                        throw new ValidationException("Could not open the persistence unit: " + e.getMessage());
+                    }
                 default:
-                    throw new ValidationException("Invalid choice. Please select a valid option (1, 2, or 3).");
+                    throw new ValidationException("Invalid choice. Please select a valid option (1, 2, 3, or 4).");
             }
         } catch (ValidationException e) {
             System.out.println(e.getMessage());
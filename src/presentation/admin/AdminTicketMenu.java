@@ -4,6 +4,7 @@ import controller.Controller;
 import exception.EntityNotFoundException;
 import exception.ValidationException;
 import model.*;
+import repository.Page;
 import java.util.List;
 import java.util.Scanner;
 
@@ -13,6 +14,8 @@ import java.util.Scanner;
  */
 public class AdminTicketMenu {
 
+    private static final int PAGE_SIZE = 20;
+
     /**
      * Displays the Ticket Management menu to the admin and handles menu selection.
      *
@@ -92,24 +95,33 @@ public class AdminTicketMenu {
     }
 
     /**
-     * Displays all tickets for a specific event.
+     * Displays the tickets for a specific event, one page at a time.
      */
     private static void handleViewTicketsForEvent(Scanner scanner, Controller controller) {
         try {
             System.out.println("=== View Tickets for Event ===");
             Event event = selectEvent(scanner, controller);
             if (event == null) return;
-            List<Ticket> tickets = controller.getTicketsByEvent(event);
-            if (tickets.isEmpty()) {
+            Page<Ticket> page = controller.getTicketsByEventPage(event, PAGE_SIZE);
+            if (page.getItems().isEmpty()) {
                 throw new EntityNotFoundException("Ticket not found for this event.");
-            } else {
-                System.out.println("Tickets for Event: " + event.getEventName());
-                tickets.forEach(ticket -> System.out.println(
+            }
+            System.out.println("Tickets for Event: " + event.getEventName());
+            while (true) {
+                page.getItems().forEach(ticket -> System.out.println(
                         "ID: " + ticket.getID() +
                                 ", Type: " + ticket.getTicketType() +
                                 ", Price: $" + ticket.getPrice() +
                                 ", Sold: " + (ticket.isSold() ? "Yes" : "No")
                 ));
+                if (!page.hasNext()) {
+                    break;
+                }
+                System.out.print("Press Enter for more tickets, or type anything to return: ");
+                if (!scanner.nextLine().trim().isEmpty()) {
+                    break;
+                }
+                page = controller.getTicketsByEventPage(event, page.getNextRequest());
             }
         } catch (EntityNotFoundException e) {
             System.out.println("Error: " + e.getMessage());
@@ -186,10 +186,7 @@ public class AdminVenueMenu {
             if (seatsPerRow <= 0) {
                 throw new ValidationException("Number of seats per row cannot be zero or negative.");
             }
-            for (int i = 0; i < numberOfRows; i++) {
-                Row row = controller.createRow(section, seatsPerRow);
-                controller.addSeatsToRow(row.getID(), seatsPerRow);
-            }
+            controller.addRowsWithSeats(section, numberOfRows, seatsPerRow);
             System.out.println("Rows and seats added successfully to section: " + section.getSectionName());
         } catch (ValidationException | EntityNotFoundException e) {
             System.out.println(e.getMessage());
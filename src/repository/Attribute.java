@@ -0,0 +1,34 @@
+package repository;
+
+import model.Identifiable;
+
+import java.util.function.Function;
+
+/**
+ * A named, readable property of a stored object that repositories can look objects up by.
+ * The name is the column that holds the value in the database, and the extractor reads the
+ * same value from an object in memory.
+ *
+ * @param name      The column name of the attribute.
+ * @param extractor Function reading the attribute from an object.
+ * @param <T>       Type of the objects the attribute belongs to.
+ */
+public record Attribute<T>(String name, Function<T, ?> extractor) {
+
+    /**
+     * Reads the attribute from an object.
+     *
+     * @param obj The object to read from.
+     * @return The value of the attribute.
+     */
+    public Object valueOf(T obj) {
+        return extractor.apply(obj);
+    }
+
+    /**
+     * Helper for extractors of foreign keys: the ID of a referenced object, or null if there is none.
+     */
+    static Integer idOf(Identifiable entity) {
+        return entity != null ? entity.getID() : null;
+    }
+}
@@ -0,0 +1,32 @@
+package repository;
+
+import model.*;
+
+import static repository.Attribute.idOf;
+
+/**
+ * The attributes the services look objects up by, mostly foreign keys.
+ */
+public final class Attributes {
+
+    public static final Attribute<Ticket> TICKET_EVENT = new Attribute<>("event_id", ticket -> idOf(ticket.getEvent()));
+    public static final Attribute<Ticket> TICKET_TYPE = new Attribute<>("ticket_type", Ticket::getTicketType);
+    public static final Attribute<Ticket> TICKET_SOLD = new Attribute<>("is_sold", Ticket::isSold);
+    public static final Attribute<Ticket> TICKET_CUSTOMER = new Attribute<>("customer_id", ticket -> idOf(ticket.getCustomer()));
+    public static final Attribute<Ticket> TICKET_CART = new Attribute<>("cart_id", ticket -> idOf(ticket.getCart()));
+    public static final Attribute<Ticket> TICKET_PURCHASE_DATE = new Attribute<>("purchase_date", Ticket::getPurchaseDate);
+
+    public static final Attribute<Seat> SEAT_ROW = new Attribute<>("row_id", seat -> idOf(seat.getRow()));
+    public static final Attribute<Row> ROW_SECTION = new Attribute<>("section_id", row -> idOf(row.getSection()));
+    public static final Attribute<Section> SECTION_VENUE = new Attribute<>("venue_id", section -> idOf(section.getVenue()));
+
+    public static final Attribute<Event> EVENT_VENUE = new Attribute<>("venue_id", Event::getVenueID);
+    public static final Attribute<Event> EVENT_START = new Attribute<>("start_date_time", Event::getStartDateTime);
+
+    public static final Attribute<ConcertLineUp> CONCERT_LINE_UP_CONCERT = new Attribute<>("concert_id", lineUp -> idOf(lineUp.getConcert()));
+    public static final Attribute<ConcertLineUp> CONCERT_LINE_UP_ARTIST = new Attribute<>("artist_id", lineUp -> idOf(lineUp.getArtist()));
+    public static final Attribute<SportsEventLineUp> SPORTS_EVENT_LINE_UP_EVENT = new Attribute<>("sports_event_id", lineUp -> idOf(lineUp.getSportsEvent()));
+    public static final Attribute<SportsEventLineUp> SPORTS_EVENT_LINE_UP_ATHLETE = new Attribute<>("athlete_id", lineUp -> idOf(lineUp.getAthlete()));
+
+    private Attributes() {}
+}
@@ -0,0 +1,287 @@
+package repository;
+
+import model.Identifiable;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the most used objects of another repository in memory, so that repeated lookups by ID do not reach
+ * its file or database. Reads go through the cache; writes go to the underlying repository first and then
+ * drop the objects they touched from the cache, so the next read sees the stored version. Scans and queries
+ * ({@link #getAll()}, {@link #stream()}, {@link #find}, {@link #findPage}) are passed through unchanged.
+ * <p>
+ * The cache holds at most a fixed number of objects and is split into two segments, an LRU policy that
+ * takes frequency into account: objects read for the first time enter the probation segment, and are moved
+ * to the protected segment when they are read again. When the cache is full, the least recently used
+ * object on probation is evicted, so a scan over many objects read once cannot push out those read often.
+ * The protected segment holds up to {@link #PROTECTED_SHARE} of the cache; when it overflows, its least
+ * recently used object goes back on probation.
+ * <p>
+ * Objects can also expire a fixed time after they were loaded, which bounds how long changes made by
+ * other processes go unnoticed.
+ *
+ * @param <T> Type of objects managed by the repository.
+ */
+public class CachingRepository<T extends Identifiable> implements IRepository<T> {
+
+    /** Share of the cache reserved for objects read more than once. */
+    public static final double PROTECTED_SHARE = 0.8;
+
+    private final IRepository<T> delegate;
+    private final int maximumSize;
+    private final int maximumProtected;
+    private final long timeToLiveNanos;
+
+    // Both segments in access order, least recently used first; guarded by this
+    private final LinkedHashMap<Integer, Entry<T>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Integer, Entry<T>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long invalidations;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /**
+     * A cached object with the time it was loaded.
+     */
+    private record Entry<T>(T value, long loadedAtNanos) {}
+
+    /**
+     * A snapshot of the cache's counters.
+     *
+     * @param hits        Reads answered from the cache.
+     * @param misses      Reads passed to the underlying repository.
+     * @param evictions   Objects dropped to make room for others.
+     * @param expirations Objects dropped because their time to live had passed.
+     * @param size        Objects currently cached.
+     */
+    public record Metrics(long hits, long misses, long evictions, long expirations, int size) {
+
+        /**
+         * @return The share of reads answered from the cache, or 0 if there were none.
+         */
+        public double hitRate() {
+            long reads = hits + misses;
+            return reads == 0 ? 0 : (double) hits / reads;
+        }
+    }
+
+    /**
+     * Creates a cache whose objects stay until they are evicted or changed.
+     * @param delegate The repository holding the objects.
+     * @param maximumSize The number of objects kept in memory.
+     */
+    public CachingRepository(IRepository<T> delegate, int maximumSize) {
+        this(delegate, maximumSize, null);
+    }
+
+    /**
+     * Creates a cache.
+     * @param delegate The repository holding the objects.
+     * @param maximumSize The number of objects kept in memory.
+     * @param timeToLive How long an object is kept after it was loaded, or null to keep it until it is
+     *                   evicted or changed.
+     */
+    public CachingRepository(IRepository<T> delegate, int maximumSize, Duration timeToLive) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maximumSize);
+        }
+        if (timeToLive != null && (timeToLive.isNegative() || timeToLive.isZero())) {
+            throw new IllegalArgumentException("Time to live must be positive: " + timeToLive);
+        }
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+        this.maximumProtected = (int) (maximumSize * PROTECTED_SHARE);
+        this.timeToLiveNanos = timeToLive == null ? Long.MAX_VALUE : timeToLive.toNanos();
+    }
+
+    /**
+     * Returns the cached object, or loads it from the underlying repository and caches it. The underlying
+     * repository is read without holding the cache's lock, so a slow load does not block other reads.
+     */
+    @Override
+    public T read(Integer id) {
+        long invalidationsBefore;
+        synchronized (this) {
+            Entry<T> entry = lookup(id);
+            if (entry != null) {
+                hits++;
+                return entry.value();
+            }
+            misses++;
+            invalidationsBefore = invalidations;
+        }
+        T obj = delegate.read(id);
+        if (obj != null) {
+            synchronized (this) {
+                // A write during the load may have made the loaded object stale
+                if (invalidations == invalidationsBefore) {
+                    admit(id, obj);
+                }
+            }
+        }
+        return obj;
+    }
+
+    @Override
+    public void create(T obj) {
+        delegate.create(obj);
+    }
+
+    @Override
+    public void createAll(List<T> objects) {
+        delegate.createAll(objects);
+    }
+
+    @Override
+    public void update(T obj) {
+        try {
+            delegate.update(obj);
+        } finally {
+            invalidate(List.of(obj.getID()));
+        }
+    }
+
+    @Override
+    public void updateAll(List<T> objects) {
+        try {
+            delegate.updateAll(objects);
+        } finally {
+            invalidate(objects.stream().map(Identifiable::getID).toList());
+        }
+    }
+
+    @Override
+    public void delete(Integer id) {
+        try {
+            delegate.delete(id);
+        } finally {
+            invalidate(List.of(id));
+        }
+    }
+
+    @Override
+    public boolean deleteIfPresent(Integer id) {
+        try {
+            return delegate.deleteIfPresent(id);
+        } finally {
+            invalidate(List.of(id));
+        }
+    }
+
+    @Override
+    public void deleteAll(List<Integer> ids) {
+        try {
+            delegate.deleteAll(ids);
+        } finally {
+            invalidate(ids);
+        }
+    }
+
+    @Override
+    public boolean compareAndSet(Integer id, Query<? super T> expected, Consumer<? super T> change) {
+        try {
+            return delegate.compareAndSet(id, expected, change);
+        } finally {
+            invalidate(List.of(id));
+        }
+    }
+
+    @Override
+    public List<T> getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return delegate.stream();
+    }
+
+    @Override
+    public List<T> find(Query<? super T> query) {
+        return delegate.find(query);
+    }
+
+    @Override
+    public Page<T> findPage(Query<? super T> query, PageRequest<T> request) {
+        return delegate.findPage(query, request);
+    }
+
+    /**
+     * @return The current counters of the cache.
+     */
+    public synchronized Metrics getMetrics() {
+        return new Metrics(hits, misses, evictions, expirations, probation.size() + protectedSegment.size());
+    }
+
+    /**
+     * Drops all cached objects, for example after the underlying storage was changed by other means.
+     */
+    public synchronized void clear() {
+        probation.clear();
+        protectedSegment.clear();
+        invalidations++;
+    }
+
+    /**
+     * Finds a live entry, promoting it to the protected segment if it was on probation.
+     */
+    private Entry<T> lookup(Integer id) {
+        Entry<T> entry = protectedSegment.get(id);
+        if (entry == null) {
+            entry = probation.get(id);
+            if (entry == null) {
+                return null;
+            }
+        }
+        if (timeToLiveNanos != Long.MAX_VALUE && System.nanoTime() - entry.loadedAtNanos() >= timeToLiveNanos) {
+            protectedSegment.remove(id);
+            probation.remove(id);
+            expirations++;
+            return null;
+        }
+        if (probation.remove(id) != null) {
+            protectedSegment.put(id, entry);
+            if (protectedSegment.size() > maximumProtected) {
+                Iterator<Map.Entry<Integer, Entry<T>>> leastRecent = protectedSegment.entrySet().iterator();
+                Map.Entry<Integer, Entry<T>> demoted = leastRecent.next();
+                leastRecent.remove();
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Puts a newly loaded object on probation, evicting the least recently used object on probation if the
+     * cache is full.
+     */
+    private void admit(Integer id, T obj) {
+        if (protectedSegment.containsKey(id) || probation.containsKey(id)) {
+            return;
+        }
+        probation.put(id, new Entry<>(obj, System.nanoTime()));
+        if (probation.size() + protectedSegment.size() > maximumSize) {
+            LinkedHashMap<Integer, Entry<T>> victims = probation.size() > 1 ? probation : protectedSegment;
+            Iterator<Map.Entry<Integer, Entry<T>>> leastRecent = victims.entrySet().iterator();
+            leastRecent.next();
+            leastRecent.remove();
+            evictions++;
+        }
+    }
+
+    private synchronized void invalidate(List<Integer> ids) {
+        for (Integer id : ids) {
+            probation.remove(id);
+            protectedSegment.remove(id);
+        }
+        invalidations++;
+    }
+}
@@ -0,0 +1,395 @@
+package repository;
+
+import exception.DatabaseException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded pool of JDBC connections to one database, shared by all repositories that use it.
+ * <p>
+ * {@link #getConnection()} hands out an idle connection when there is one, opens a new one while the pool is
+ * below its maximum size, and otherwise waits for a connection to be returned, failing after the acquisition
+ * timeout. Closing a borrowed connection returns it to the pool instead of closing it, so callers keep using
+ * try-with-resources as with {@link DriverManager}.
+ * <p>
+ * A connection that sat idle for longer than {@link #VALIDATION_INTERVAL} is validated before it is handed
+ * out, and discarded if the database no longer answers. A background task closes connections that stayed
+ * idle for longer than the idle timeout, down to the minimum size, and opens connections up to the minimum
+ * size again.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /** Idle time after which a connection is validated before being handed out again. */
+    static final Duration VALIDATION_INTERVAL = Duration.ofSeconds(1);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final Duration idleTimeout;
+    private final Duration acquireTimeout;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService housekeeper;
+    private int total;
+    private int waiting;
+    private boolean closed;
+
+    private long acquisitions;
+    private long timeouts;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    /**
+     * A physical connection waiting in the pool, with the time it was returned.
+     */
+    private record IdleConnection(Connection connection, long idleSinceNanos) {}
+
+    /**
+     * A snapshot of the pool's state and counters.
+     *
+     * @param active       Connections currently borrowed.
+     * @param idle         Connections waiting in the pool.
+     * @param waiting      Threads waiting for a connection.
+     * @param acquisitions Connections handed out since the pool was created.
+     * @param timeouts     Acquisitions that gave up after the acquisition timeout.
+     * @param averageWait  Average time spent waiting for a connection.
+     * @param maxWait      Longest time spent waiting for a connection.
+     */
+    public record Metrics(int active, int idle, int waiting, long acquisitions, long timeouts,
+                          Duration averageWait, Duration maxWait) {}
+
+    /**
+     * Creates a pool with default sizes and timeouts: 2 to 10 connections, evicted after 10 minutes idle,
+     * and a 30 second acquisition timeout.
+     */
+    public ConnectionPool(String url, String user, String password) {
+        this(url, user, password, 2, 10, Duration.ofMinutes(10), Duration.ofSeconds(30));
+    }
+
+    /**
+     * Creates a pool. No connection is opened until the first acquisition or the first housekeeping run.
+     *
+     * @param url            The JDBC URL of the database.
+     * @param user           The database user.
+     * @param password       The database password.
+     * @param minSize        The number of connections kept open even when idle.
+     * @param maxSize        The maximum number of open connections.
+     * @param idleTimeout    How long a connection above the minimum may stay idle before it is closed.
+     * @param acquireTimeout How long {@link #getConnection()} waits for a connection before failing.
+     */
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          Duration idleTimeout, Duration acquireTimeout) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.acquireTimeout = acquireTimeout;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, idleTimeout.toMillis() / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing the returned connection gives it back.
+     *
+     * @return A connection to the database.
+     * @throws DatabaseException If no connection became available within the acquisition timeout,
+     *                           or a new connection could not be opened.
+     */
+    public Connection getConnection() {
+        long start = System.nanoTime();
+        long remaining = acquireTimeout.toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new DatabaseException("Connection pool is closed.");
+                }
+                IdleConnection candidate = idle.pollFirst();
+                if (candidate != null) {
+                    lock.unlock();
+                    try {
+                        if (isUsable(candidate)) {
+                            return borrowed(candidate.connection(), start);
+                        }
+                        closeQuietly(candidate.connection());
+                    } finally {
+                        lock.lock();
+                    }
+                    total--;
+                    continue;
+                }
+                if (total < maxSize) {
+                    total++;
+                    lock.unlock();
+                    Connection connection;
+                    try {
+                        connection = open();
+                    } catch (SQLException | RuntimeException e) {
+                        lock.lock();
+                        total--;
+                        available.signal();
+                        throw new DatabaseException("Failed to establish a database connection: " + e.getMessage());
+                    }
+                    lock.lock();
+                    return borrowed(connection, start);
+                }
+                if (remaining <= 0) {
+                    timeouts++;
+                    throw new DatabaseException("Timed out after " + acquireTimeout.toMillis()
+                            + " ms waiting for a database connection (" + maxSize + " in use).");
+                }
+                waiting++;
+                try {
+                    remaining = available.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DatabaseException("Interrupted while waiting for a database connection.");
+                } finally {
+                    waiting--;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The current state and counters of the pool.
+     */
+    public Metrics getMetrics() {
+        lock.lock();
+        try {
+            long averageWait = acquisitions == 0 ? 0 : totalWaitNanos / acquisitions;
+            return new Metrics(total - idle.size(), idle.size(), waiting, acquisitions, timeouts,
+                    Duration.ofNanos(averageWait), Duration.ofNanos(maxWaitNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops handing out new ones. Borrowed connections are closed when
+     * they are returned.
+     */
+    @Override
+    public void close() {
+        List<IdleConnection> toClose;
+        lock.lock();
+        try {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        toClose.forEach(connection -> closeQuietly(connection.connection()));
+    }
+
+    private Connection open() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    /**
+     * Checks a connection taken from the idle list, asking the database only if it sat idle for a while.
+     */
+    private boolean isUsable(IdleConnection candidate) {
+        try {
+            if (candidate.connection().isClosed()) {
+                return false;
+            }
+            if (System.nanoTime() - candidate.idleSinceNanos() < VALIDATION_INTERVAL.toNanos()) {
+                return true;
+            }
+            return candidate.connection().isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records the acquisition and wraps the connection so that closing it returns it to the pool.
+     */
+    private Connection borrowed(Connection connection, long start) {
+        long waited = System.nanoTime() - start;
+        lock.lock();
+        try {
+            acquisitions++;
+            totalWaitNanos += waited;
+            maxWaitNanos = Math.max(maxWaitNanos, waited);
+        } finally {
+            lock.unlock();
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PooledConnectionHandler(connection));
+    }
+
+    /**
+     * Takes a connection back from a borrower. Connections that were closed underneath, or that cannot be
+     * reset to auto-commit, are discarded; the rest are put at the front of the idle list so the most
+     * recently used connections are reused first and the others can age out.
+     */
+    private void release(Connection connection) {
+        boolean reusable;
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            reusable = !connection.isClosed();
+        } catch (SQLException e) {
+            reusable = false;
+        }
+        lock.lock();
+        try {
+            if (reusable && !closed) {
+                idle.addFirst(new IdleConnection(connection, System.nanoTime()));
+                available.signal();
+                return;
+            }
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        closeQuietly(connection);
+    }
+
+    /**
+     * Closes connections idle for longer than the idle timeout while the pool is above its minimum size,
+     * then opens connections until the pool is back at its minimum size.
+     */
+    private void housekeep() {
+        List<Connection> evicted = new ArrayList<>();
+        int missing;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            Iterator<IdleConnection> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext() && total > minSize) {
+                IdleConnection candidate = oldestFirst.next();
+                if (now - candidate.idleSinceNanos() > idleTimeout.toNanos()) {
+                    oldestFirst.remove();
+                    evicted.add(candidate.connection());
+                    total--;
+                }
+            }
+            missing = closed ? 0 : minSize - total;
+            total += Math.max(0, missing);
+        } finally {
+            lock.unlock();
+        }
+        evicted.forEach(ConnectionPool::closeQuietly);
+        for (int i = 0; i < missing; i++) {
+            Connection connection = null;
+            try {
+                connection = open();
+            } catch (SQLException e) {
+                System.err.println("Error opening pooled database connection: " + e.getMessage());
+            }
+            lock.lock();
+            try {
+                if (connection != null && !closed) {
+                    idle.addLast(new IdleConnection(connection, System.nanoTime()));
+                    available.signal();
+                    continue;
+                }
+                total--;
+            } finally {
+                lock.unlock();
+            }
+            if (connection != null) {
+                closeQuietly(connection);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing database connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Forwards calls to the physical connection, except {@code close()}, which returns it to the pool once.
+     */
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private boolean returned;
+
+        PooledConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        release(connection);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || connection.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled" + connection;
+                }
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
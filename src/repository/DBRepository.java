@@ -1,78 +1,86 @@
 package repository;
 
+import exception.ConcurrencyException;
 import exception.DatabaseException;
 import model.*;
-import javax.persistence.*;
-import java.lang.reflect.Field;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DBRepository<T extends Identifiable> implements IRepository<T> {
 
-    private final Class<T> type;
-    private final String tableName;
+    /** Number of rows fetched per round trip when scanning a whole table. */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /** Number of objects of one type from which {@link #createAll} uses {@code COPY} instead of batched inserts. */
+    public static final int COPY_THRESHOLD = 500;
 
-    private static final String DB_URL = "jdbc:postgresql://localhost:5432/ticketsalescompany";
-    private static final String DB_USER = "map";
-    private static final String DB_PASSWORD = "map";
+    private final Class<T> type;
+    private final EntityMetadata<T> metadata;
+    private final PolymorphicMapping<T> polymorphicMapping;
+    private final ConnectionPool connectionPool;
+    private final int fetchSize;
+
+    /**
+     * Creates a repository for the given entity type, scanning tables {@link #DEFAULT_FETCH_SIZE} rows at a time.
+     * @param type The entity class, or an abstract base class whose subtypes are stored in separate tables.
+     * @param connectionPool The pool the repository borrows its connections from.
+     */
+    public DBRepository(Class<T> type, ConnectionPool connectionPool) {
+        this(type, connectionPool, DEFAULT_FETCH_SIZE);
+    }
 
-    public DBRepository(Class<T> type) {
+    /**
+     * Creates a repository for the given entity type.
+     * @param type The entity class, or an abstract base class whose subtypes are stored in separate tables.
+     * @param connectionPool The pool the repository borrows its connections from.
+     * @param fetchSize The number of rows the driver fetches per round trip when {@link #stream()} or
+     *                  {@link #getAll()} scan a table.
+     */
+    public DBRepository(Class<T> type, ConnectionPool connectionPool, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive: " + fetchSize);
+        }
         this.type = type;
-        this.tableName = isAbstract(type) ? null : getTableNameFromHibernate(type);
+        this.connectionPool = connectionPool;
+        this.fetchSize = fetchSize;
+        this.metadata = isAbstract(type) ? null : EntityMetadata.of(type);
+        this.polymorphicMapping = isAbstract(type) ? new PolymorphicMapping<>(getConcreteTypes()) : null;
     }
 
     private boolean isAbstract(Class<?> clazz) {
         return clazz.isInterface() || java.lang.reflect.Modifier.isAbstract(clazz.getModifiers());
     }
 
-    private String getTableNameFromHibernate(Class<?> entityClass) {
-        if (!entityClass.isAnnotationPresent(Entity.class)) {
-            throw new IllegalArgumentException("Class " + entityClass.getSimpleName() + " is not annotated with @Entity");
-        }
-        if (entityClass.isAnnotationPresent(Table.class)) {
-            Table table = entityClass.getAnnotation(Table.class);
-            if (!table.name().isEmpty()) {
-                return table.name();
-            }
-        }
-        return entityClass.getSimpleName().toLowerCase();
-    }
-
+    /**
+     * Borrows a connection from the pool; closing it returns it to the pool.
+     */
     private Connection getConnection() {
-        try {
-            return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-        } catch (SQLException e) {
-            throw new DatabaseException("Failed to establish a database connection: " + e.getMessage());
-        }
+        return connectionPool.getConnection();
     }
 
     @Override
     public void create(T obj) {
         try (Connection conn = getConnection()) {
-            Class<?> actualType = resolveConcreteType(obj.getClass());
-            String actualTable = getTableNameFromHibernate(actualType);
-
-            Field[] fields = actualType.getDeclaredFields();
-            // Exclude cheia primară
-            List<String> columns = getFieldNamesExcludingPrimaryKey(fields);
-            List<String> placeholders = getPlaceholdersExcludingPrimaryKey(fields);
-
-            if (columns.isEmpty() || placeholders.isEmpty()) {
-                throw new IllegalStateException("Cannot generate SQL: no columns or placeholders available.");
-            }
-
-            String sql = "INSERT INTO " + actualTable + " (" + String.join(", ", columns) + ") VALUES (" + String.join(", ", placeholders) + ")";
-            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                setStatementParametersExcludingPrimaryKey(stmt, fields, obj);
+            EntityMetadata<?> actual = metadataOf(obj);
+            try (PreparedStatement stmt = conn.prepareStatement(actual.getInsertSql(), Statement.RETURN_GENERATED_KEYS)) {
+                actual.bindInsert(stmt, obj);
                 stmt.executeUpdate();
 
                 // Obține ID-ul generat de baza de date
                 try (ResultSet rs = stmt.getGeneratedKeys()) {
                     if (rs.next()) {
-                        Field primaryKeyField = getPrimaryKeyField(actualType);
-                        primaryKeyField.setAccessible(true);
-                        primaryKeyField.set(obj, rs.getInt(1));
+                        actual.setPrimaryKey(obj, rs.getInt(1));
                     }
                 }
             }
@@ -83,23 +91,21 @@ public class DBRepository<T extends Identifiable> implements IRepository<T> {
         }
     }
 
+    /**
+     * Reads one entity by ID. For users and events a single query covers all subtype tables.
+     */
     @Override
     public T read(Integer id) {
         try (Connection conn = getConnection()) {
-            if (type.equals(User.class)) {
-                return (T) readFromSubtypes(conn, id, getUserSubtypes());
-            } else if (type.equals(Event.class)) {
-                return (T) readFromSubtypes(conn, id, getEventSubtypes());
-            } else {
-                String primaryKeyColumn = getPrimaryKeyColumnName(type);
-                String sql = "SELECT * FROM " + tableName + " WHERE " + primaryKeyColumn + " = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    stmt.setInt(1, id);
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        if (rs.next()) {
-                            return mapResultSetToEntity(rs);
-                        }
-                    }
+            List<Object> parameters = new ArrayList<>();
+            String sql = select((primaryKey, params) -> {
+                params.add(id);
+                return " WHERE " + primaryKey + " = ?";
+            }, parameters);
+            try (PreparedStatement stmt = prepare(conn, sql, parameters);
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rowMapper(rs).map(rs);
                 }
             }
         } catch (SQLException e) {
@@ -110,265 +116,575 @@ public class DBRepository<T extends Identifiable> implements IRepository<T> {
         return null;
     }
 
+    /**
+     * Reads all entities through {@link #stream()}, so the driver never holds more than one fetch of rows
+     * besides the list being built.
+     */
     @Override
     public List<T> getAll() {
+        try (Stream<T> entities = stream()) {
+            return entities.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * Retrieves the entities matching a query with a single {@code SELECT}, so only matching rows are read.
+     * The conditions become a {@code WHERE} clause on the attribute columns, ordered by primary key and
+     * capped with {@code LIMIT}. For users and events the clause is applied to every subtype table.
+     */
+    @Override
+    public List<T> find(Query<? super T> query) {
         List<T> results = new ArrayList<>();
-        try (Connection conn = getConnection()) {
-            if (type.equals(User.class)) {
-                results.addAll((java.util.Collection<? extends T>) getAllFromSubtypes(conn, getUserSubtypes()));
-            } else if (type.equals(Event.class)) {
-                results.addAll((java.util.Collection<? extends T>) getAllFromSubtypes(conn, getEventSubtypes()));
-            } else {
-                String sql = "SELECT * FROM " + tableName;
-                try (PreparedStatement stmt = conn.prepareStatement(sql);
-                     ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        results.add(mapResultSetToEntity(rs));
-                    }
-                }
-            }
+        List<Object> parameters = new ArrayList<>();
+        String sql = select((primaryKey, params) -> buildWhereClause(query, params), parameters)
+                + " ORDER BY " + primaryKeyColumn()
+                + (query.hasLimit() ? " LIMIT " + query.getLimit() : "");
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql, parameters);
+             ResultSet rs = stmt.executeQuery()) {
+            readAll(rs, results);
         } catch (SQLException e) {
-            throw new DatabaseException("Error retrieving all entities: " + e.getMessage());
+            throw new DatabaseException("Error querying entities: " + e.getMessage());
         } catch (Exception e) {
-            throw new DatabaseException("Unexpected error during entity retrieval: " + e.getMessage());
+            throw new DatabaseException("Unexpected error during entity query: " + e.getMessage());
         }
         return results;
     }
 
-    public void update(T obj) {
-        try (Connection conn = getConnection()) {
-            Class<?> actualType = resolveConcreteType(obj.getClass());
-            String actualTable = getTableNameFromHibernate(actualType);
+    /**
+     * Retrieves one page of the entities matching a query. The end of the previous page becomes a row
+     * comparison on the sort column and primary key, so the database seeks straight to the page through an
+     * index on those columns instead of skipping rows with {@code OFFSET}. One row more than the page size
+     * is fetched to tell whether another page follows. For users and events the comparison is applied to
+     * every subtype table and the database merges their rows.
+     */
+    @Override
+    public Page<T> findPage(Query<? super T> query, PageRequest<T> request) {
+        List<T> results = new ArrayList<>();
+        String direction = request.isDescending() ? " DESC" : "";
+        Attribute<? super T> sortBy = request.getSortBy();
+        List<Object> parameters = new ArrayList<>();
+        String sql = select((primaryKey, params) -> {
+            String where = buildWhereClause(query, params);
+            if (request.isFirst()) {
+                return where;
+            }
+            String comparison = request.isDescending() ? " < " : " > ";
+            String seek = sortBy != null
+                    ? "(" + sortBy.name() + ", " + primaryKey + ")" + comparison + "(?, ?)"
+                    : primaryKey + comparison + "?";
+            if (sortBy != null) {
+                params.add(request.getAfterKey());
+            }
+            params.add(request.getAfterID());
+            return where + (where.isEmpty() ? " WHERE " : " AND ") + seek;
+        }, parameters);
+        sql += " ORDER BY " + (sortBy != null ? sortBy.name() + direction + ", " : "") + primaryKeyColumn() + direction
+                + " LIMIT " + (request.getSize() + 1);
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql, parameters);
+             ResultSet rs = stmt.executeQuery()) {
+            readAll(rs, results);
+        } catch (SQLException e) {
+            throw new DatabaseException("Error retrieving page of entities: " + e.getMessage());
+        } catch (Exception e) {
+            throw new DatabaseException("Unexpected error during page retrieval: " + e.getMessage());
+        }
+        return Page.of(results, request);
+    }
 
-            Field[] fields = actualType.getDeclaredFields();
-            String setClause = String.join(", ", getSetClauses(fields));
-            String primaryKeyColumn = getPrimaryKeyColumnName(actualType);
+    /**
+     * Builds a {@code SELECT} over the repository's table. For users and events it combines one branch per
+     * subtype table with {@code UNION ALL}, so that a single round trip reads all of them; the combined rows
+     * carry a discriminator naming their subtype.
+     *
+     * @param where      Builds the {@code WHERE} clause of one table from its primary key column, adding the
+     *                   values to bind to the list it is given. It is called once per table, in query order.
+     * @param parameters Receives the values to bind, in order.
+     */
+    private String select(BiFunction<String, List<Object>, String> where, List<Object> parameters) {
+        if (polymorphicMapping == null) {
+            return metadata.getSelectAllSql() + where.apply(metadata.getPrimaryKeyColumn(), parameters);
+        }
+        List<String> branches = new ArrayList<>();
+        for (EntityMetadata<? extends T> subtype : polymorphicMapping.getSubtypes()) {
+            branches.add(polymorphicMapping.getSelectSql(subtype) + where.apply(subtype.getPrimaryKeyColumn(), parameters));
+        }
+        return String.join(" UNION ALL ", branches);
+    }
 
-            String sql = "UPDATE " + actualTable + " SET " + setClause + " WHERE " + primaryKeyColumn + " = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                setStatementParameters(stmt, fields, obj);
+    /**
+     * @return The column to order the results of {@link #select} by ID.
+     */
+    private String primaryKeyColumn() {
+        return polymorphicMapping == null ? metadata.getPrimaryKeyColumn() : PolymorphicMapping.ID_COLUMN;
+    }
 
-                // Setează valoarea cheii primare
-                Field primaryKeyField = getPrimaryKeyField(actualType);
-                primaryKeyField.setAccessible(true);
-                stmt.setObject(fields.length, primaryKeyField.get(obj));
+    private RowMapper<T> rowMapper(ResultSet rs) throws SQLException {
+        return polymorphicMapping == null ? metadata.rowMapper(rs) : polymorphicMapping.rowMapper(rs);
+    }
 
-                stmt.executeUpdate();
-            }
-        } catch (SQLException e) {
-            throw new DatabaseException("Error updating entity: " + e.getMessage());
-        } catch (Exception e) {
-            throw new DatabaseException("Unexpected error during entity update: " + e.getMessage());
+    private PreparedStatement prepare(Connection conn, String sql, List<Object> parameters) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        for (int i = 0; i < parameters.size(); i++) {
+            stmt.setObject(i + 1, toSqlValue(parameters.get(i)));
         }
+        return stmt;
     }
 
-    private Field getPrimaryKeyField(Class<?> clazz) {
-        for (Field field : clazz.getDeclaredFields()) {
-            if (field.isAnnotationPresent(Id.class)) {
-                return field;
-            }
+    /**
+     * Maps every remaining row of a result set, resolving the column positions once for the whole result.
+     */
+    private void readAll(ResultSet rs, List<T> results) throws SQLException {
+        RowMapper<T> mapper = rowMapper(rs);
+        while (rs.next()) {
+            results.add(mapper.map(rs));
         }
-        throw new IllegalArgumentException("No primary key field found in class: " + clazz.getName());
     }
 
-    @Override
-    public void delete(Integer id) {
-        try (Connection conn = getConnection()) {
-            if (type.equals(User.class)) {
-                for (Class<? extends User> subtype : getUserSubtypes()) {
-                    String tableName = getTableNameFromHibernate((Class<T>) subtype);
-                    String primaryKeyColumn = getPrimaryKeyColumnName(subtype);
-                    String sql = "DELETE FROM " + tableName + " WHERE " + primaryKeyColumn + " = ?";
-                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                        stmt.setInt(1, id);
-                        stmt.executeUpdate();
+    /**
+     * Builds the {@code WHERE} clause for a query, adding the values to bind to {@code parameters} in order.
+     */
+    private String buildWhereClause(Query<?> query, List<Object> parameters) {
+        List<String> clauses = buildConditions(query, parameters);
+        return clauses.isEmpty() ? "" : " WHERE " + String.join(" AND ", clauses);
+    }
+
+    /**
+     * Translates the conditions of a query to SQL predicates, adding the values to bind to {@code parameters} in order.
+     */
+    static List<String> buildConditions(Query<?> query, List<Object> parameters) {
+        List<String> clauses = new ArrayList<>();
+        for (Query.Condition<?> condition : query.getConditions()) {
+            String column = condition.attribute().name();
+            List<Object> values = condition.values();
+            switch (condition.operator()) {
+                case EQUALS -> {
+                    if (values.get(0) == null) {
+                        clauses.add(column + " IS NULL");
+                    } else {
+                        clauses.add(column + " = ?");
+                        parameters.add(values.get(0));
                     }
                 }
-            } else if (type.equals(Event.class)) {
-                for (Class<? extends Event> subtype : getEventSubtypes()) {
-                    String tableName = getTableNameFromHibernate((Class<T>) subtype);
-                    String primaryKeyColumn = getPrimaryKeyColumnName(subtype);
-                    String sql = "DELETE FROM " + tableName + " WHERE " + primaryKeyColumn + " = ?";
-                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                        stmt.setInt(1, id);
-                        stmt.executeUpdate();
+                case IN -> {
+                    if (values.isEmpty()) {
+                        clauses.add("FALSE");
+                    } else {
+                        clauses.add(column + " IN (" + String.join(", ", Collections.nCopies(values.size(), "?")) + ")");
+                        parameters.addAll(values);
                     }
                 }
-            } else {
-                // Ștergere pentru un tip concret
-                String primaryKeyColumn = getPrimaryKeyColumnName(type);
-                String sql = "DELETE FROM " + tableName + " WHERE " + primaryKeyColumn + " = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    stmt.setInt(1, id);
-                    stmt.executeUpdate();
+                case RANGE -> {
+                    if (values.get(0) != null) {
+                        clauses.add(column + " >= ?");
+                        parameters.add(values.get(0));
+                    }
+                    if (values.get(1) != null) {
+                        clauses.add(column + " <= ?");
+                        parameters.add(values.get(1));
+                    }
                 }
             }
-        } catch (SQLException e) {
-            throw new DatabaseException("Error deleting entity with ID " + id + ": " + e.getMessage());
-        } catch (Exception e) {
-            throw new DatabaseException("Unexpected error during entity deletion: " + e.getMessage());
         }
+        return clauses;
     }
 
-    // Helper Methods
-    private Class<?> resolveConcreteType(Class<?> clazz) {
-        return isAbstract(clazz) ? null : clazz;
+    /**
+     * Converts a query value to the form stored in the database: enums by name, dates as timestamps
+     * and referenced entities by ID.
+     */
+    static Object toSqlValue(Object value) {
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        } else if (value instanceof LocalDateTime dateTime) {
+            return Timestamp.valueOf(dateTime);
+        } else if (value instanceof Identifiable entity) {
+            return entity.getID();
+        }
+        return value;
     }
 
-    private List<Class<? extends User>> getUserSubtypes() {
-        return List.of(Admin.class, Customer.class);
+    /**
+     * Streams all entities by iterating a live result set, mapping each row only when the stream reaches it.
+     * For users and events one query covers all subtype tables. The connection is released when the stream
+     * is exhausted or closed, so streams that may stop early must be closed.
+     * <p>
+     * The query runs inside a read-only transaction with a fetch size, which makes the PostgreSQL driver read
+     * the rows through a server-side cursor, a fetch at a time, instead of loading the whole result before
+     * returning the first row. Memory use therefore stays constant however many rows the table holds.
+     */
+    @Override
+    public Stream<T> stream() {
+        ResultSetCursor cursor = new ResultSetCursor(getConnection(), select((primaryKey, params) -> "", new ArrayList<>()));
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
     }
 
-    private List<Class<? extends Event>> getEventSubtypes() {
-        return List.of(Concert.class, SportsEvent.class);
+    @SuppressWarnings("unchecked")
+    private List<Class<? extends T>> getConcreteTypes() {
+        if (type.equals(User.class)) {
+            return (List<Class<? extends T>>) (List<?>) getUserSubtypes();
+        } else if (type.equals(Event.class)) {
+            return (List<Class<? extends T>>) (List<?>) getEventSubtypes();
+        }
+        return List.of(type);
     }
 
-    private <S> S readFromSubtypes(Connection conn, Integer id, List<Class<? extends S>> subtypes) throws Exception {
-        for (Class<? extends S> subtype : subtypes) {
-            String tableName = getTableNameFromHibernate(subtype);
-            String primaryKeyColumn = getPrimaryKeyColumnName(subtype);
-            String sql = "SELECT * FROM " + tableName + " WHERE " + primaryKeyColumn + " = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, id);
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        S entity = subtype.getDeclaredConstructor().newInstance();
-                        mapResultSetToFields(rs, entity);
-                        return entity;
-                    }
+    /**
+     * Walks the rows of a query, which runs when the first entity is requested. Auto-commit stays off while
+     * the cursor is open, since the driver only fetches incrementally inside a transaction.
+     */
+    private class ResultSetCursor extends Spliterators.AbstractSpliterator<T> {
+        private final Connection conn;
+        private final String sql;
+        private RowMapper<T> mapper;
+        private PreparedStatement stmt;
+        private ResultSet rs;
+        private boolean closed;
+
+        ResultSetCursor(Connection conn, String sql) {
+            super(Long.MAX_VALUE, ORDERED | NONNULL);
+            this.conn = conn;
+            this.sql = sql;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            T entity;
+            try {
+                if (rs == null) {
+                    conn.setAutoCommit(false);
+                    conn.setReadOnly(true);
+                    stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    stmt.setFetchSize(fetchSize);
+                    rs = stmt.executeQuery();
+                    mapper = rowMapper(rs);
                 }
+                if (!rs.next()) {
+                    close();
+                    return false;
+                }
+                entity = mapper.map(rs);
+            } catch (SQLException e) {
+                close();
+                throw new DatabaseException("Error retrieving all entities: " + e.getMessage());
+            } catch (Exception e) {
+                close();
+                throw new DatabaseException("Unexpected error during entity retrieval: " + e.getMessage());
             }
+            action.accept(entity);
+            return true;
         }
-        return null;
-    }
 
-    private <S> List<S> getAllFromSubtypes(Connection conn, List<Class<? extends S>> subtypes) throws Exception {
-        List<S> results = new ArrayList<>();
-        for (Class<? extends S> subtype : subtypes) {
-            String tableName = getTableNameFromHibernate(subtype);
-            String sql = "SELECT * FROM " + tableName;
-            try (PreparedStatement stmt = conn.prepareStatement(sql);
-                 ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    S entity = subtype.getDeclaredConstructor().newInstance();
-                    mapResultSetToFields(rs, entity);
-                    results.add(entity);
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (rs != null) {
+                    rs.close();
                 }
+                if (stmt != null) {
+                    stmt.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing result set: " + e.getMessage());
+            }
+            try {
+                if (!conn.getAutoCommit()) {
+                    conn.commit();
+                    conn.setAutoCommit(true);
+                }
+                conn.setReadOnly(false);
+            } catch (SQLException e) {
+                System.err.println("Error ending read transaction: " + e.getMessage());
+            }
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing connection: " + e.getMessage());
             }
         }
-        return results;
     }
 
-    private <S> void mapResultSetToFields(ResultSet rs, S entity) throws Exception {
-        Field[] fields = entity.getClass().getDeclaredFields();
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(Transient.class)) {
-                continue;
-            }
-            field.setAccessible(true);
-            String columnName = field.isAnnotationPresent(Column.class)
-                    ? field.getAnnotation(Column.class).name()
-                    : field.getName();
-            Object value = rs.getObject(columnName);
-            if (value != null) {
-                field.set(entity, value);
+    /**
+     * Updates an object's row. A versioned object is only written if its row still has the version the object
+     * was read with, and its version is incremented on success.
+     * @throws ConcurrencyException If the row of a versioned object was changed or deleted since it was read.
+     */
+    @Override
+    public void update(T obj) {
+        try (Connection conn = getConnection()) {
+            EntityMetadata<?> actual = metadataOf(obj);
+            try (PreparedStatement stmt = conn.prepareStatement(actual.getUpdateSql())) {
+                actual.bindUpdate(stmt, obj);
+                if (stmt.executeUpdate() == 0 && actual.isVersioned()) {
+                    throw staleObject(obj);
+                }
             }
+            actual.incrementVersion(obj);
+        } catch (ConcurrencyException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error updating entity: " + e.getMessage());
+        } catch (Exception e) {
+            throw new DatabaseException("Unexpected error during entity update: " + e.getMessage());
         }
     }
 
-    private List<String> getFieldNames(Field[] fields) {
-        List<String> names = new ArrayList<>();
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(Column.class) && !field.getName().endsWith("_id")) {
-                Column column = field.getAnnotation(Column.class);
-                String columnName = column.name().isEmpty() ? field.getName() : column.name();
-                names.add(columnName);
+    /**
+     * Inserts all objects on one connection and in one transaction. Objects are grouped by concrete type so
+     * each table gets a single batched statement. Groups of at least {@link #COPY_THRESHOLD} objects are
+     * streamed with PostgreSQL's {@code COPY} instead, with IDs reserved from the table's sequence up front,
+     * when the database supports it.
+     */
+    @Override
+    public void createAll(List<T> objects) {
+        if (objects.isEmpty()) {
+            return;
+        }
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Map.Entry<EntityMetadata<?>, List<T>> group : groupByConcreteType(objects).entrySet()) {
+                    EntityMetadata<?> actual = group.getKey();
+                    if (group.getValue().size() < COPY_THRESHOLD || !copyIn(conn, actual, group.getValue())) {
+                        batchInsert(conn, actual, group.getValue());
+                    }
+                }
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
             }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error inserting entities into database: " + e.getMessage());
+        } catch (Exception e) {
+            throw new DatabaseException("Unexpected error during batch entity creation: " + e.getMessage());
         }
-        return names;
     }
 
-    private List<String> getPlaceholders(Field[] fields) {
-        List<String> placeholders = new ArrayList<>();
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(Column.class) && !field.getName().endsWith("_id")) {
-                placeholders.add("?");
+    private void batchInsert(Connection conn, EntityMetadata<?> actual, List<T> objects) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(actual.getInsertSql(), Statement.RETURN_GENERATED_KEYS)) {
+            for (T obj : objects) {
+                actual.bindInsert(stmt, obj);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                for (T obj : objects) {
+                    if (!rs.next()) {
+                        break;
+                    }
+                    actual.setPrimaryKey(obj, rs.getInt(1));
+                }
             }
         }
-        return placeholders;
     }
 
-    private List<String> getSetClauses(Field[] fields) {
-        List<String> clauses = new ArrayList<>();
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(Column.class) && !field.getName().endsWith("_id")) {
-                String columnName = field.getAnnotation(Column.class).name().isEmpty()
-                        ? field.getName()
-                        : field.getAnnotation(Column.class).name();
-                clauses.add(columnName + " = ?");
-            }
+    /**
+     * Copies objects into their table and assigns them their reserved IDs.
+     *
+     * @return False, without inserting anything, if the connection or table does not support the copy path.
+     */
+    private boolean copyIn(Connection conn, EntityMetadata<?> actual, List<T> objects) throws SQLException {
+        if (!PostgresCopy.isSupported(conn)) {
+            return false;
         }
-        return clauses;
+        int[] ids = PostgresCopy.reserveIDs(conn, actual, objects.size());
+        if (ids == null) {
+            return false;
+        }
+        PostgresCopy.copyIn(conn, actual, objects, ids);
+        for (int i = 0; i < objects.size(); i++) {
+            actual.setPrimaryKey(objects.get(i), ids[i]);
+        }
+        return true;
     }
 
-    private void setStatementParameters(PreparedStatement stmt, Field[] fields, T obj) throws Exception {
-        int index = 1;
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(Column.class) && !field.getName().endsWith("_id")) {
-                field.setAccessible(true);
-                stmt.setObject(index++, field.get(obj));
+    /**
+     * Applies the change with a single conditional {@code UPDATE}: the row is only written if it still meets the
+     * conditions and, for a versioned object, still has the version that was read, for example
+     * {@code UPDATE ticket SET is_sold = ?, ... WHERE ticket_id = ? AND version = ? AND is_sold = ?}.
+     * No lock is held between reading the object and writing it; a concurrent writer makes the update match
+     * no row instead, and the change is reported as not applied.
+     */
+    @Override
+    public boolean compareAndSet(Integer id, Query<? super T> expected, Consumer<? super T> change) {
+        T stored = read(id);
+        if (stored == null || !expected.matches(stored)) {
+            return false;
+        }
+        change.accept(stored);
+        try (Connection conn = getConnection()) {
+            EntityMetadata<?> actual = metadataOf(stored);
+            List<Object> parameters = new ArrayList<>();
+            List<String> conditions = buildConditions(expected, parameters);
+            String sql = conditions.isEmpty() ? actual.getUpdateSql()
+                    : actual.getUpdateSql() + " AND " + String.join(" AND ", conditions);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int index = actual.bindUpdate(stmt, stored);
+                for (Object parameter : parameters) {
+                    stmt.setObject(index++, toSqlValue(parameter));
+                }
+                if (stmt.executeUpdate() == 0) {
+                    return false;
+                }
             }
+            actual.incrementVersion(stored);
+            return true;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error updating entity with ID " + id + ": " + e.getMessage());
+        } catch (Exception e) {
+            throw new DatabaseException("Unexpected error during conditional entity update: " + e.getMessage());
         }
     }
 
-    private T mapResultSetToEntity(ResultSet rs) throws Exception {
-        if (type.isInterface() || java.lang.reflect.Modifier.isAbstract(type.getModifiers())) {
-            throw new InstantiationException("Cannot instantiate abstract class or interface: " + type.getName());
+    /**
+     * Updates all objects using JDBC batching on one connection and in one transaction. If the row of any
+     * versioned object was changed since it was read, nothing is updated.
+     * @throws ConcurrencyException If the row of a versioned object was changed or deleted since it was read.
+     */
+    @Override
+    public void updateAll(List<T> objects) {
+        if (objects.isEmpty()) {
+            return;
+        }
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Map.Entry<EntityMetadata<?>, List<T>> group : groupByConcreteType(objects).entrySet()) {
+                    EntityMetadata<?> actual = group.getKey();
+                    try (PreparedStatement stmt = conn.prepareStatement(actual.getUpdateSql())) {
+                        for (T obj : group.getValue()) {
+                            actual.bindUpdate(stmt, obj);
+                            stmt.addBatch();
+                        }
+                        int[] counts = stmt.executeBatch();
+                        if (actual.isVersioned()) {
+                            for (int i = 0; i < counts.length; i++) {
+                                if (counts[i] == 0) {
+                                    throw staleObject(group.getValue().get(i));
+                                }
+                            }
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            }
+            for (T obj : objects) {
+                metadataOf(obj).incrementVersion(obj);
+            }
+        } catch (ConcurrencyException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error updating entities: " + e.getMessage());
+        } catch (Exception e) {
+            throw new DatabaseException("Unexpected error during batch entity update: " + e.getMessage());
         }
-        T obj = type.getDeclaredConstructor().newInstance();
-        mapResultSetToFields(rs, obj);
-        return obj;
     }
 
-    private String getPrimaryKeyColumnName(Class<?> clazz) {
-        Field primaryKeyField = getPrimaryKeyField(clazz);
-        if (primaryKeyField.isAnnotationPresent(Column.class)) {
-            Column columnAnnotation = primaryKeyField.getAnnotation(Column.class);
-            return columnAnnotation.name().isEmpty() ? primaryKeyField.getName() : columnAnnotation.name();
+    /**
+     * Deletes all objects with the given IDs using JDBC batching on one connection and in one transaction.
+     */
+    @Override
+    public void deleteAll(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Class<? extends T> table : getConcreteTypes()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(EntityMetadata.of(table).getDeleteByIdSql())) {
+                        for (Integer id : ids) {
+                            stmt.setInt(1, id);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error deleting entities: " + e.getMessage());
         }
-        return primaryKeyField.getName();
     }
 
-    private List<String> getFieldNamesExcludingPrimaryKey(Field[] fields) {
-        List<String> names = new ArrayList<>();
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(Column.class) && !field.isAnnotationPresent(Id.class)) {
-                Column column = field.getAnnotation(Column.class);
-                String columnName = column.name().isEmpty() ? field.getName() : column.name();
-                names.add(columnName);
-            }
+    private Map<EntityMetadata<?>, List<T>> groupByConcreteType(List<T> objects) {
+        Map<EntityMetadata<?>, List<T>> groups = new LinkedHashMap<>();
+        for (T obj : objects) {
+            groups.computeIfAbsent(metadataOf(obj), key -> new ArrayList<>()).add(obj);
         }
-        return names;
+        return groups;
     }
 
-    private List<String> getPlaceholdersExcludingPrimaryKey(Field[] fields) {
-        List<String> placeholders = new ArrayList<>();
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(Column.class) && !field.isAnnotationPresent(Id.class)) {
-                placeholders.add("?");
-            }
+    /** Reports an update that matched no row, because the object was changed or deleted since it was read. */
+    private ConcurrencyException staleObject(T obj) {
+        return new ConcurrencyException(obj.getClass().getSimpleName() + " with ID " + obj.getID()
+                + " was changed or deleted by someone else. Reload it and try again.");
+    }
+
+    /**
+     * Looks up the mapping of an object's own class, which may be a subtype of the repository's type.
+     */
+    private EntityMetadata<?> metadataOf(T obj) {
+        Class<?> actualType = resolveConcreteType(obj.getClass());
+        if (actualType == null) {
+            throw new IllegalArgumentException("Cannot persist abstract type: " + obj.getClass().getName());
         }
-        return placeholders;
+        return EntityMetadata.of(actualType);
+    }
+
+    @Override
+    public void delete(Integer id) {
+        deleteIfPresent(id);
     }
 
-    private void setStatementParametersExcludingPrimaryKey(PreparedStatement stmt, Field[] fields, T obj) throws Exception {
-        int index = 1;
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(Column.class) && !field.isAnnotationPresent(Id.class)) {
-                field.setAccessible(true);
-                stmt.setObject(index++, field.get(obj));
+    /**
+     * Deletes the row with the ID from every table of the repository's type, telling from the number of
+     * deleted rows whether it existed.
+     */
+    @Override
+    public boolean deleteIfPresent(Integer id) {
+        try (Connection conn = getConnection()) {
+            int deleted = 0;
+            for (Class<? extends T> table : getConcreteTypes()) {
+                try (PreparedStatement stmt = conn.prepareStatement(EntityMetadata.of(table).getDeleteByIdSql())) {
+                    stmt.setInt(1, id);
+                    deleted += stmt.executeUpdate();
+                }
             }
+            return deleted > 0;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error deleting entity with ID " + id + ": " + e.getMessage());
+        } catch (Exception e) {
+            throw new DatabaseException("Unexpected error during entity deletion: " + e.getMessage());
         }
     }
 
-}
\ No newline at end of file
+    // Helper Methods
+    private Class<?> resolveConcreteType(Class<?> clazz) {
+        return isAbstract(clazz) ? null : clazz;
+    }
+
+    private List<Class<? extends User>> getUserSubtypes() {
+        return List.of(Admin.class, Customer.class);
+    }
+
+    private List<Class<? extends Event>> getEventSubtypes() {
+        return List.of(Concert.class, SportsEvent.class);
+    }
+
+}
@@ -0,0 +1,494 @@
+package repository;
+
+import model.Identifiable;
+
+import javax.persistence.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The mapping between an entity class and its table, worked out once per class from the JPA annotations.
+ * <p>
+ * Holds the table and primary key names, the SQL statements used by {@link DBRepository}, and method handles
+ * for the constructor and for reading and writing every mapped field, so rows are mapped without looking up
+ * annotations or fields again. Columns are read with the typed {@link ResultSet} getter matching each field,
+ * by column index, as hand-written JDBC code would.
+ * <p>
+ * An entity with a {@code @Version} field is updated optimistically: the update only matches the row if its
+ * version is still the one that was read, and increments it, so a concurrent change is detected instead of
+ * being overwritten.
+ * <p>
+ * A reference with a {@code @JoinColumn} is stored as the ID of the referenced entity. If the entity keeps the
+ * ID of a reference it has not resolved yet in a field named {@code pending<Reference>ID}, as entities read from
+ * CSV do, that ID is written instead, so storing the entity does not resolve the reference, and the column
+ * is read back into that field, so the reference is resolved on first access.
+ * <p>
+ * Columns declared by an entity or mapped superclass, such as those of {@code Event} and {@code User}, are
+ * mapped in every subclass table.
+ *
+ * @param <E> The entity class.
+ */
+final class EntityMetadata<E> {
+
+    private static final MethodHandle REFERENCED_ID;
+
+    static {
+        try {
+            REFERENCED_ID = MethodHandles.lookup().findStatic(EntityMetadata.class, "referencedID",
+                    MethodType.methodType(Object.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final ClassValue<EntityMetadata<?>> CACHE = new ClassValue<>() {
+        @Override
+        protected EntityMetadata<?> computeValue(Class<?> type) {
+            return new EntityMetadata<>(type);
+        }
+    };
+
+    private final Class<E> type;
+    private final String tableName;
+    private final String primaryKeyColumn;
+    private final MethodHandle constructor;
+    private final ColumnMapping primaryKey;
+    private final ColumnMapping version;
+    private final List<ColumnMapping> readColumns = new ArrayList<>();
+    private final List<ColumnMapping> insertColumns = new ArrayList<>();
+    private final List<ColumnMapping> updateColumns = new ArrayList<>();
+
+    private final String selectAllSql;
+    private final String selectByIdSql;
+    private final String insertSql;
+    private final String updateSql;
+    private final String deleteByIdSql;
+
+    /**
+     * How one field is stored in one column.
+     *
+     * @param column The column name.
+     * @param kind   How the column is read and written.
+     * @param getter Handle of type {@code (Object)Object} reading the field.
+     * @param setter Handle of type {@code (Object, Object)void} writing the field, or null if the column is
+     *               only written.
+     * @param enumType The enum class for {@link Kind#ENUM} columns, otherwise null.
+     */
+    private record ColumnMapping(String column, Kind kind, MethodHandle getter, MethodHandle setter, Class<?> enumType) {}
+
+    /**
+     * The typed JDBC accessor used for a field.
+     */
+    private enum Kind { INT, LONG, DOUBLE, BOOLEAN, STRING, ENUM, DATE_TIME, DATE, OBJECT }
+
+    /**
+     * Maps the rows of one result set, with the column index of every field resolved once.
+     */
+    private final class IndexedRowMapper implements RowMapper<E> {
+        private final ColumnMapping[] columns;
+        private final int[] indexes;
+
+        private IndexedRowMapper(ResultSetMetaData resultSetMetaData) throws SQLException {
+            Map<String, Integer> indexByLabel = new HashMap<>();
+            for (int i = resultSetMetaData.getColumnCount(); i >= 1; i--) {
+                indexByLabel.put(resultSetMetaData.getColumnLabel(i).toLowerCase(), i);
+            }
+            List<ColumnMapping> present = new ArrayList<>();
+            List<Integer> presentIndexes = new ArrayList<>();
+            for (ColumnMapping column : readColumns) {
+                Integer index = indexByLabel.get(column.column().toLowerCase());
+                if (index == null) {
+                    throw new SQLException("Column " + column.column() + " not found in result set of " + tableName);
+                }
+                present.add(column);
+                presentIndexes.add(index);
+            }
+            this.columns = present.toArray(new ColumnMapping[0]);
+            this.indexes = presentIndexes.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        @Override
+        public E map(ResultSet rs) throws SQLException {
+            E entity = newInstance();
+            for (int i = 0; i < columns.length; i++) {
+                Object value = read(rs, indexes[i], columns[i]);
+                if (value != null) {
+                    set(columns[i], entity, value);
+                }
+            }
+            return entity;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> EntityMetadata<E> of(Class<E> type) {
+        return (EntityMetadata<E>) CACHE.get(type);
+    }
+
+    private EntityMetadata(Class<E> type) {
+        if (!type.isAnnotationPresent(Entity.class)) {
+            throw new IllegalArgumentException("Class " + type.getSimpleName() + " is not annotated with @Entity");
+        }
+        this.type = type;
+        this.tableName = tableNameOf(type);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            ColumnMapping id = null;
+            ColumnMapping versionColumn = null;
+            for (Field field : mappedFields(type)) {
+                // Fields inherited from a mapped superclass are only accessible through their declaring class
+                MethodHandles.Lookup fieldLookup = field.getDeclaringClass() == type ? lookup
+                        : MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+                if (field.isAnnotationPresent(JoinColumn.class) && !field.isAnnotationPresent(Transient.class)) {
+                    ColumnMapping mapping = joinColumnMapping(fieldLookup, field);
+                    insertColumns.add(mapping);
+                    updateColumns.add(mapping);
+                    if (mapping.setter() != null) {
+                        readColumns.add(mapping);
+                    }
+                    continue;
+                }
+                Kind kind = kindOf(field.getType());
+                ColumnMapping mapping = new ColumnMapping(columnNameOf(field), kind,
+                        fieldLookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class)),
+                        fieldLookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class)),
+                        kind == Kind.ENUM ? field.getType() : null);
+                if (field.isAnnotationPresent(Id.class)) {
+                    id = mapping;
+                }
+                if (field.isAnnotationPresent(Version.class)) {
+                    versionColumn = mapping;
+                }
+                // References and collections have no column of their own
+                if (!field.isAnnotationPresent(Transient.class) && kind != Kind.OBJECT) {
+                    readColumns.add(mapping);
+                }
+                if (field.isAnnotationPresent(Column.class) && !field.isAnnotationPresent(Id.class)) {
+                    insertColumns.add(mapping);
+                }
+                if (field.isAnnotationPresent(Column.class) && !field.isAnnotationPresent(Id.class)
+                        && !field.isAnnotationPresent(Version.class)) {
+                    updateColumns.add(mapping);
+                }
+            }
+            if (id == null) {
+                throw new IllegalArgumentException("No primary key field found in class: " + type.getName());
+            }
+            this.primaryKey = id;
+            this.version = versionColumn;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot access the fields of " + type.getName() + ": " + e.getMessage(), e);
+        }
+        this.primaryKeyColumn = primaryKey.column();
+
+        this.selectAllSql = "SELECT * FROM " + tableName;
+        this.selectByIdSql = selectAllSql + " WHERE " + primaryKeyColumn + " = ?";
+        this.insertSql = insertColumns.isEmpty() ? null
+                : "INSERT INTO " + tableName + " (" + String.join(", ", columnNames(insertColumns))
+                + ") VALUES (" + String.join(", ", placeholders(insertColumns.size())) + ")";
+        this.updateSql = version == null
+                ? "UPDATE " + tableName + " SET " + String.join(" = ?, ", columnNames(updateColumns))
+                + " = ? WHERE " + primaryKeyColumn + " = ?"
+                : "UPDATE " + tableName + " SET " + String.join(" = ?, ", columnNames(updateColumns))
+                + " = ?, " + version.column() + " = " + version.column() + " + 1 WHERE " + primaryKeyColumn
+                + " = ? AND " + version.column() + " = ?";
+        this.deleteByIdSql = "DELETE FROM " + tableName + " WHERE " + primaryKeyColumn + " = ?";
+    }
+
+    Class<E> getType() {
+        return type;
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    String getPrimaryKeyColumn() {
+        return primaryKeyColumn;
+    }
+
+    /**
+     * @return The names of the columns read into an entity, primary key included.
+     */
+    List<String> getColumnNames() {
+        return columnNames(readColumns);
+    }
+
+    /**
+     * @return The names of the columns written on insert, in the order of {@link #insertValues}.
+     */
+    List<String> getInsertColumnNames() {
+        return columnNames(insertColumns);
+    }
+
+    String getSelectAllSql() {
+        return selectAllSql;
+    }
+
+    String getSelectByIdSql() {
+        return selectByIdSql;
+    }
+
+    /**
+     * @throws IllegalStateException If the entity has no columns besides its primary key.
+     */
+    String getInsertSql() {
+        if (insertSql == null) {
+            throw new IllegalStateException("Cannot generate SQL: no columns or placeholders available.");
+        }
+        return insertSql;
+    }
+
+    /**
+     * @return The update of one row by primary key, which for a versioned entity also requires the version
+     *         that was read and increments it.
+     */
+    String getUpdateSql() {
+        return updateSql;
+    }
+
+    String getDeleteByIdSql() {
+        return deleteByIdSql;
+    }
+
+    /**
+     * Prepares a mapper for the rows of a result set containing this entity's columns.
+     */
+    RowMapper<E> rowMapper(ResultSet rs) throws SQLException {
+        return new IndexedRowMapper(rs.getMetaData());
+    }
+
+    /**
+     * Binds the inserted columns of an entity, in the order of {@link #getInsertSql()}.
+     */
+    void bindInsert(PreparedStatement stmt, Object entity) throws SQLException {
+        int index = 1;
+        for (ColumnMapping column : insertColumns) {
+            stmt.setObject(index++, toSqlValue(get(column, entity)));
+        }
+    }
+
+    /**
+     * @return The values of the inserted columns of an entity, in the form stored in the database.
+     */
+    Object[] insertValues(Object entity) {
+        Object[] values = new Object[insertColumns.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = toSqlValue(get(insertColumns.get(i), entity));
+        }
+        return values;
+    }
+
+    /**
+     * Binds the updated columns of an entity followed by its primary key and version, in the order of
+     * {@link #getUpdateSql()}.
+     *
+     * @return The index of the next parameter, for conditions appended to the statement.
+     */
+    int bindUpdate(PreparedStatement stmt, Object entity) throws SQLException {
+        int index = 1;
+        for (ColumnMapping column : updateColumns) {
+            stmt.setObject(index++, toSqlValue(get(column, entity)));
+        }
+        stmt.setObject(index++, get(primaryKey, entity));
+        if (version != null) {
+            stmt.setObject(index++, get(version, entity));
+        }
+        return index;
+    }
+
+    /**
+     * @return Whether the entity has a {@code @Version} field checked on update.
+     */
+    boolean isVersioned() {
+        return version != null;
+    }
+
+    /**
+     * Brings an entity's version in line with its row after a successful update.
+     */
+    void incrementVersion(Object entity) {
+        if (version != null) {
+            set(version, entity, (Integer) get(version, entity) + 1);
+        }
+    }
+
+    /**
+     * Stores a generated primary key in an entity.
+     */
+    void setPrimaryKey(Object entity, int id) {
+        set(primaryKey, entity, id);
+    }
+
+    /**
+     * Maps a reference to its join column, written as the pending ID if there is one and as the ID of the
+     * referenced entity otherwise. The column is only read back into entities with a pending ID field.
+     */
+    private static ColumnMapping joinColumnMapping(MethodHandles.Lookup lookup, Field field)
+            throws IllegalAccessException {
+        MethodHandle reference = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+        MethodHandle pendingID;
+        MethodHandle setter;
+        try {
+            Field pendingField = field.getDeclaringClass().getDeclaredField(pendingFieldNameOf(field));
+            pendingID = lookup.unreflectGetter(pendingField).asType(MethodType.methodType(Object.class, Object.class));
+            setter = lookup.unreflectSetter(pendingField)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (NoSuchFieldException e) {
+            pendingID = MethodHandles.dropArguments(MethodHandles.constant(Object.class, null), 0, Object.class);
+            setter = null;
+        }
+        // (entity) -> referencedID(pendingID(entity), reference(entity))
+        MethodHandle getter = MethodHandles.permuteArguments(
+                MethodHandles.filterArguments(REFERENCED_ID, 0, pendingID, reference),
+                MethodType.methodType(Object.class, Object.class), 0, 0);
+        return new ColumnMapping(field.getAnnotation(JoinColumn.class).name(), Kind.INT, getter, setter, null);
+    }
+
+    private static Object referencedID(Object pendingID, Object reference) {
+        if (pendingID != null) {
+            return pendingID;
+        }
+        return reference == null ? null : ((Identifiable) reference).getID();
+    }
+
+    private static String pendingFieldNameOf(Field reference) {
+        String name = reference.getName();
+        return "pending" + Character.toUpperCase(name.charAt(0)) + name.substring(1) + "ID";
+    }
+
+    private E newInstance() {
+        try {
+            return type.cast((Object) constructor.invokeExact());
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot instantiate " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Object get(ColumnMapping column, Object entity) {
+        try {
+            return (Object) column.getter().invokeExact(entity);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot read column " + column.column() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void set(ColumnMapping column, Object entity, Object value) {
+        try {
+            column.setter().invokeExact(entity, value);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot write column " + column.column() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object read(ResultSet rs, int index, ColumnMapping column) throws SQLException {
+        Object value = switch (column.kind()) {
+            case INT -> rs.getInt(index);
+            case LONG -> rs.getLong(index);
+            case DOUBLE -> rs.getDouble(index);
+            case BOOLEAN -> rs.getBoolean(index);
+            case STRING -> rs.getString(index);
+            case ENUM -> {
+                String name = rs.getString(index);
+                yield name == null ? null : Enum.valueOf((Class<Enum>) column.enumType(), name);
+            }
+            case DATE_TIME -> {
+                Timestamp timestamp = rs.getTimestamp(index);
+                yield timestamp == null ? null : timestamp.toLocalDateTime();
+            }
+            case DATE -> {
+                java.sql.Date date = rs.getDate(index);
+                yield date == null ? null : date.toLocalDate();
+            }
+            case OBJECT -> rs.getObject(index);
+        };
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * Converts a field value to the form stored in the database: enums by name.
+     */
+    private static Object toSqlValue(Object value) {
+        return value instanceof Enum<?> constant ? constant.name() : value;
+    }
+
+    private static Kind kindOf(Class<?> fieldType) {
+        if (fieldType == int.class || fieldType == Integer.class) {
+            return Kind.INT;
+        } else if (fieldType == long.class || fieldType == Long.class) {
+            return Kind.LONG;
+        } else if (fieldType == double.class || fieldType == Double.class) {
+            return Kind.DOUBLE;
+        } else if (fieldType == boolean.class || fieldType == Boolean.class) {
+            return Kind.BOOLEAN;
+        } else if (fieldType == String.class) {
+            return Kind.STRING;
+        } else if (fieldType.isEnum()) {
+            return Kind.ENUM;
+        } else if (fieldType == LocalDateTime.class) {
+            return Kind.DATE_TIME;
+        } else if (fieldType == LocalDate.class) {
+            return Kind.DATE;
+        }
+        return Kind.OBJECT;
+    }
+
+    private static String tableNameOf(Class<?> type) {
+        Table table = type.getAnnotation(Table.class);
+        if (table != null && !table.name().isEmpty()) {
+            return table.name();
+        }
+        return type.getSimpleName().toLowerCase();
+    }
+
+    /**
+     * Returns the instance fields of an entity class and of the entity and mapped superclasses it inherits
+     * columns from, superclass fields first, so that subtypes sharing a superclass list its columns in the
+     * same order.
+     */
+    static List<Field> mappedFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null && (current == type
+                || current.isAnnotationPresent(Entity.class) || current.isAnnotationPresent(MappedSuperclass.class));
+             current = current.getSuperclass()) {
+            List<Field> declared = new ArrayList<>();
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                    declared.add(field);
+                }
+            }
+            fields.addAll(0, declared);
+        }
+        return fields;
+    }
+
+    private static String columnNameOf(Field field) {
+        Column column = field.getAnnotation(Column.class);
+        return column != null && !column.name().isEmpty() ? column.name() : field.getName();
+    }
+
+    private static List<String> columnNames(List<ColumnMapping> columns) {
+        return columns.stream().map(ColumnMapping::column).toList();
+    }
+
+    private static List<String> placeholders(int count) {
+        return java.util.Collections.nCopies(count, "?");
+    }
+}
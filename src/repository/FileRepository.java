@@ -3,23 +3,106 @@ package repository;
 import model.Identifiable;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.locks.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Repository for managing persistence of objects to and from CSV files.
  * Supports basic CRUD operations on any objects implementing {@link Identifiable}.
  * Thread-safe implementation using locks for concurrency.
+ * <p>
+ * The repository keeps an in-memory index, ordered by ID, from ID to the byte offset and length of the
+ * matching line, built once when the file is opened and maintained on every write.
+ * Lookups by ID seek straight to the record and parse only that line.
+ * <p>
+ * In {@link StorageMode#LOG_STRUCTURED} mode the file is treated as an append-only log:
+ * updates append a new version of the record and deletes append a tombstone line
+ * (the ID prefixed with {@code -}), so neither rewrites the file. The index always points
+ * at the newest version. Once superseded versions and tombstones make up enough of the
+ * file, a background compactor rewrites it with only the live records.
+ * <p>
+ * When created as a cached repository, the file is parsed once on first access and kept in
+ * memory. Reads are answered from memory, and writes update memory first and are then
+ * written through to the file, which stays the durable copy.
+ * <p>
+ * Full reads memory-map the file and parse the records in parallel chunks, returning them in ID order.
+ * {@link #stream()} instead parses one record at a time, for callers that may stop early.
  *
  * @param <T> Type of objects managed by the repository, which must implement {@link Identifiable}.
  */
-public class FileRepository<T extends Identifiable> implements IRepository<T> {
+public final class FileRepository<T extends Identifiable> implements IRepository<T> {
+
+    /**
+     * How updates and deletes are written to the file.
+     */
+    public enum StorageMode {
+        /** Updates and deletes rewrite the file so it only ever holds live records. */
+        IN_PLACE,
+        /** Updates and deletes are appended as new versions and tombstones, and compacted in the background. */
+        LOG_STRUCTURED
+    }
+
+    private static final String TOMBSTONE_PREFIX = "-";
+    private static final long COMPACTION_MIN_GARBAGE_BYTES = 64 * 1024;
+    private static final double COMPACTION_GARBAGE_RATIO = 0.5;
+    private static final int LOAD_CHUNK_RECORDS = 1024;
+    private static final int STREAM_WINDOW_BYTES = 64 * 1024;
+
+    private static final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "file-repository-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final String filePath;
     private final Function<String, T> fromCsv;
+    private final StorageMode storageMode;
+    private final boolean cached;
     private final Lock lock = new ReentrantLock();
 
+    private Map<Integer, T> cache;
+
+    private final NavigableMap<Integer, RecordPointer> index = new TreeMap<>();
+    private long fileLength;
+    private long garbageBytes;
+    private boolean endsWithNewline = true;
+    private boolean compactionScheduled;
+
+    /**
+     * Location of a single record within the CSV file.
+     *
+     * @param offset The byte offset of the first character of the line.
+     * @param length The length of the line in bytes, including its line terminator.
+     */
+    private record RecordPointer(long offset, int length) {}
+
+    /**
+     * Line visitor used while scanning the file.
+     */
+    @FunctionalInterface
+    private interface LineVisitor {
+        /**
+         * @param offset The byte offset of the line.
+         * @param length The length of the line in bytes, including its line terminator.
+         * @param id     The ID parsed from the first field (negative for tombstones), or null if it is not a number.
+         * @param line   The decoded line without its terminator, or null if decoding was not requested.
+         */
+        void visit(long offset, int length, Integer id, String line);
+    }
+
     /**
      * Constructs a new repository with a specified file path and CSV parser.
      *
@@ -27,9 +110,36 @@ public class FileRepository<T extends Identifiable> implements IRepository<T> {
      * @param fromCsv Function to convert a CSV line to an object of type T.
      */
     public FileRepository(String filePath, Function<String, T> fromCsv) {
+        this(filePath, fromCsv, StorageMode.IN_PLACE);
+    }
+
+    /**
+     * Constructs a new repository with a specified file path, CSV parser and storage mode.
+     *
+     * @param filePath    The path to the CSV file where data will be stored.
+     * @param fromCsv     Function to convert a CSV line to an object of type T.
+     * @param storageMode How updates and deletes are written to the file.
+     */
+    public FileRepository(String filePath, Function<String, T> fromCsv, StorageMode storageMode) {
+        this(filePath, fromCsv, storageMode, false);
+    }
+
+    /**
+     * Constructs a new repository with a specified file path, CSV parser, storage mode and caching.
+     *
+     * @param filePath    The path to the CSV file where data will be stored.
+     * @param fromCsv     Function to convert a CSV line to an object of type T.
+     * @param storageMode How updates and deletes are written to the file.
+     * @param cached      Whether to keep all objects in memory and write changes through to the file.
+     */
+    public FileRepository(String filePath, Function<String, T> fromCsv, StorageMode storageMode, boolean cached) {
         this.filePath = filePath;
         this.fromCsv = fromCsv;
+        this.storageMode = storageMode;
+        this.cached = cached;
         initializeFile();
+        buildIndex();
+        scheduleCompactionIfNeeded();
     }
 
     /**
@@ -46,28 +156,326 @@ public class FileRepository<T extends Identifiable> implements IRepository<T> {
         }
     }
 
+    /**
+     * Scans the file once and records the offset and length of every line by its ID.
+     * Only the leading ID field of each line is decoded; the rest of the record is skipped.
+     * When the same ID appears more than once the last occurrence wins, and tombstones remove
+     * the ID; the bytes of every superseded line are counted as garbage.
+     */
+    private void buildIndex() {
+        index.clear();
+        garbageBytes = 0;
+        fileLength = scanLines(false, (offset, length, id, line) -> {
+            if (id == null) {
+                if (length > 1) {
+                    System.err.println("Error indexing line at offset " + offset + " in " + filePath + ", skipping.");
+                }
+                garbageBytes += length;
+            } else if (id < 0) {
+                RecordPointer removed = index.remove(-id);
+                garbageBytes += length + (removed != null ? removed.length() : 0);
+            } else {
+                RecordPointer previous = index.put(id, new RecordPointer(offset, length));
+                if (previous != null) {
+                    garbageBytes += previous.length();
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads the file sequentially and reports every line to the visitor.
+     *
+     * @param decode  Whether the visitor needs the decoded text of each line.
+     * @param visitor The visitor receiving each line.
+     * @return The total number of bytes read.
+     */
+    private long scanLines(boolean decode, LineVisitor visitor) {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(filePath))) {
+            byte[] buffer = new byte[256];
+            int size = 0;
+            long position = 0;
+            long lineStart = 0;
+            int id = 0;
+            boolean negative = false;
+            boolean inIdField = true;
+            boolean hasDigits = false;
+            boolean validId = true;
+            int last = '\n';
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                last = b;
+                if (b == '\n') {
+                    reportLine(visitor, lineStart, position, hasDigits && validId ? (negative ? -id : id) : null,
+                            decode, buffer, size);
+                    lineStart = position;
+                    size = 0;
+                    id = 0;
+                    negative = false;
+                    inIdField = true;
+                    hasDigits = false;
+                    validId = true;
+                    continue;
+                }
+                if (decode) {
+                    if (size == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, size * 2);
+                    }
+                    buffer[size++] = (byte) b;
+                }
+                if (inIdField) {
+                    if (b >= '0' && b <= '9') {
+                        id = id * 10 + (b - '0');
+                        hasDigits = true;
+                    } else if (b == '-' && !hasDigits && !negative) {
+                        negative = true;
+                    } else if (b == ',') {
+                        inIdField = false;
+                    } else if (b != ' ' && b != '\t' && b != '\r') {
+                        validId = false;
+                    }
+                }
+            }
+            if (position > lineStart) {
+                reportLine(visitor, lineStart, position, hasDigits && validId ? (negative ? -id : id) : null,
+                        decode, buffer, size);
+            }
+            endsWithNewline = last == '\n';
+            return position;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading file: " + filePath, e);
+        }
+    }
+
+    private void reportLine(LineVisitor visitor, long start, long end, Integer id, boolean decode, byte[] buffer, int size) {
+        String line = null;
+        if (decode) {
+            while (size > 0 && buffer[size - 1] == '\r') {
+                size--;
+            }
+            line = new String(buffer, 0, size, StandardCharsets.UTF_8);
+        }
+        visitor.visit(start, (int) (end - start), id, line);
+    }
+
     /**
      * Creates a new object in the CSV file.
      *
      * @param obj The object to create and store.
+     * @throws IllegalArgumentException If an object with the same ID is already stored.
      */
     @Override
     public void create(T obj) {
         lock.lock();
+        T previous = null;
         try {
+            rejectExisting(obj.getID());
             if (obj.getID() == 0) {
                 int newId = GlobalIdGenerator.getNextId();
                 obj.setID(newId);
+            } else {
+                GlobalIdGenerator.advanceTo(obj.getID());
             }
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, true))) {
-                writer.write(obj.toCsv());
-                writer.newLine();
+            previous = cachePut(obj);
+            appendRecord(obj.getID(), obj.toCsv());
+        } catch (IOException e) {
+            cacheRestore(obj.getID(), previous);
+            throw new RuntimeException("Error writing to file: " + filePath, e);
+        } finally {
+            lock.unlock();
+        }
+        scheduleCompactionIfNeeded();
+    }
+
+    /**
+     * Refuses to create an object over a stored one, whose line would otherwise stay in the file.
+     * Must be called while holding the lock.
+     */
+    private void rejectExisting(int id) {
+        if (id != 0 && index.containsKey(id)) {
+            throw new IllegalArgumentException("An object with ID " + id + " already exists");
+        }
+    }
+
+    /**
+     * Appends a line to the end of the file and returns its position.
+     * Must be called while holding the lock.
+     */
+    private RecordPointer append(String line) throws IOException {
+        String prefix = endsWithNewline ? "" : System.lineSeparator();
+        byte[] bytes = (prefix + line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = new FileOutputStream(filePath, true)) {
+            out.write(bytes);
+        }
+        int prefixLength = prefix.getBytes(StandardCharsets.UTF_8).length;
+        RecordPointer pointer = new RecordPointer(fileLength + prefixLength, bytes.length - prefixLength);
+        fileLength += bytes.length;
+        endsWithNewline = true;
+        return pointer;
+    }
+
+    /**
+     * Appends a record and points the index at it, counting any version it replaces as garbage.
+     * Must be called while holding the lock.
+     */
+    private void appendRecord(int id, String line) throws IOException {
+        RecordPointer previous = index.put(id, append(line));
+        if (previous != null) {
+            garbageBytes += previous.length();
+        }
+    }
+
+    /**
+     * Appends several records with a single write and points the index at them.
+     * Must be called while holding the lock.
+     */
+    private void appendRecords(List<T> objects) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        if (!endsWithNewline) {
+            lines.append(System.lineSeparator());
+        }
+        List<RecordPointer> pointers = new ArrayList<>(objects.size());
+        long position = fileLength + lines.toString().getBytes(StandardCharsets.UTF_8).length;
+        for (T obj : objects) {
+            String line = obj.toCsv() + System.lineSeparator();
+            int length = line.getBytes(StandardCharsets.UTF_8).length;
+            pointers.add(new RecordPointer(position, length));
+            position += length;
+            lines.append(line);
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(filePath, true))) {
+            out.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        fileLength = position;
+        endsWithNewline = true;
+        for (int i = 0; i < objects.size(); i++) {
+            RecordPointer previous = index.put(objects.get(i).getID(), pointers.get(i));
+            if (previous != null) {
+                garbageBytes += previous.length();
             }
+        }
+    }
+
+    /**
+     * Creates several objects with a single lock acquisition, file open and flush.
+     *
+     * @param objects The objects to create and store.
+     * @throws IllegalArgumentException If an object has the ID of a stored object or of another object in
+     *                                  the list, in which case none is created.
+     */
+    @Override
+    public void createAll(List<T> objects) {
+        if (objects.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        Map<Integer, T> previous = new HashMap<>();
+        try {
+            Set<Integer> ids = new HashSet<>();
+            for (T obj : objects) {
+                rejectExisting(obj.getID());
+                if (obj.getID() != 0 && !ids.add(obj.getID())) {
+                    throw new IllegalArgumentException("Duplicate ID in objects to create: " + obj.getID());
+                }
+            }
+            for (T obj : objects) {
+                if (obj.getID() == 0) {
+                    obj.setID(GlobalIdGenerator.getNextId());
+                } else {
+                    GlobalIdGenerator.advanceTo(obj.getID());
+                }
+            }
+            for (T obj : objects) {
+                previous.putIfAbsent(obj.getID(), cachePut(obj));
+            }
+            appendRecords(objects);
+        } catch (IOException e) {
+            previous.forEach(this::cacheRestore);
+            throw new RuntimeException("Error writing to file: " + filePath, e);
+        } finally {
+            lock.unlock();
+        }
+        scheduleCompactionIfNeeded();
+    }
+
+    /**
+     * Updates several objects with a single lock acquisition. In {@link StorageMode#IN_PLACE} mode the
+     * old versions are removed in one rewrite of the file, and the new versions are appended in one write.
+     *
+     * @param objects The updated objects to save.
+     */
+    @Override
+    public void updateAll(List<T> objects) {
+        if (objects.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        Map<Integer, T> previous = new HashMap<>();
+        try {
+            List<Integer> ids = new ArrayList<>(objects.size());
+            for (T obj : objects) {
+                if (!index.containsKey(obj.getID())) {
+                    throw new IllegalArgumentException("No object found with ID: " + obj.getID());
+                }
+                ids.add(obj.getID());
+            }
+            for (T obj : objects) {
+                previous.putIfAbsent(obj.getID(), cachePut(obj));
+            }
+            if (storageMode == StorageMode.IN_PLACE) {
+                removeFromFile(ids);
+            }
+            appendRecords(objects);
         } catch (IOException e) {
+            previous.forEach(this::cacheRestore);
             throw new RuntimeException("Error writing to file: " + filePath, e);
         } finally {
             lock.unlock();
         }
+        scheduleCompactionIfNeeded();
+    }
+
+    /**
+     * Deletes several objects with a single lock acquisition and a single file write.
+     *
+     * @param ids The IDs of the objects to delete.
+     */
+    @Override
+    public void deleteAll(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        Map<Integer, T> previous = new HashMap<>();
+        try {
+            for (Integer id : ids) {
+                if (!index.containsKey(id)) {
+                    throw new IllegalArgumentException("No object found with ID: " + id);
+                }
+            }
+            if (cached) {
+                for (Integer id : ids) {
+                    previous.putIfAbsent(id, loadCache().remove(id));
+                }
+            }
+            if (storageMode == StorageMode.LOG_STRUCTURED) {
+                StringBuilder tombstones = new StringBuilder();
+                for (Integer id : new LinkedHashSet<>(ids)) {
+                    garbageBytes += index.remove(id).length();
+                    tombstones.append(tombstones.isEmpty() ? "" : System.lineSeparator()).append(TOMBSTONE_PREFIX).append(id);
+                }
+                garbageBytes += append(tombstones.toString()).length();
+            } else {
+                removeFromFile(ids);
+            }
+        } catch (IOException e) {
+            previous.forEach(this::cacheRestore);
+            throw new RuntimeException("Error processing delete operation: " + e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+        scheduleCompactionIfNeeded();
     }
 
     /**
@@ -80,26 +488,86 @@ public class FileRepository<T extends Identifiable> implements IRepository<T> {
     public T read(Integer id) {
         lock.lock();
         try {
-            return getAll().stream()
-                    .filter(obj -> obj.getID().equals(id))
-                    .findFirst()
-                    .orElse(null);
+            if (cached) {
+                return loadCache().get(id);
+            }
+            RecordPointer pointer = index.get(id);
+            if (pointer == null) {
+                return null;
+            }
+            String line = readLine(pointer);
+            try {
+                return fromCsv.apply(line);
+            } catch (Exception e) {
+                System.err.println("Error parsing line, skipping: " + line);
+                return null;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading file: " + filePath, e);
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Reads the single line referenced by the given pointer, without its line terminator.
+     */
+    private String readLine(RecordPointer pointer) throws IOException {
+        byte[] bytes = new byte[pointer.length()];
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "r")) {
+            file.seek(pointer.offset());
+            file.readFully(bytes);
+        }
+        int length = bytes.length;
+        while (length > 0 && (bytes[length - 1] == '\n' || bytes[length - 1] == '\r')) {
+            length--;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
     /**
      * Updates an existing object in the repository.
+     * In {@link StorageMode#LOG_STRUCTURED} mode the new version is appended to the file.
      *
      * @param obj The updated object to save.
      */
     @Override
     public void update(T obj) {
         lock.lock();
+        T previous = null;
         try {
-            delete(obj.getID());
-            create(obj);
+            if (!index.containsKey(obj.getID())) {
+                throw new IllegalArgumentException("No object found with ID: " + obj.getID());
+            }
+            previous = cachePut(obj);
+            if (storageMode == StorageMode.IN_PLACE) {
+                removeFromFile(List.of(obj.getID()));
+            }
+            appendRecord(obj.getID(), obj.toCsv());
+        } catch (IOException e) {
+            cacheRestore(obj.getID(), previous);
+            throw new RuntimeException("Error writing to file: " + filePath, e);
+        } finally {
+            lock.unlock();
+        }
+        scheduleCompactionIfNeeded();
+    }
+
+    /**
+     * Holds the repository's lock from the read to the update, so no other write to the file can come
+     * in between.
+     */
+    @Override
+    public boolean compareAndSet(Integer id, Query<? super T> expected, Consumer<? super T> change) {
+        lock.lock();
+        try {
+            T stored = read(id);
+            if (stored == null || !expected.matches(stored)) {
+                return false;
+            }
+            change.accept(stored);
+            update(stored);
+            return true;
         } finally {
             lock.unlock();
         }
@@ -107,72 +575,488 @@ public class FileRepository<T extends Identifiable> implements IRepository<T> {
 
     /**
      * Deletes an object by ID from the repository.
+     * The record is located through the index, and the file is rewritten by copying the bytes
+     * before and after it, without parsing any other line.
+     * In {@link StorageMode#LOG_STRUCTURED} mode a tombstone is appended instead.
      *
      * @param id The ID of the object to delete.
      */
     @Override
     public void delete(Integer id) {
         lock.lock();
+        T previous = null;
         try {
-            File originalFile = new File(filePath);
-            File tempFile = new File("tempfile.csv");
-            boolean found = false;
-
-            try (BufferedReader reader = new BufferedReader(new FileReader(originalFile));
-                 BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] values = line.split(",");
-                    Integer lineId = Integer.parseInt(values[0].trim());
-                    if (lineId.equals(id)) {
-                        found = true;
-                        continue;
-                    }
-                    writer.write(line);
-                    writer.newLine();
-                }
+            RecordPointer pointer = index.get(id);
+            if (pointer == null) {
+                throw new IllegalArgumentException("No object found with ID: " + id);
             }
+            if (cached) {
+                previous = loadCache().remove(id);
+            }
+            if (storageMode == StorageMode.LOG_STRUCTURED) {
+                index.remove(id);
+                garbageBytes += pointer.length() + append(TOMBSTONE_PREFIX + id).length();
+            } else {
+                removeFromFile(List.of(id));
+            }
+        } catch (IOException e) {
+            cacheRestore(id, previous);
+            throw new RuntimeException("Error processing delete operation: " + e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+        scheduleCompactionIfNeeded();
+    }
 
-            if (!found) {
-                throw new IllegalArgumentException("No object found with ID: " + id);
+    /**
+     * Deletes an object if the index holds its ID, checking and deleting under the same lock.
+     */
+    @Override
+    public boolean deleteIfPresent(Integer id) {
+        lock.lock();
+        try {
+            if (!index.containsKey(id)) {
+                return false;
             }
+            delete(id);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites the file without the given records in a single pass and shifts the index accordingly.
+     * Must be called while holding the lock.
+     */
+    private void removeFromFile(List<Integer> ids) throws IOException {
+        List<RecordPointer> removed = new ArrayList<>();
+        for (Integer id : new HashSet<>(ids)) {
+            removed.add(index.remove(id));
+        }
+        removed.sort(Comparator.comparingLong(RecordPointer::offset));
 
-            if (!originalFile.delete() || !tempFile.renameTo(originalFile)) {
-                throw new RuntimeException("Error replacing original file with updated content.");
+        Path originalPath = Paths.get(filePath).toAbsolutePath();
+        Path tempPath = Files.createTempFile(originalPath.getParent(), "tempfile", ".csv");
+        long[] removedOffsets = new long[removed.size()];
+        long[] removedBytesBefore = new long[removed.size() + 1];
+        try (FileChannel source = FileChannel.open(originalPath, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+            long position = 0;
+            for (int i = 0; i < removed.size(); i++) {
+                RecordPointer pointer = removed.get(i);
+                transfer(source, target, position, pointer.offset() - position);
+                position = pointer.offset() + pointer.length();
+                removedOffsets[i] = pointer.offset();
+                removedBytesBefore[i + 1] = removedBytesBefore[i] + pointer.length();
             }
+            transfer(source, target, position, fileLength - position);
         } catch (IOException e) {
-            throw new RuntimeException("Error processing delete operation: " + e.getMessage(), e);
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        Files.move(tempPath, originalPath, StandardCopyOption.REPLACE_EXISTING);
+
+        index.replaceAll((key, pointer) -> {
+            int before = Arrays.binarySearch(removedOffsets, pointer.offset());
+            int removedBefore = before >= 0 ? before : -before - 1;
+            return removedBefore == 0 ? pointer
+                    : new RecordPointer(pointer.offset() - removedBytesBefore[removedBefore], pointer.length());
+        });
+        fileLength -= removedBytesBefore[removed.size()];
+    }
+
+    /**
+     * Loads the cache from the file on first use and returns it, sorted by ID like the file's index.
+     * Must be called while holding the lock.
+     */
+    private Map<Integer, T> loadCache() {
+        if (cache == null) {
+            Map<Integer, T> loaded = new TreeMap<>();
+            for (T item : readAllFromFile()) {
+                loaded.put(item.getID(), item);
+            }
+            cache = loaded;
+        }
+        return cache;
+    }
+
+    /**
+     * Stores an object in the cache ahead of writing it to the file.
+     * Must be called while holding the lock.
+     *
+     * @return The object previously cached under the same ID, used to roll back a failed write.
+     */
+    private T cachePut(T obj) {
+        return cached ? loadCache().put(obj.getID(), obj) : null;
+    }
+
+    /**
+     * Rolls the cache back to its state before a write that failed on disk.
+     * Must be called while holding the lock.
+     */
+    private void cacheRestore(int id, T previous) {
+        if (cache == null) {
+            return;
+        }
+        if (previous != null) {
+            cache.put(id, previous);
+        } else {
+            cache.remove(id);
+        }
+    }
+
+    private void transfer(FileChannel source, FileChannel target, long position, long count) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            transferred += source.transferTo(position + transferred, count - transferred, target);
+        }
+    }
+
+    /**
+     * Queues a background compaction once superseded versions and tombstones take up
+     * enough of the file. Only used in {@link StorageMode#LOG_STRUCTURED} mode.
+     */
+    private void scheduleCompactionIfNeeded() {
+        if (storageMode != StorageMode.LOG_STRUCTURED) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (compactionScheduled || garbageBytes < COMPACTION_MIN_GARBAGE_BYTES
+                    || garbageBytes < fileLength * COMPACTION_GARBAGE_RATIO) {
+                return;
+            }
+            compactionScheduled = true;
         } finally {
             lock.unlock();
         }
+        compactor.execute(() -> {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                System.err.println("Error compacting file: " + filePath + ": " + e.getMessage());
+            }
+        });
     }
 
     /**
-     * Retrieves all objects from the CSV file by reading each line and converting it to an object.
+     * Rewrites the file so it only holds the newest version of every live record, in file order.
+     */
+    public void compact() {
+        lock.lock();
+        try {
+            compactionScheduled = false;
+            if (garbageBytes == 0) {
+                return;
+            }
+            List<Map.Entry<Integer, RecordPointer>> live = new ArrayList<>(index.entrySet());
+            live.sort(Comparator.comparingLong(entry -> entry.getValue().offset()));
+
+            Path originalPath = Paths.get(filePath).toAbsolutePath();
+            Path tempPath = Files.createTempFile(originalPath.getParent(), "compact", ".csv");
+            Map<Integer, RecordPointer> compacted = new HashMap<>();
+            long position = 0;
+            try (FileChannel source = FileChannel.open(originalPath, StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+                for (Map.Entry<Integer, RecordPointer> entry : live) {
+                    RecordPointer pointer = entry.getValue();
+                    transfer(source, target, pointer.offset(), pointer.length());
+                    compacted.put(entry.getKey(), new RecordPointer(position, pointer.length()));
+                    position += pointer.length();
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(tempPath);
+                throw e;
+            }
+            Files.move(tempPath, originalPath, StandardCopyOption.REPLACE_EXISTING);
+
+            index.clear();
+            index.putAll(compacted);
+            fileLength = position;
+            garbageBytes = 0;
+        } catch (IOException e) {
+            throw new RuntimeException("Error compacting file: " + filePath, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves all objects from the repository, in ID order.
+     * Cached repositories answer from memory; otherwise every line of the file is parsed.
      *
      * @return A list of all objects in the file.
      */
     @Override
     public List<T> getAll() {
         lock.lock();
-        List<T> items = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
+        try {
+            return cached ? new ArrayList<>(loadCache().values()) : readAllFromFile();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Streams all objects from the repository, in ID order, parsing each record only when the stream
+     * reaches it. A stream that stops early, for example with {@code findFirst()}, reads no further.
+     * <p>
+     * The stream works on the records present when it was opened: the file stays open until the stream
+     * is closed or exhausted, so later rewrites of the file do not affect it. Cached repositories stream
+     * a copy of their contents.
+     *
+     * @return A stream of all objects in the file, to be closed after use.
+     */
+    @Override
+    public Stream<T> stream() {
+        lock.lock();
+        try {
+            if (cached) {
+                return new ArrayList<>(loadCache().values()).stream();
+            }
+            return openCursor(new ArrayList<>(index.values()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves one page of the objects matching a query. Pages sorted by ID seek to the end of the previous
+     * page in the ID-ordered index and parse records from there only until the page is full, so no record
+     * before the page is read. Pages sorted by an attribute, and cached repositories, fall back to a scan.
+     *
+     * @param query   The conditions the objects must meet.
+     * @param request The page to retrieve.
+     * @return The page, with the request for the next page if there is one.
+     */
+    @Override
+    public Page<T> findPage(Query<? super T> query, PageRequest<T> request) {
+        if (cached || request.getSortBy() != null) {
+            return IRepository.super.findPage(query, request);
+        }
+        Stream<T> records;
+        lock.lock();
+        try {
+            NavigableMap<Integer, RecordPointer> range = request.isDescending() ? index.descendingMap() : index;
+            if (!request.isFirst()) {
+                range = range.tailMap(request.getAfterID(), false);
+            }
+            records = openCursor(new ArrayList<>(range.values()));
+        } finally {
+            lock.unlock();
+        }
+        try (records) {
+            return Page.of(records.filter(query::matches).limit(request.getSize() + 1).toList(), request);
+        }
+    }
+
+    /**
+     * Opens a stream that parses the given records lazily, in the order given.
+     * Must be called while holding the lock.
+     */
+    private Stream<T> openCursor(List<RecordPointer> records) {
+        if (records.isEmpty()) {
+            return Stream.empty();
+        }
+        try {
+            RecordCursor cursor = new RecordCursor(FileChannel.open(Paths.get(filePath), StandardOpenOption.READ), records);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading file: " + filePath, e);
+        }
+    }
+
+    /**
+     * Parses a fixed list of records one at a time from an open file. Records are read through a window
+     * of {@link #STREAM_WINDOW_BYTES}, so records stored next to each other share a single read.
+     */
+    private class RecordCursor extends Spliterators.AbstractSpliterator<T> {
+        private final FileChannel channel;
+        private final List<RecordPointer> records;
+        private final ByteBuffer window = ByteBuffer.allocate(STREAM_WINDOW_BYTES);
+        private long windowStart = -1;
+        private int next;
+
+        RecordCursor(FileChannel channel, List<RecordPointer> records) {
+            super(records.size(), ORDERED | NONNULL);
+            this.channel = channel;
+            this.records = records;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (next < records.size()) {
+                String line = readLine(records.get(next++));
                 try {
                     T item = fromCsv.apply(line);
                     if (item != null) {
-                        items.add(item);
+                        action.accept(item);
+                        return true;
                     }
                 } catch (Exception e) {
                     System.err.println("Error parsing line, skipping: " + line);
                 }
             }
+            close();
+            return false;
+        }
+
+        private String readLine(RecordPointer pointer) {
+            try {
+                byte[] bytes;
+                int size = pointer.length();
+                if (size > STREAM_WINDOW_BYTES) {
+                    ByteBuffer large = ByteBuffer.allocate(size);
+                    readFully(large, pointer.offset());
+                    bytes = large.array();
+                } else {
+                    if (windowStart < 0 || pointer.offset() < windowStart
+                            || pointer.offset() + size > windowStart + window.limit()) {
+                        window.clear();
+                        windowStart = pointer.offset();
+                        readFully(window, windowStart);
+                        window.flip();
+                    }
+                    bytes = new byte[size];
+                    window.get((int) (pointer.offset() - windowStart), bytes, 0, size);
+                }
+                while (size > 0 && (bytes[size - 1] == '\n' || bytes[size - 1] == '\r')) {
+                    size--;
+                }
+                return new String(bytes, 0, size, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                close();
+                throw new RuntimeException("Error reading file: " + filePath, e);
+            }
+        }
+
+        /**
+         * Fills the buffer from the given position, stopping early only at the end of the file.
+         */
+        private void readFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    break;
+                }
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing file: " + filePath);
+            }
+        }
+    }
+
+    /**
+     * Reads all live objects from the CSV file, in ID order.
+     * The file is memory-mapped and the indexed records are parsed in chunks on the common
+     * {@link ForkJoinPool}; the chunk results are concatenated in ID order.
+     * Must be called while holding the lock.
+     */
+    private List<T> readAllFromFile() {
+        if (index.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (fileLength > Integer.MAX_VALUE) {
+            return readAllSequentially();
+        }
+        List<RecordPointer> records = new ArrayList<>(index.values());
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileLength);
+            return new ParseTask(buffer, records, 0, records.size()).invoke();
         } catch (IOException e) {
             throw new RuntimeException("Error reading file: " + filePath, e);
-        } finally {
-            lock.unlock();
         }
+    }
+
+    /**
+     * Parses a range of indexed records from the mapped file, splitting the range in half
+     * until it is small enough to parse directly.
+     */
+    private class ParseTask extends RecursiveTask<List<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient MappedByteBuffer buffer;
+        private final transient List<RecordPointer> records;
+        private final int from;
+        private final int to;
+
+        ParseTask(MappedByteBuffer buffer, List<RecordPointer> records, int from, int to) {
+            this.buffer = buffer;
+            this.records = records;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (to - from <= LOAD_CHUNK_RECORDS) {
+                return parseRange();
+            }
+            int middle = (from + to) >>> 1;
+            ParseTask right = new ParseTask(buffer, records, middle, to);
+            right.fork();
+            List<T> items = new ParseTask(buffer, records, from, middle).compute();
+            items.addAll(right.join());
+            return items;
+        }
+
+        private List<T> parseRange() {
+            List<T> items = new ArrayList<>(to - from);
+            byte[] bytes = new byte[256];
+            for (int i = from; i < to; i++) {
+                RecordPointer pointer = records.get(i);
+                int size = pointer.length();
+                if (bytes.length < size) {
+                    bytes = new byte[size];
+                }
+                buffer.get((int) pointer.offset(), bytes, 0, size);
+                while (size > 0 && (bytes[size - 1] == '\n' || bytes[size - 1] == '\r')) {
+                    size--;
+                }
+                String line = new String(bytes, 0, size, StandardCharsets.UTF_8);
+                try {
+                    T item = fromCsv.apply(line);
+                    if (item != null) {
+                        items.add(item);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Error parsing line, skipping: " + line);
+                }
+            }
+            return items;
+        }
+    }
+
+    /**
+     * Reads all live objects with a single sequential scan, for files too large to map at once.
+     * Lines that are not the current version of their record are skipped.
+     * Must be called while holding the lock.
+     */
+    private List<T> readAllSequentially() {
+        List<T> items = new ArrayList<>();
+        scanLines(true, (offset, length, id, line) -> {
+            if (id == null || id < 0) {
+                return;
+            }
+            RecordPointer pointer = index.get(id);
+            if (pointer == null || pointer.offset() != offset) {
+                return;
+            }
+            try {
+                T item = fromCsv.apply(line);
+                if (item != null) {
+                    items.add(item);
+                }
+            } catch (Exception e) {
+                System.err.println("Error parsing line, skipping: " + line);
+            }
+        });
         return items;
     }
-}
\ No newline at end of file
+}
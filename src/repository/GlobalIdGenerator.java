@@ -1,11 +1,53 @@
 package repository;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Hands out IDs that are unique across all repositories.
+ * <p>
+ * IDs are allocated in blocks: each thread reserves a block of {@link #BLOCK_SIZE} IDs and hands them
+ * out locally, so threads only meet when a block runs out. IDs are therefore unique but not handed
+ * out in increasing order across threads.
+ * <p>
+ * Once {@link #persistTo(Path)} has been called, every block reservation is recorded as a high-water
+ * mark in a small metadata file, replaced atomically, so the next start can resume from it without
+ * scanning the data. Reservations are made while holding an exclusive lock on a companion
+ * {@code .lock} file and re-read the stored mark first, so several application instances sharing the
+ * data directory reserve disjoint blocks.
+ */
 public class GlobalIdGenerator {
 
+    /** Number of IDs reserved by a thread at a time. */
+    static final int BLOCK_SIZE = 100;
+
+    /** The highest ID reserved by this process. */
     private static final AtomicInteger currentId = new AtomicInteger(0);
 
+    /** Bumped to make every thread drop its block, e.g. when the ID space is re-initialized. */
+    private static final AtomicInteger generation = new AtomicInteger(0);
+
+    /** The highest reserved ID when threads were last told to drop their blocks; no block held since contains it. */
+    private static volatile int blockFloor;
+
+    private static final ThreadLocal<IdBlock> threadBlock = ThreadLocal.withInitial(IdBlock::new);
+
+    private static volatile Path metadataFile;
+    private static volatile Path lockFile;
+
+    /**
+     * A range of reserved IDs owned by a single thread.
+     */
+    private static final class IdBlock {
+        private int next = 1;
+        private int last = 0;
+        private int generation = -1;
+    }
+
     /**
      * Initializes the global ID to the maximum ID found across all repositories.
      *
@@ -13,6 +55,7 @@ public class GlobalIdGenerator {
      */
     public static void initialize(int maxId) {
         currentId.set(maxId);
+        dropBlocks();
     }
 
     /**
@@ -21,15 +64,151 @@ public class GlobalIdGenerator {
      * @return The next unique ID.
      */
     public static int getNextId() {
-        return currentId.incrementAndGet();
+        IdBlock block = threadBlock.get();
+        if (block.next > block.last || block.generation != generation.get()) {
+            int blockGeneration = generation.get();
+            int last = reserve(BLOCK_SIZE);
+            block.next = last - BLOCK_SIZE + 1;
+            block.last = last;
+            block.generation = blockGeneration;
+        }
+        return block.next++;
     }
 
     /**
-     * Gets the current highest ID.
+     * Makes sure IDs are never handed out at or below an ID that was assigned elsewhere,
+     * such as an object created with an explicit ID. Blocks already held by threads are
+     * dropped only if the ID may fall inside one of them, so creating objects whose IDs
+     * were handed out before, as when loading or restoring data, does not cost every
+     * thread its block.
      *
-     * @return The current highest ID.
+     * @param id An ID that is now in use.
+     */
+    public static void advanceTo(int id) {
+        if (id <= blockFloor) {
+            return;
+        }
+        if (id > currentId.get()) {
+            if (metadataFile != null) {
+                reserveDurably(id, 0);
+            } else {
+                currentId.accumulateAndGet(id, Math::max);
+            }
+        }
+        dropBlocks();
+    }
+
+    /**
+     * Gets the highest ID reserved so far. IDs up to this value may already be in use.
+     *
+     * @return The highest reserved ID.
      */
     public static int getCurrentId() {
         return currentId.get();
     }
+
+    /**
+     * Starts persisting the high-water mark to the given metadata file, writing it immediately.
+     *
+     * @param file The metadata file.
+     */
+    public static synchronized void persistTo(Path file) {
+        metadataFile = file;
+        lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        reserveDurably(currentId.get(), 0);
+        dropBlocks();
+    }
+
+    /**
+     * Makes every thread reserve a new block, above the current high-water mark, before handing out
+     * another ID.
+     */
+    private static void dropBlocks() {
+        blockFloor = currentId.get();
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Reads the high-water mark stored in a metadata file.
+     *
+     * @param file The metadata file.
+     * @return The stored mark, or null if the file is missing or cannot be read.
+     */
+    public static Integer readHighWaterMark(Path file) {
+        try {
+            return Integer.parseInt(Files.readString(file, StandardCharsets.UTF_8).trim());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Ignoring unreadable ID metadata file: " + file);
+            return null;
+        }
+    }
+
+    /**
+     * Reserves the next {@code count} IDs.
+     *
+     * @return The last ID of the reserved range.
+     */
+    private static int reserve(int count) {
+        if (metadataFile != null) {
+            return reserveDurably(currentId.get(), count);
+        }
+        return currentId.addAndGet(count);
+    }
+
+    /**
+     * Reserves {@code count} IDs above both the given floor and the stored mark, and records the end of
+     * the range in the metadata file before returning it.
+     *
+     * @return The last ID of the reserved range, which is the new high-water mark.
+     */
+    private static synchronized int reserveDurably(int floor, int count) {
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock fileLock = channel.lock();
+            try {
+                Integer stored = readHighWaterMark(metadataFile);
+                int start = Math.max(Math.max(floor, currentId.get()), stored != null ? stored : 0);
+                int last = start + count;
+                writeHighWaterMark(metadataFile, last);
+                currentId.set(last);
+                return last;
+            } finally {
+                fileLock.release();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error locking ID metadata file: " + lockFile, e);
+        }
+    }
+
+    /**
+     * Replaces the metadata file atomically: the new mark is written and flushed to a temporary
+     * file next to it, which is then moved over the old file.
+     */
+    private static void writeHighWaterMark(Path file, int mark) {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.write(StandardCharsets.UTF_8.encode(mark + System.lineSeparator()));
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing ID metadata file: " + file, e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // The temporary file was already moved or will be overwritten next time
+                }
+            }
+        }
+    }
 }
@@ -3,6 +3,8 @@ package repository;
 import model.Identifiable;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface IRepository<T extends Identifiable> {
 
@@ -18,6 +20,19 @@ public interface IRepository<T extends Identifiable> {
      */
     T read(Integer id);
 
+    /**
+     * Retrieves an object of a given subtype from the repository by its ID.
+     * The default implementation reads the object by its ID and checks its type; repositories that store
+     * subtypes separately, where IDs may repeat across subtypes, override it to read from the subtype's storage.
+     * @param type The subtype of the object to be retrieved.
+     * @param id The ID of the object to be retrieved.
+     * @return The object, or null if there is none of the subtype with the ID.
+     */
+    default <S extends T> S readAs(Class<S> type, Integer id) {
+        T obj = read(id);
+        return type.isInstance(obj) ? type.cast(obj) : null;
+    }
+
     /**
      * Updates an existing object in the repository.
      * @param obj The object to be updated in the repository.
@@ -36,4 +51,128 @@ public interface IRepository<T extends Identifiable> {
      * @return A list of all objects stored in the repository.
      */
     List<T> getAll();
+
+    /**
+     * Streams all objects from the repository, reading them only as the stream is consumed where the
+     * storage allows it, so a stream that stops early, for example with {@code findFirst()} or
+     * {@code anyMatch()}, does not read the rest of the objects.
+     * The stream may hold resources such as an open file or connection until it is exhausted, so it
+     * should be closed after use, for example with try-with-resources.
+     * @return A stream of all objects stored in the repository.
+     */
+    default Stream<T> stream() {
+        return getAll().stream();
+    }
+
+    /**
+     * Creates and adds several objects to the repository in one operation.
+     * Implementations write the whole batch at once where their storage allows it.
+     * @param objects The objects to be added to the repository.
+     */
+    default void createAll(List<T> objects) {
+        for (T obj : objects) {
+            create(obj);
+        }
+    }
+
+    /**
+     * Updates several existing objects in the repository in one operation.
+     * @param objects The objects to be updated in the repository.
+     */
+    default void updateAll(List<T> objects) {
+        for (T obj : objects) {
+            update(obj);
+        }
+    }
+
+    /**
+     * Deletes an object by its ID if the repository holds it, and reports whether it did, so that a caller
+     * that does not know which repository holds an object need not read it first.
+     * The default implementation reads the object first; repositories that learn from the delete itself
+     * whether the object existed override it.
+     * @param id The ID of the object to be deleted.
+     * @return true if an object was deleted, false if none has the ID.
+     */
+    default boolean deleteIfPresent(Integer id) {
+        if (read(id) == null) {
+            return false;
+        }
+        delete(id);
+        return true;
+    }
+
+    /**
+     * Deletes several objects from the repository by their IDs in one operation.
+     * @param ids The IDs of the objects to be deleted.
+     */
+    default void deleteAll(List<Integer> ids) {
+        for (Integer id : ids) {
+            delete(id);
+        }
+    }
+
+    /**
+     * Retrieves all objects whose attribute has the given value.
+     * Repositories that keep an index on the attribute answer without scanning every object.
+     * @param attribute The attribute to match.
+     * @param key The value the attribute must have.
+     * @return A list of the matching objects.
+     */
+    default List<T> findBy(Attribute<? super T> attribute, Object key) {
+        return find(new Query<T>().equalTo(attribute, key));
+    }
+
+    /**
+     * Retrieves the objects matching a query, up to its limit.
+     * Repositories that can evaluate the query in their storage only read the matching objects;
+     * the default implementation filters a {@link #stream()} of all objects, stopping at the limit.
+     * @param query The conditions the objects must meet.
+     * @return A list of the matching objects.
+     */
+    default List<T> find(Query<? super T> query) {
+        try (Stream<T> objects = stream()) {
+            return objects.filter(query::matches)
+                    .limit(query.getLimit())
+                    .toList();
+        }
+    }
+
+    /**
+     * Retrieves one page of the objects matching a query, in the order the request asks for.
+     * Pages are found by keyset pagination (see {@link PageRequest}), so later pages cost no more than
+     * the first. The default implementation scans a {@link #stream()} and keeps only the objects that
+     * belong on the page.
+     * @param query The conditions the objects must meet.
+     * @param request The page to retrieve.
+     * @return The page, with the request for the next page if there is one.
+     */
+    default Page<T> findPage(Query<? super T> query, PageRequest<T> request) {
+        try (Stream<T> objects = stream()) {
+            return Page.select(objects.filter(query::matches).iterator(), request);
+        }
+    }
+
+    /**
+     * Changes an object only if it still meets the given conditions, as one atomic step, so that two
+     * callers racing for the same object (for example two customers claiming the same ticket) cannot
+     * both succeed. The change is applied to the stored object, which is then saved.
+     * The default implementation synchronizes on the repository object from the read to the update, which
+     * only excludes other calls of this method on the same object; repositories with their own locking or
+     * storage override it so that it is also atomic with respect to their other writes.
+     * @param id The ID of the object to change.
+     * @param expected The conditions the stored object must meet for the change to be applied.
+     * @param change The change to apply to the stored object.
+     * @return true if the object was changed, false if it does not exist or no longer meets the conditions.
+     */
+    default boolean compareAndSet(Integer id, Query<? super T> expected, Consumer<? super T> change) {
+        synchronized (this) {
+            T stored = read(id);
+            if (stored == null || !expected.matches(stored)) {
+                return false;
+            }
+            change.accept(stored);
+            update(stored);
+            return true;
+        }
+    }
 }
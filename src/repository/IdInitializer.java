@@ -1,22 +1,91 @@
 package repository;
 
+import model.CsvReader;
+
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.List;
 
 public class IdInitializer {
 
+    private static final int TAIL_READ_BYTES = 4096;
+
     public static void initializeGlobalId(List<String> filePaths) {
-        int maxId = filePaths.stream()
+        GlobalIdGenerator.initialize(scanMaxId(filePaths));
+    }
+
+    /**
+     * Initializes the global ID from the high-water mark stored in the metadata file and keeps the mark
+     * up to date from then on. The data files are only scanned in full when the metadata file is missing
+     * or unreadable, or when one of the files ends with a record whose ID is above the stored mark, which
+     * means the data was changed without going through the generator.
+     *
+     * @param filePaths    The CSV files holding records with generated IDs.
+     * @param metadataPath The file holding the high-water mark.
+     */
+    public static void initializeGlobalId(List<String> filePaths, String metadataPath) {
+        Path metadataFile = Path.of(metadataPath);
+        Integer highWaterMark = GlobalIdGenerator.readHighWaterMark(metadataFile);
+        if (highWaterMark != null && !isStale(filePaths, highWaterMark)) {
+            GlobalIdGenerator.initialize(highWaterMark);
+        } else {
+            GlobalIdGenerator.initialize(scanMaxId(filePaths));
+        }
+        GlobalIdGenerator.persistTo(metadataFile);
+    }
+
+    private static int scanMaxId(List<String> filePaths) {
+        return filePaths.stream()
                 .map(IdInitializer::getMaxIdFromFile)
                 .max(Integer::compareTo)
                 .orElse(0);
-        GlobalIdGenerator.initialize(maxId);
+    }
+
+    /**
+     * Checks the last record of every file against the stored high-water mark.
+     * New records are appended, so an ID above the mark shows up at the end of the file.
+     */
+    private static boolean isStale(List<String> filePaths, int highWaterMark) {
+        for (String filePath : filePaths) {
+            Integer lastId = getLastIdFromFile(filePath);
+            if (lastId != null && lastId > highWaterMark) {
+                System.err.println("ID metadata is behind " + filePath + ", scanning all files.");
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Integer getLastIdFromFile(String filePath) {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long length = raf.length();
+            int size = (int) Math.min(length, TAIL_READ_BYTES);
+            byte[] tail = new byte[size];
+            raf.seek(length - size);
+            raf.readFully(tail);
+            String[] lines = new String(tail, StandardCharsets.UTF_8).split("\n");
+            for (int i = lines.length - 1; i >= (size < length ? 1 : 0); i--) {
+                if (!lines[i].isBlank()) {
+                    return Math.abs(new CsvReader(lines[i]).nextInt());
+                }
+            }
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error reading file: " + filePath);
+            return Integer.MAX_VALUE;
+        }
     }
 
     private static int getMaxIdFromFile(String filePath) {
         try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
             return reader.lines()
-                    .map(line -> Integer.parseInt(line.split(",")[0].trim()))
+                    .filter(line -> !line.isBlank())
+                    .map(line -> new CsvReader(line).nextInt())
                     .max(Integer::compareTo)
                     .orElse(0);
         } catch (IOException e) {
@@ -24,4 +93,4 @@ public class IdInitializer {
             return 0;
         }
     }
-}
\ No newline at end of file
+}
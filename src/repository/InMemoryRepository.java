@@ -2,12 +2,92 @@ package repository;
 
 import model.Identifiable;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
+/**
+ * Repository that keeps objects in memory, ordered by ID. Safe for concurrent use.
+ * New objects get their IDs from a per-repository counter, and {@link #getAll()} returns an
+ * immutable snapshot that is only rebuilt after the contents change.
+ * <p>
+ * Secondary indexes can be declared for attributes the objects are often looked up by. They are kept
+ * up to date on every write and let {@link #find(Query)} answer in time proportional to the number of
+ * matches when the query tests one of them.
+ *
+ * @param <T> Type of objects managed by the repository.
+ */
 public class InMemoryRepository<T extends Identifiable> implements IRepository<T> {
-    private final Map<Integer, T> data = new HashMap<>();
+    private final ConcurrentNavigableMap<Integer, T> data = new ConcurrentSkipListMap<>();
+    private final AtomicInteger lastId = new AtomicInteger(0);
+    private final AtomicLong version = new AtomicLong(0);
+    private volatile Snapshot<T> snapshot;
+    private final Map<Attribute<? super T>, SecondaryIndex<T>> indexes = new HashMap<>();
+
+    /**
+     * The result of {@link #getAll()} for a given version of the contents.
+     */
+    private record Snapshot<T>(long version, List<T> items) {}
+
+    /**
+     * Maps the values of one attribute to the IDs of the objects having them. The value each ID was
+     * indexed under is remembered, so an object that was changed before being updated can still be
+     * removed from its old entry.
+     */
+    private static final class SecondaryIndex<T extends Identifiable> {
+        private final Attribute<? super T> attribute;
+        private final Map<Object, NavigableSet<Integer>> idsByKey = new HashMap<>();
+        private final Map<Integer, Object> keyById = new HashMap<>();
+
+        SecondaryIndex(Attribute<? super T> attribute) {
+            this.attribute = attribute;
+        }
+
+        synchronized void put(T obj) {
+            Integer id = obj.getID();
+            remove(id);
+            Object key = attribute.valueOf(obj);
+            idsByKey.computeIfAbsent(key, k -> new TreeSet<>()).add(id);
+            keyById.put(id, key);
+        }
+
+        synchronized void remove(Integer id) {
+            if (!keyById.containsKey(id)) {
+                return;
+            }
+            Object key = keyById.remove(id);
+            NavigableSet<Integer> ids = idsByKey.get(key);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                idsByKey.remove(key);
+            }
+        }
+
+        synchronized List<Integer> idsFor(Object key) {
+            NavigableSet<Integer> ids = idsByKey.get(key);
+            return ids != null ? new ArrayList<>(ids) : List.of();
+        }
+    }
+
+    /**
+     * Creates an empty repository without secondary indexes.
+     */
+    public InMemoryRepository() {
+        this(List.of());
+    }
+
+    /**
+     * Creates an empty repository that indexes the given attributes.
+     * @param indexedAttributes The attributes to keep secondary indexes for.
+     */
+    public InMemoryRepository(List<Attribute<? super T>> indexedAttributes) {
+        for (Attribute<? super T> attribute : indexedAttributes) {
+            indexes.put(attribute, new SecondaryIndex<>(attribute));
+        }
+    }
 
     /**
      * Adds an object to the repository if it does not already exist.
@@ -15,11 +95,37 @@ public class InMemoryRepository<T extends Identifiable> implements IRepository<T
      */
     @Override
     public void create(T obj) {
+        assignId(obj);
+        if (data.putIfAbsent(obj.getID(), obj) == null) {
+            index(obj);
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Adds several objects to the repository, assigning IDs to new ones.
+     * @param objects The objects to be added to the repository.
+     */
+    @Override
+    public void createAll(List<T> objects) {
+        for (T obj : objects) {
+            assignId(obj);
+            if (data.putIfAbsent(obj.getID(), obj) == null) {
+                index(obj);
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Gives a new object the next ID from the counter, or moves the counter past an explicit ID.
+     */
+    private void assignId(T obj) {
         if (obj.getID() == 0) {
-            int newId = data.keySet().stream().max(Integer::compareTo).orElse(0) + 1;
-            obj.setID(newId);
+            obj.setID(lastId.incrementAndGet());
+        } else {
+            lastId.accumulateAndGet(obj.getID(), Math::max);
         }
-        data.putIfAbsent(obj.getID(), obj);
     }
 
     /**
@@ -37,7 +143,52 @@ public class InMemoryRepository<T extends Identifiable> implements IRepository<T
      */
     @Override
     public void update(T obj) {
-        data.replace(obj.getID(), obj);
+        if (data.replace(obj.getID(), obj) != null) {
+            index(obj);
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Updates several existing objects in the repository.
+     * @param objects The objects to be updated in the repository.
+     */
+    @Override
+    public void updateAll(List<T> objects) {
+        for (T obj : objects) {
+            if (data.replace(obj.getID(), obj) != null) {
+                index(obj);
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Checks and changes the stored object inside {@code compute} on its entry, locking the object meanwhile,
+     * so that callers racing for the same object are applied one at a time and only the first one that finds
+     * it matching changes it.
+     */
+    @Override
+    public boolean compareAndSet(Integer id, Query<? super T> expected, Consumer<? super T> change) {
+        boolean[] applied = new boolean[1];
+        T stored = data.compute(id, (key, current) -> {
+            // The map may call this again if the entry was replaced meanwhile; only the last call counts
+            applied[0] = false;
+            if (current != null) {
+                synchronized (current) {
+                    if (expected.matches(current)) {
+                        change.accept(current);
+                        applied[0] = true;
+                    }
+                }
+            }
+            return current;
+        });
+        if (applied[0]) {
+            index(stored);
+            version.incrementAndGet();
+        }
+        return applied[0];
     }
 
     /**
@@ -46,16 +197,139 @@ public class InMemoryRepository<T extends Identifiable> implements IRepository<T
      */
     @Override
     public void delete(Integer id) {
-        data.remove(id);
+        deleteIfPresent(id);
+    }
+
+    @Override
+    public boolean deleteIfPresent(Integer id) {
+        if (data.remove(id) == null) {
+            return false;
+        }
+        unindex(id);
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes several objects from the repository by their IDs.
+     * @param ids The IDs of the objects to be removed.
+     */
+    @Override
+    public void deleteAll(List<Integer> ids) {
+        for (Integer id : ids) {
+            if (data.remove(id) != null) {
+                unindex(id);
+            }
+        }
+        version.incrementAndGet();
     }
 
     /**
      * Retrieves all objects from the repository.
      * The list will contain all values from the repository, or an empty list if no objects are stored.
-     * @return A list containing all the objects currently stored in the repository.
+     * The list is an immutable snapshot shared between calls until the repository changes.
+     * @return A list containing all the objects currently stored in the repository, ordered by ID.
      */
     @Override
     public List<T> getAll() {
-        return data.values().stream().toList();
+        long current = version.get();
+        Snapshot<T> cached = snapshot;
+        if (cached != null && cached.version() == current) {
+            return cached.items();
+        }
+        List<T> items = List.copyOf(data.values());
+        snapshot = new Snapshot<>(current, items);
+        return items;
+    }
+
+    /**
+     * Retrieves the objects matching a query, in ID order. When the query tests an indexed attribute for
+     * equality or membership, only the objects listed under the matching keys are examined, using the
+     * index with the fewest candidates; otherwise all objects are scanned until the limit is reached.
+     * @param query The conditions the objects must meet.
+     * @return A list of the matching objects, ordered by ID.
+     */
+    @Override
+    public List<T> find(Query<? super T> query) {
+        NavigableSet<Integer> candidates = indexedCandidates(query);
+        Iterator<T> source = candidates != null
+                ? candidates.stream().map(data::get).filter(Objects::nonNull).iterator()
+                : data.values().iterator();
+        List<T> matches = new ArrayList<>();
+        while (matches.size() < query.getLimit() && source.hasNext()) {
+            T obj = source.next();
+            if (query.matches(obj)) {
+                matches.add(obj);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Retrieves one page of the objects matching a query. Pages sorted by ID seek straight to the end of the
+     * previous page in the ID-ordered map, or in the candidate IDs of an indexed condition, and stop after one
+     * object more than the page size; pages sorted by an attribute fall back to a scan.
+     * @param query The conditions the objects must meet.
+     * @param request The page to retrieve.
+     * @return The page, with the request for the next page if there is one.
+     */
+    @Override
+    public Page<T> findPage(Query<? super T> query, PageRequest<T> request) {
+        if (request.getSortBy() != null) {
+            return IRepository.super.findPage(query, request);
+        }
+        NavigableSet<Integer> ids = indexedCandidates(query);
+        if (ids == null) {
+            ids = data.keySet();
+        }
+        if (request.isDescending()) {
+            ids = ids.descendingSet();
+        }
+        if (!request.isFirst()) {
+            ids = ids.tailSet(request.getAfterID(), false);
+        }
+        List<T> matches = new ArrayList<>();
+        Iterator<Integer> candidates = ids.iterator();
+        while (matches.size() <= request.getSize() && candidates.hasNext()) {
+            T obj = data.get(candidates.next());
+            if (obj != null && query.matches(obj)) {
+                matches.add(obj);
+            }
+        }
+        return Page.of(matches, request);
+    }
+
+    /**
+     * Collects the IDs the most selective indexed condition of the query allows, or null if no
+     * condition can be answered from an index.
+     */
+    private NavigableSet<Integer> indexedCandidates(Query<? super T> query) {
+        NavigableSet<Integer> best = null;
+        for (Query.Condition<? super T> condition : query.getConditions()) {
+            SecondaryIndex<T> index = indexes.get(condition.attribute());
+            if (index == null || condition.operator() == Query.Operator.RANGE) {
+                continue;
+            }
+            NavigableSet<Integer> ids = new TreeSet<>();
+            for (Object key : condition.values()) {
+                ids.addAll(index.idsFor(key));
+            }
+            if (best == null || ids.size() < best.size()) {
+                best = ids;
+            }
+        }
+        return best;
+    }
+
+    private void index(T obj) {
+        for (SecondaryIndex<T> index : indexes.values()) {
+            index.put(obj);
+        }
+    }
+
+    private void unindex(Integer id) {
+        for (SecondaryIndex<T> index : indexes.values()) {
+            index.remove(id);
+        }
     }
-}
\ No newline at end of file
+}
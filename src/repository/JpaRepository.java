@@ -0,0 +1,342 @@
+package repository;
+
+import exception.ConcurrencyException;
+import exception.DatabaseException;
+import model.Identifiable;
+import org.hibernate.Session;
+
+import javax.persistence.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Repository backed by JPA, with Hibernate as the provider. Every operation runs in its own
+ * {@link EntityManager} and transaction, so the repository can be shared between threads like the others.
+ * <p>
+ * New objects get their IDs from the table's sequence before they are persisted, a whole batch at a time,
+ * so Hibernate can send the inserts of {@link #createAll} as JDBC batches. Associations listed as fetched
+ * are loaded with the entity through a load graph instead of one query per object; the others stay lazy and
+ * are loaded in batches where the target entity declares a {@code @BatchSize}. Queries on entities marked
+ * {@code @Cacheable} use Hibernate's query cache.
+ *
+ * @param <T> The entity class, or an abstract base class whose subtypes are stored in separate tables.
+ */
+public class JpaRepository<T extends Identifiable> implements IRepository<T> {
+
+    /** Number of objects written per flush; matches {@code hibernate.jdbc.batch_size}. */
+    public static final int BATCH_SIZE = 50;
+
+    private static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+    private static final String FETCH_SIZE = "org.hibernate.fetchSize";
+    private static final String CACHEABLE = "org.hibernate.cacheable";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final List<Class<? extends T>> concreteTypes;
+    private final List<String> fetchedAssociations;
+
+    /**
+     * Creates a repository for an entity class.
+     * @param type The entity class.
+     * @param entityManagerFactory The persistence unit the repository works on.
+     * @param fetchedAssociations Associations loaded together with every entity read.
+     */
+    public JpaRepository(Class<T> type, EntityManagerFactory entityManagerFactory, String... fetchedAssociations) {
+        this(List.of(type), entityManagerFactory, fetchedAssociations);
+    }
+
+    /**
+     * Creates a repository for an abstract type whose subtypes are stored in separate tables.
+     * @param concreteTypes The entity classes of the subtypes.
+     * @param entityManagerFactory The persistence unit the repository works on.
+     * @param fetchedAssociations Associations loaded together with every entity read.
+     */
+    public JpaRepository(List<Class<? extends T>> concreteTypes, EntityManagerFactory entityManagerFactory,
+                         String... fetchedAssociations) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.concreteTypes = concreteTypes;
+        this.fetchedAssociations = List.of(fetchedAssociations);
+    }
+
+    @Override
+    public void create(T obj) {
+        createAll(List.of(obj));
+    }
+
+    /**
+     * Persists all objects in one transaction, flushing every {@link #BATCH_SIZE} objects so the inserts are
+     * sent as JDBC batches and the persistence context stays small.
+     */
+    @Override
+    public void createAll(List<T> objects) {
+        if (objects.isEmpty()) {
+            return;
+        }
+        inTransaction(em -> {
+            assignIDs(em, objects);
+            int count = 0;
+            for (T obj : objects) {
+                em.persist(obj);
+                if (++count % BATCH_SIZE == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            return null;
+        }, "Error inserting entities");
+    }
+
+    /**
+     * Gives the new objects (those with ID 0) IDs reserved from their table's sequence, one round trip per type.
+     */
+    private void assignIDs(EntityManager em, List<T> objects) {
+        Map<EntityMetadata<?>, List<T>> newObjects = new LinkedHashMap<>();
+        for (T obj : objects) {
+            if (obj.getID() == 0) {
+                newObjects.computeIfAbsent(EntityMetadata.of(obj.getClass()), key -> new ArrayList<>()).add(obj);
+            }
+        }
+        for (Map.Entry<EntityMetadata<?>, List<T>> group : newObjects.entrySet()) {
+            EntityMetadata<?> metadata = group.getKey();
+            int[] ids = em.unwrap(Session.class)
+                    .doReturningWork(conn -> PostgresCopy.reserveIDs(conn, metadata, group.getValue().size()));
+            if (ids == null) {
+                throw new DatabaseException("No sequence generates the IDs of table " + metadata.getTableName());
+            }
+            for (int i = 0; i < ids.length; i++) {
+                metadata.setPrimaryKey(group.getValue().get(i), ids[i]);
+            }
+        }
+    }
+
+    @Override
+    public T read(Integer id) {
+        return inEntityManager(em -> {
+            for (Class<? extends T> concreteType : concreteTypes) {
+                T obj = em.find(concreteType, id, hints(em, concreteType));
+                if (obj != null) {
+                    return obj;
+                }
+            }
+            return null;
+        }, "Error reading entity with ID " + id);
+    }
+
+    /**
+     * @throws ConcurrencyException If the object is versioned and was changed or deleted since it was read.
+     */
+    @Override
+    public void update(T obj) {
+        updateAll(List.of(obj));
+    }
+
+    /**
+     * Merges all objects in one transaction. If any versioned object was changed since it was read,
+     * nothing is updated.
+     * @throws ConcurrencyException If a versioned object was changed or deleted since it was read.
+     */
+    @Override
+    public void updateAll(List<T> objects) {
+        if (objects.isEmpty()) {
+            return;
+        }
+        inTransaction(em -> {
+            int count = 0;
+            for (T obj : objects) {
+                em.merge(obj);
+                if (++count % BATCH_SIZE == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            return null;
+        }, "Error updating entities");
+    }
+
+    /**
+     * Reads, checks and changes the object in one transaction. A versioned object is written optimistically,
+     * and a concurrent change makes the version check fail; other objects are locked while they are read.
+     */
+    @Override
+    public boolean compareAndSet(Integer id, Query<? super T> expected, Consumer<? super T> change) {
+        try {
+            return inTransaction(em -> {
+                for (Class<? extends T> concreteType : concreteTypes) {
+                    LockModeType lockMode = EntityMetadata.of(concreteType).isVersioned()
+                            ? LockModeType.NONE : LockModeType.PESSIMISTIC_WRITE;
+                    T stored = em.find(concreteType, id, lockMode);
+                    if (stored != null) {
+                        if (!expected.matches(stored)) {
+                            return false;
+                        }
+                        change.accept(stored);
+                        return true;
+                    }
+                }
+                return false;
+            }, "Error updating entity with ID " + id);
+        } catch (ConcurrencyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void delete(Integer id) {
+        deleteAll(List.of(id));
+    }
+
+    @Override
+    public boolean deleteIfPresent(Integer id) {
+        return inTransaction(em -> {
+            for (Class<? extends T> concreteType : concreteTypes) {
+                T obj = em.find(concreteType, id);
+                if (obj != null) {
+                    em.remove(obj);
+                    return true;
+                }
+            }
+            return false;
+        }, "Error deleting entity");
+    }
+
+    @Override
+    public void deleteAll(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        inTransaction(em -> {
+            for (Integer id : ids) {
+                for (Class<? extends T> concreteType : concreteTypes) {
+                    T obj = em.find(concreteType, id);
+                    if (obj != null) {
+                        em.remove(obj);
+                        break;
+                    }
+                }
+            }
+            return null;
+        }, "Error deleting entities");
+    }
+
+    @Override
+    public List<T> getAll() {
+        try (Stream<T> entities = stream()) {
+            return entities.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * Streams the entities of each table in turn, fetching {@link DBRepository#DEFAULT_FETCH_SIZE} rows per
+     * round trip. The entity manager stays open until the stream is closed.
+     */
+    @Override
+    public Stream<T> stream() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            Stream<T> entities = concreteTypes.stream().flatMap(concreteType -> {
+                TypedQuery<? extends T> query = em.createQuery(
+                        "SELECT e FROM " + concreteType.getSimpleName() + " e", concreteType);
+                hints(em, concreteType).forEach(query::setHint);
+                query.setHint(FETCH_SIZE, DBRepository.DEFAULT_FETCH_SIZE);
+                return query.getResultStream();
+            });
+            return entities.onClose(em::close);
+        } catch (PersistenceException e) {
+            em.close();
+            throw new DatabaseException("Error streaming entities: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Evaluates the query in the database with a native {@code SELECT} per table, since query attributes
+     * name columns rather than entity fields.
+     */
+    @Override
+    public List<T> find(Query<? super T> query) {
+        return inEntityManager(em -> {
+            List<T> results = new ArrayList<>();
+            for (Class<? extends T> concreteType : concreteTypes) {
+                if (results.size() >= query.getLimit()) {
+                    break;
+                }
+                List<Object> parameters = new ArrayList<>();
+                List<String> conditions = DBRepository.buildConditions(query, parameters);
+                EntityMetadata<? extends T> metadata = EntityMetadata.of(concreteType);
+                String sql = metadata.getSelectAllSql()
+                        + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                        + " ORDER BY " + metadata.getPrimaryKeyColumn();
+                javax.persistence.Query nativeQuery = em.createNativeQuery(sql, concreteType);
+                for (int i = 0; i < parameters.size(); i++) {
+                    nativeQuery.setParameter(i + 1, DBRepository.toSqlValue(parameters.get(i)));
+                }
+                if (query.hasLimit()) {
+                    nativeQuery.setMaxResults(query.getLimit() - results.size());
+                }
+                @SuppressWarnings("unchecked")
+                List<T> matches = nativeQuery.getResultList();
+                results.addAll(matches);
+            }
+            return results;
+        }, "Error finding entities");
+    }
+
+    /**
+     * Returns the hints applied when reading an entity type: the load graph of the fetched associations the
+     * type has, and the query cache for cacheable types.
+     */
+    private Map<String, Object> hints(EntityManager em, Class<? extends T> concreteType) {
+        Map<String, Object> hints = new HashMap<>();
+        if (!fetchedAssociations.isEmpty()) {
+            EntityGraph<? extends T> graph = em.createEntityGraph(concreteType);
+            graph.addAttributeNodes(fetchedAssociations.toArray(new String[0]));
+            hints.put(LOAD_GRAPH, graph);
+        }
+        if (concreteType.isAnnotationPresent(Cacheable.class)) {
+            hints.put(CACHEABLE, true);
+        }
+        return hints;
+    }
+
+    private <R> R inEntityManager(Function<EntityManager, R> work, String errorMessage) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            return work.apply(em);
+        } catch (PersistenceException e) {
+            throw new DatabaseException(errorMessage + ": " + e.getMessage());
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Runs the work in a transaction, committing it if the work succeeds and rolling it back otherwise.
+     * @throws ConcurrencyException If a versioned entity was changed by someone else in the meantime.
+     */
+    private <R> R inTransaction(Function<EntityManager, R> work, String errorMessage) {
+        return inEntityManager(em -> {
+            EntityTransaction transaction = em.getTransaction();
+            transaction.begin();
+            try {
+                R result = work.apply(em);
+                transaction.commit();
+                return result;
+            } catch (PersistenceException e) {
+                // Hibernate reports a failed version check on commit as a rollback caused by it
+                if (e instanceof OptimisticLockException || e.getCause() instanceof OptimisticLockException) {
+                    throw new ConcurrencyException("An entity was changed or deleted by someone else. Reload it and try again.");
+                }
+                throw e;
+            } finally {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+            }
+        }, errorMessage);
+    }
+}
@@ -0,0 +1,100 @@
+package repository;
+
+import model.Identifiable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * One page of a sorted listing, together with the request for the page after it.
+ *
+ * @param <T> Type of the objects on the page.
+ */
+public final class Page<T extends Identifiable> {
+    private final List<T> items;
+    private final PageRequest<T> nextRequest;
+
+    private Page(List<T> items, PageRequest<T> nextRequest) {
+        this.items = items;
+        this.nextRequest = nextRequest;
+    }
+
+    /**
+     * Builds a page from the objects that follow the request's cursor, already in sort order.
+     * Repositories fetch one object more than the page size, which only serves to tell whether
+     * another page exists.
+     *
+     * @param sorted  Up to {@code request.getSize() + 1} objects in the request's sort order.
+     * @param request The request the objects were fetched for.
+     */
+    public static <T extends Identifiable> Page<T> of(List<T> sorted, PageRequest<T> request) {
+        boolean hasNext = sorted.size() > request.getSize();
+        return of(hasNext ? sorted.subList(0, request.getSize()) : sorted, request, hasNext);
+    }
+
+    /**
+     * Builds a page from its objects, for callers that already know whether another page follows.
+     *
+     * @param items   The objects on the page, in the request's sort order.
+     * @param request The request the objects were fetched for.
+     * @param hasNext Whether more objects follow the last one.
+     */
+    public static <T extends Identifiable> Page<T> of(List<T> items, PageRequest<T> request, boolean hasNext) {
+        List<T> copy = List.copyOf(items);
+        PageRequest<T> next = hasNext && !copy.isEmpty() ? request.after(copy.get(copy.size() - 1)) : null;
+        return new Page<>(copy, next);
+    }
+
+    /**
+     * Builds a page from unsorted candidates by keeping only the first objects after the cursor in sort order.
+     * Only {@code request.getSize() + 1} objects are held at a time, so the cost grows with the number of
+     * candidates but not with how far into the listing the page lies.
+     *
+     * @param candidates The objects to choose from, in any order.
+     * @param request    The page being requested.
+     */
+    public static <T extends Identifiable> Page<T> select(Iterator<T> candidates, PageRequest<T> request) {
+        int wanted = request.getSize() + 1;
+        Comparator<T> order = request.comparator();
+        PriorityQueue<T> best = new PriorityQueue<>(wanted, order.reversed());
+        while (candidates.hasNext()) {
+            T obj = candidates.next();
+            if (!request.isAfterCursor(obj)) {
+                continue;
+            }
+            if (best.size() < wanted) {
+                best.add(obj);
+            } else if (order.compare(obj, best.peek()) < 0) {
+                best.poll();
+                best.add(obj);
+            }
+        }
+        List<T> sorted = new ArrayList<>(best);
+        sorted.sort(order);
+        return of(sorted, request);
+    }
+
+    /**
+     * @return The objects on this page, in sort order.
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return Whether another page follows this one.
+     */
+    public boolean hasNext() {
+        return nextRequest != null;
+    }
+
+    /**
+     * @return The request for the following page, or null if this is the last page.
+     */
+    public PageRequest<T> getNextRequest() {
+        return nextRequest;
+    }
+}
@@ -0,0 +1,130 @@
+package repository;
+
+import model.Identifiable;
+
+import java.util.Comparator;
+
+/**
+ * Describes one page of a sorted listing: its size, the sort order, and where the previous page ended.
+ * <p>
+ * Pages are found by keyset (seek) pagination: instead of skipping a number of objects, a request for a
+ * later page remembers the sort key and ID of the last object already shown and asks for the objects after
+ * it. Fetching any page therefore costs the same as fetching the first. The ID breaks ties between equal
+ * sort keys, so every object appears on exactly one page even when objects are added or removed between
+ * requests. Sort attributes must not be null for any object.
+ * <p>
+ * The first page is requested with {@link #first(int)} or {@link #first(int, Attribute, boolean)}; later
+ * pages come from {@link Page#getNextRequest()}.
+ *
+ * @param <T> Type of the objects being paged.
+ */
+public final class PageRequest<T extends Identifiable> {
+    private final int size;
+    private final Attribute<? super T> sortBy;
+    private final boolean descending;
+    private final Object afterKey;
+    private final Integer afterID;
+
+    private PageRequest(int size, Attribute<? super T> sortBy, boolean descending, Object afterKey, Integer afterID) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        this.size = size;
+        this.sortBy = sortBy;
+        this.descending = descending;
+        this.afterKey = afterKey;
+        this.afterID = afterID;
+    }
+
+    /**
+     * Requests the first page of objects in ascending ID order.
+     *
+     * @param size The maximum number of objects on a page.
+     */
+    public static <T extends Identifiable> PageRequest<T> first(int size) {
+        return new PageRequest<>(size, null, false, null, null);
+    }
+
+    /**
+     * Requests the first page of objects sorted by an attribute, with ties broken by ID.
+     *
+     * @param size       The maximum number of objects on a page.
+     * @param sortBy     The attribute to sort by, whose values must be {@link Comparable}, or null to sort by ID only.
+     * @param descending Whether to sort from the highest value down.
+     */
+    public static <T extends Identifiable> PageRequest<T> first(int size, Attribute<? super T> sortBy, boolean descending) {
+        return new PageRequest<>(size, sortBy, descending, null, null);
+    }
+
+    /**
+     * Requests the page that follows the given object in this sort order.
+     */
+    PageRequest<T> after(T last) {
+        return new PageRequest<>(size, sortBy, descending, sortBy != null ? sortBy.valueOf(last) : null, last.getID());
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The sort attribute, or null when sorting by ID only.
+     */
+    public Attribute<? super T> getSortBy() {
+        return sortBy;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * @return Whether this is a request for the first page.
+     */
+    public boolean isFirst() {
+        return afterID == null;
+    }
+
+    /**
+     * @return The sort key of the last object on the previous page, or null for the first page or an ID sort.
+     */
+    public Object getAfterKey() {
+        return afterKey;
+    }
+
+    /**
+     * @return The ID of the last object on the previous page, or null for the first page.
+     */
+    public Integer getAfterID() {
+        return afterID;
+    }
+
+    /**
+     * @return The order the objects are listed in: by the sort attribute, then by ID.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Comparator<T> comparator() {
+        Comparator<T> byID = Comparator.comparing(T::getID);
+        Comparator<T> order = sortBy == null ? byID
+                : Comparator.<T, Comparable>comparing(obj -> (Comparable) sortBy.valueOf(obj)).thenComparing(byID);
+        return descending ? order.reversed() : order;
+    }
+
+    /**
+     * Tests whether an object comes after the end of the previous page, and so belongs on this page or a later one.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public boolean isAfterCursor(T obj) {
+        if (afterID == null) {
+            return true;
+        }
+        int comparison = 0;
+        if (sortBy != null) {
+            comparison = ((Comparable) sortBy.valueOf(obj)).compareTo(afterKey);
+        }
+        if (comparison == 0) {
+            comparison = obj.getID().compareTo(afterID);
+        }
+        return descending ? comparison < 0 : comparison > 0;
+    }
+}
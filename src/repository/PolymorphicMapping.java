@@ -0,0 +1,88 @@
+package repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads an abstract entity type whose subtypes are stored in separate tables, such as users and events,
+ * with a single {@code UNION ALL} query instead of one query per table.
+ * <p>
+ * Every table contributes one {@code SELECT} branch listing the columns of all subtypes in the same order,
+ * with {@code NULL} for the columns a table does not have. Each branch also selects a discriminator holding
+ * the subtype's name, which tells the row mapper which class to create, and its primary key under a common
+ * name, so the combined rows can be ordered by ID whatever the subtype's own key column is called.
+ *
+ * @param <E> The abstract entity type.
+ */
+final class PolymorphicMapping<E> {
+
+    /** Column holding the name of the subtype a row belongs to. */
+    static final String DISCRIMINATOR_COLUMN = "entity_type";
+
+    /** Column holding the primary key of every row, whatever the subtype's key column is called. */
+    static final String ID_COLUMN = "entity_id";
+
+    private final List<EntityMetadata<? extends E>> subtypes = new ArrayList<>();
+    private final Map<EntityMetadata<? extends E>, String> selects = new HashMap<>();
+
+    /**
+     * @param subtypes The concrete entity classes, each stored in its own table.
+     */
+    PolymorphicMapping(List<Class<? extends E>> subtypes) {
+        Set<String> columns = new LinkedHashSet<>();
+        for (Class<? extends E> subtype : subtypes) {
+            EntityMetadata<? extends E> metadata = EntityMetadata.of(subtype);
+            this.subtypes.add(metadata);
+            columns.addAll(metadata.getColumnNames());
+        }
+        for (EntityMetadata<? extends E> metadata : this.subtypes) {
+            List<String> own = metadata.getColumnNames();
+            StringBuilder select = new StringBuilder("SELECT '").append(metadata.getType().getSimpleName())
+                    .append("' AS ").append(DISCRIMINATOR_COLUMN).append(", ")
+                    .append(metadata.getPrimaryKeyColumn()).append(" AS ").append(ID_COLUMN);
+            for (String column : columns) {
+                select.append(", ").append(own.contains(column) ? column : "NULL AS " + column);
+            }
+            selects.put(metadata, select.append(" FROM ").append(metadata.getTableName()).toString());
+        }
+    }
+
+    /**
+     * @return The mappings of the concrete subtypes, in the order their tables are queried.
+     */
+    List<EntityMetadata<? extends E>> getSubtypes() {
+        return subtypes;
+    }
+
+    /**
+     * @return The {@code SELECT} branch reading one subtype's table, without a {@code WHERE} clause.
+     */
+    String getSelectSql(EntityMetadata<? extends E> subtype) {
+        return selects.get(subtype);
+    }
+
+    /**
+     * Prepares a mapper that creates each row as the subtype named by its discriminator.
+     */
+    RowMapper<E> rowMapper(ResultSet rs) throws SQLException {
+        int discriminator = rs.findColumn(DISCRIMINATOR_COLUMN);
+        Map<String, RowMapper<? extends E>> mappers = new HashMap<>();
+        for (EntityMetadata<? extends E> subtype : subtypes) {
+            mappers.put(subtype.getType().getSimpleName(), subtype.rowMapper(rs));
+        }
+        return row -> {
+            String name = row.getString(discriminator);
+            RowMapper<? extends E> mapper = mappers.get(name);
+            if (mapper == null) {
+                throw new SQLException("Unknown entity type in result set: " + name);
+            }
+            return mapper.map(row);
+        };
+    }
+}
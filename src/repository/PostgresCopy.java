@@ -0,0 +1,137 @@
+package repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inserts many rows through PostgreSQL's {@code COPY ... FROM STDIN}, which streams them to the server in
+ * one operation instead of executing a statement per row.
+ * <p>
+ * {@code COPY} does not report generated keys, so the IDs are reserved beforehand from the sequence behind
+ * the primary key column and written with the rows. Rows are encoded in the text format of {@code COPY}
+ * and sent in chunks, so memory use does not grow with the number of rows.
+ */
+final class PostgresCopy {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private PostgresCopy() {}
+
+    /**
+     * @return Whether the connection is a PostgreSQL connection that supports {@code COPY}.
+     */
+    static boolean isSupported(Connection conn) {
+        try {
+            return conn.isWrapperFor(PGConnection.class);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Takes a range of values from the sequence that generates the entity's primary keys: the one owned by
+     * the column, or else the sequence shared by the subtypes of the entity's abstract superclass.
+     *
+     * @return The reserved IDs in ascending order, or null if the primary key is not backed by a sequence.
+     */
+    static int[] reserveIDs(Connection conn, EntityMetadata<?> metadata, int count) throws SQLException {
+        String sequence;
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT pg_get_serial_sequence(?, ?)")) {
+            stmt.setString(1, metadata.getTableName());
+            stmt.setString(2, metadata.getPrimaryKeyColumn());
+            try (ResultSet rs = stmt.executeQuery()) {
+                sequence = rs.next() ? rs.getString(1) : null;
+            }
+        }
+        if (sequence == null) {
+            sequence = SchemaManager.sharedSequenceOf(metadata.getType());
+        }
+        if (sequence == null) {
+            return null;
+        }
+        int[] ids = new int[count];
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT nextval(?::regclass) FROM generate_series(1, ?) ORDER BY 1")) {
+            stmt.setString(1, sequence);
+            stmt.setInt(2, count);
+            try (ResultSet rs = stmt.executeQuery()) {
+                for (int i = 0; i < count && rs.next(); i++) {
+                    ids[i] = rs.getInt(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Copies entities into their table with the given IDs. The caller owns the transaction.
+     *
+     * @param ids The primary key of each entity, in the same order.
+     */
+    static void copyIn(Connection conn, EntityMetadata<?> metadata, List<?> entities, int[] ids) throws SQLException {
+        String sql = "COPY " + metadata.getTableName() + " (" + metadata.getPrimaryKeyColumn() + ", "
+                + String.join(", ", metadata.getInsertColumnNames()) + ") FROM STDIN";
+        CopyIn copy = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        try {
+            StringBuilder chunk = new StringBuilder(CHUNK_SIZE + 1024);
+            for (int i = 0; i < entities.size(); i++) {
+                chunk.append(ids[i]);
+                for (Object value : metadata.insertValues(entities.get(i))) {
+                    chunk.append('\t');
+                    appendValue(chunk, value);
+                }
+                chunk.append('\n');
+                if (chunk.length() >= CHUNK_SIZE) {
+                    write(copy, chunk);
+                }
+            }
+            write(copy, chunk);
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    private static void write(CopyIn copy, StringBuilder chunk) throws SQLException {
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    /**
+     * Appends a value in the text format of {@code COPY}: {@code \N} for null, {@code t}/{@code f} for
+     * booleans, and backslash escapes for the characters that separate columns and rows.
+     */
+    private static void appendValue(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("\\N");
+        } else if (value instanceof Boolean bool) {
+            out.append(bool ? 't' : 'f');
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.append(Timestamp.valueOf(dateTime));
+        } else {
+            String text = value.toString();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '\\' -> out.append("\\\\");
+                    case '\t' -> out.append("\\t");
+                    case '\n' -> out.append("\\n");
+                    case '\r' -> out.append("\\r");
+                    default -> out.append(c);
+                }
+            }
+        }
+    }
+}
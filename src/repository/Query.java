@@ -0,0 +1,136 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A filter on the attributes of stored objects, with an optional limit on the number of results.
+ * All conditions must hold for an object to match. Repositories evaluate queries where their storage
+ * allows it: the database repository turns them into a {@code WHERE} clause, and the in-memory repository
+ * answers them from a secondary index when one of the attributes has one.
+ * <p>
+ * Queries are built by chaining, for example
+ * {@code new Query<Ticket>().equalTo(Attributes.TICKET_EVENT, eventID).limit(10)}.
+ *
+ * @param <T> Type of the objects the query applies to.
+ */
+public final class Query<T> {
+
+    /**
+     * How a condition compares the attribute with its values.
+     */
+    public enum Operator {
+        /** The attribute equals the single value. */
+        EQUALS,
+        /** The attribute lies between the two values, inclusive; a null bound is open. */
+        RANGE,
+        /** The attribute equals one of the values. */
+        IN
+    }
+
+    /**
+     * A single condition on one attribute.
+     *
+     * @param attribute The attribute being tested.
+     * @param operator  How the attribute is compared.
+     * @param values    The value for {@link Operator#EQUALS}, the lower and upper bound for
+     *                  {@link Operator#RANGE}, or the accepted values for {@link Operator#IN}.
+     */
+    public record Condition<T>(Attribute<? super T> attribute, Operator operator, List<Object> values) {
+
+        /**
+         * Tests the condition against an object in memory.
+         */
+        public boolean matches(T obj) {
+            Object value = attribute.valueOf(obj);
+            return switch (operator) {
+                case EQUALS -> Objects.equals(value, values.get(0));
+                case IN -> values.contains(value);
+                case RANGE -> value != null
+                        && (values.get(0) == null || compare(value, values.get(0)) >= 0)
+                        && (values.get(1) == null || compare(value, values.get(1)) <= 0);
+            };
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static int compare(Object value, Object bound) {
+            return ((Comparable) value).compareTo(bound);
+        }
+    }
+
+    private final List<Condition<T>> conditions = new ArrayList<>();
+    private int limit = Integer.MAX_VALUE;
+
+    /**
+     * Requires the attribute to equal the value.
+     */
+    public Query<T> equalTo(Attribute<? super T> attribute, Object value) {
+        conditions.add(new Condition<>(attribute, Operator.EQUALS, Collections.singletonList(value)));
+        return this;
+    }
+
+    /**
+     * Requires the attribute to lie between two bounds, inclusive. Either bound may be null to leave
+     * that side open.
+     */
+    public <V extends Comparable<? super V>> Query<T> between(Attribute<? super T> attribute, V from, V to) {
+        conditions.add(new Condition<>(attribute, Operator.RANGE, Arrays.asList(from, to)));
+        return this;
+    }
+
+    /**
+     * Requires the attribute to equal one of the values. An empty collection matches nothing.
+     *
+     * @throws IllegalArgumentException If the values contain null, which {@code IN} never matches in SQL;
+     *                                  use {@link #equalTo} to match a missing value.
+     */
+    public Query<T> in(Attribute<? super T> attribute, Collection<?> values) {
+        if (values.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("In-list for " + attribute.name() + " cannot contain null; "
+                    + "use equalTo(attribute, null) to match a missing value.");
+        }
+        conditions.add(new Condition<>(attribute, Operator.IN, List.copyOf(values)));
+        return this;
+    }
+
+    /**
+     * Caps the number of results.
+     *
+     * @param limit The maximum number of objects to return.
+     */
+    public Query<T> limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Query limit cannot be negative: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public List<Condition<T>> getConditions() {
+        return conditions;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean hasLimit() {
+        return limit != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Tests all conditions against an object in memory.
+     */
+    public boolean matches(T obj) {
+        for (Condition<T> condition : conditions) {
+            if (!condition.matches(obj)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
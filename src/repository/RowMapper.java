@@ -0,0 +1,18 @@
+package repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Turns the current row of a result set into an object. A mapper is prepared for one result set and
+ * reused for all of its rows.
+ *
+ * @param <E> Type of the objects created.
+ */
+interface RowMapper<E> {
+
+    /**
+     * Creates an object from the current row.
+     */
+    E map(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,247 @@
+package repository;
+
+import exception.DatabaseException;
+
+import javax.persistence.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates and updates the database tables and indexes of the entity classes, following their JPA annotations.
+ * <p>
+ * Every statement is idempotent, so the schema can be brought up to date each time the application starts:
+ * missing tables are created, columns added to an entity since are added to its table, and missing indexes
+ * are created. Existing columns are never dropped, and only altered to move a key onto a shared sequence or
+ * to rename the key of a subtype table whose key is now declared by its entity superclass.
+ * <p>
+ * Besides the indexes declared with {@code @Table(indexes = ...)}, every join column gets an index of its own,
+ * unless a declared index already starts with it, so that looking up the rows that refer to an entity (the
+ * tickets of an event, the seats of a row) does not scan the whole table.
+ * <p>
+ * Subtypes of a common abstract class, such as admins and customers or concerts and sports events, take their
+ * IDs from one shared sequence, so that an ID identifies a single row across all of their tables, as the
+ * repositories reading them together expect. Tables created before, with a sequence of their own, are switched
+ * to the shared sequence, which is then moved past the highest ID in any of them.
+ */
+public class SchemaManager {
+
+    private final ConnectionPool connectionPool;
+
+    /**
+     * @param connectionPool The pool to borrow the connection running the statements from.
+     */
+    public SchemaManager(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    /**
+     * Brings the schema up to date in a single transaction.
+     *
+     * @param entityTypes The entity classes to create tables for.
+     * @throws DatabaseException If a statement fails, in which case no change is kept.
+     */
+    public void migrate(List<Class<?>> entityTypes) {
+        List<String> statements = plan(entityTypes);
+        try (Connection conn = connectionPool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : statements) {
+                    stmt.execute(sql);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error updating database schema: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists the statements {@link #migrate} runs, in order: shared sequences, then tables, then the positions
+     * of the shared sequences, then indexes.
+     *
+     * @param entityTypes The entity classes to create tables for.
+     * @return The SQL statements.
+     */
+    public List<String> plan(List<Class<?>> entityTypes) {
+        Set<String> sequences = new LinkedHashSet<>();
+        Map<String, List<String>> highestIDs = new LinkedHashMap<>();
+        List<String> tables = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        for (Class<?> entityType : entityTypes) {
+            String sequence = sharedSequenceOf(entityType);
+            if (sequence != null) {
+                sequences.add("CREATE SEQUENCE IF NOT EXISTS " + sequence);
+                EntityMetadata<?> metadata = EntityMetadata.of(entityType);
+                highestIDs.computeIfAbsent(sequence, key -> new ArrayList<>(List.of("(SELECT last_value FROM " + key + ")")))
+                        .add("(SELECT COALESCE(MAX(" + metadata.getPrimaryKeyColumn() + "), 0) FROM "
+                                + metadata.getTableName() + ")");
+            }
+            tables.addAll(tableStatements(entityType, sequence));
+            indexes.addAll(indexStatements(entityType));
+        }
+        List<String> statements = new ArrayList<>(sequences);
+        statements.addAll(tables);
+        // IDs already taken in any of the tables, with their previous sequences, must not be handed out again
+        highestIDs.forEach((sequence, highest) -> statements.add("SELECT setval('" + sequence + "', GREATEST("
+                + String.join(", ", highest) + "))"));
+        statements.addAll(indexes);
+        return statements;
+    }
+
+    private List<String> tableStatements(Class<?> entityType, String sequence) {
+        EntityMetadata<?> metadata = EntityMetadata.of(entityType);
+        List<String> definitions = new ArrayList<>();
+        List<String> additions = new ArrayList<>();
+        for (Field field : persistentFields(entityType)) {
+            if (field.isAnnotationPresent(Id.class)) {
+                definitions.add(metadata.getPrimaryKeyColumn() + (sequence != null
+                        ? " INTEGER DEFAULT nextval('" + sequence + "') PRIMARY KEY"
+                        : " INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY"));
+                continue;
+            }
+            String column;
+            String sqlType;
+            boolean nullable;
+            boolean unique = false;
+            if (field.isAnnotationPresent(JoinColumn.class)) {
+                JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+                column = joinColumn.name();
+                sqlType = "INTEGER";
+                nullable = joinColumn.nullable();
+            } else {
+                Column annotation = field.getAnnotation(Column.class);
+                column = annotation.name().isEmpty() ? field.getName() : annotation.name();
+                sqlType = sqlTypeOf(field, annotation.length());
+                nullable = annotation.nullable();
+                unique = annotation.unique();
+            }
+            if (field.isAnnotationPresent(Version.class)) {
+                // Existing rows start at version 0, so that optimistic updates can match them
+                definitions.add(column + " " + sqlType + " NOT NULL DEFAULT 0");
+                additions.add("ADD COLUMN IF NOT EXISTS " + column + " " + sqlType + " NOT NULL DEFAULT 0");
+                continue;
+            }
+            definitions.add(column + " " + sqlType + (nullable ? "" : " NOT NULL") + (unique ? " UNIQUE" : ""));
+            // Constraints cannot be added to a column of existing rows, so later columns are added as nullable
+            additions.add("ADD COLUMN IF NOT EXISTS " + column + " " + sqlType);
+        }
+        if (sequence != null) {
+            // A table created before the sequence was shared keeps drawing IDs from its own
+            additions.add("ALTER COLUMN " + metadata.getPrimaryKeyColumn() + " DROP IDENTITY IF EXISTS");
+            additions.add("ALTER COLUMN " + metadata.getPrimaryKeyColumn() + " SET DEFAULT nextval('" + sequence + "')");
+        }
+        String table = metadata.getTableName();
+        List<String> statements = new ArrayList<>();
+        statements.add("CREATE TABLE IF NOT EXISTS " + table + " (" + String.join(", ", definitions) + ")");
+        if (inheritsEntityKey(entityType) && !metadata.getPrimaryKeyColumn().equals(table + "_id")) {
+            // Tables created before their key was declared by an entity superclass named it after the table
+            statements.add("DO $$ BEGIN IF EXISTS (SELECT 1 FROM information_schema.columns"
+                    + " WHERE table_schema = current_schema() AND table_name = '" + table + "' AND column_name = '"
+                    + table + "_id') THEN ALTER TABLE " + table + " RENAME COLUMN " + table + "_id TO "
+                    + metadata.getPrimaryKeyColumn() + "; END IF; END $$");
+        }
+        if (!additions.isEmpty()) {
+            statements.add("ALTER TABLE " + table + " " + String.join(", ", additions));
+        }
+        return statements;
+    }
+
+    private List<String> indexStatements(Class<?> entityType) {
+        String table = EntityMetadata.of(entityType).getTableName();
+        List<String> statements = new ArrayList<>();
+        Set<String> leadingColumns = new LinkedHashSet<>();
+        Table tableAnnotation = entityType.getAnnotation(Table.class);
+        if (tableAnnotation != null) {
+            for (Index index : tableAnnotation.indexes()) {
+                String columnList = index.columnList().trim();
+                String name = index.name().isEmpty()
+                        ? "idx_" + table + "_" + columnList.replaceAll("[\\s,]+", "_")
+                        : index.name();
+                statements.add("CREATE " + (index.unique() ? "UNIQUE " : "") + "INDEX IF NOT EXISTS " + name
+                        + " ON " + table + " (" + columnList + ")");
+                leadingColumns.add(columnList.split(",")[0].trim());
+            }
+        }
+        for (Field field : persistentFields(entityType)) {
+            JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+            if (joinColumn != null && !leadingColumns.contains(joinColumn.name())) {
+                statements.add("CREATE INDEX IF NOT EXISTS idx_" + table + "_" + joinColumn.name()
+                        + " ON " + table + " (" + joinColumn.name() + ")");
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Returns the fields stored in the entity's table: its key, its columns and its join columns, including
+     * those inherited from a mapped superclass.
+     */
+    private List<Field> persistentFields(Class<?> entityType) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : EntityMetadata.mappedFields(entityType)) {
+            if (field.isAnnotationPresent(Transient.class)) {
+                continue;
+            }
+            if (field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(Column.class)
+                    || field.isAnnotationPresent(JoinColumn.class)) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * @return Whether the entity's primary key is declared by an entity superclass, as that of events is.
+     */
+    private static boolean inheritsEntityKey(Class<?> entityType) {
+        return EntityMetadata.mappedFields(entityType).stream()
+                .filter(field -> field.isAnnotationPresent(Id.class))
+                .anyMatch(field -> field.getDeclaringClass() != entityType
+                        && field.getDeclaringClass().isAnnotationPresent(Entity.class));
+    }
+
+    /**
+     * @return The sequence shared by the subtypes of the entity's abstract superclass, or null if it has none.
+     */
+    static String sharedSequenceOf(Class<?> entityType) {
+        Class<?> superclass = entityType.getSuperclass();
+        if (superclass == null || superclass == Object.class || !Modifier.isAbstract(superclass.getModifiers())) {
+            return null;
+        }
+        return superclass.getSimpleName().toLowerCase() + "_id_seq";
+    }
+
+    private String sqlTypeOf(Field field, int length) {
+        Class<?> type = field.getType();
+        if (type == int.class || type == Integer.class) {
+            return "INTEGER";
+        } else if (type == long.class || type == Long.class) {
+            return "BIGINT";
+        } else if (type == double.class || type == Double.class) {
+            return "DOUBLE PRECISION";
+        } else if (type == boolean.class || type == Boolean.class) {
+            return "BOOLEAN";
+        } else if (type == String.class || type.isEnum()) {
+            return "VARCHAR(" + length + ")";
+        } else if (type == LocalDateTime.class) {
+            return "TIMESTAMP";
+        } else if (type == LocalDate.class) {
+            return "DATE";
+        }
+        throw new IllegalArgumentException("No column type for field " + field.getName() + " of type " + type.getName());
+    }
+}
@@ -2,15 +2,58 @@ package repository.factory;
 
 import model.Identifiable;
 import repository.IRepository;
+import repository.Page;
+import repository.PageRequest;
+import repository.Query;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
+/**
+ * Repository for an abstract type whose subtypes are stored in separate sub-repositories, such as admins and
+ * customers, or concerts and sports events.
+ * <p>
+ * The concrete class of every known ID is kept in a routing map, filled with the IDs of all sub-repositories
+ * the first time an object is looked up by ID, and kept up to date on every create and delete. {@link #read},
+ * {@link #update} and {@link #delete} therefore go straight to the sub-repository holding the object instead
+ * of probing each one in turn. An ID missing from the map, for example one written by another repository
+ * instance sharing the same storage, is still found by probing, and is then added to the map.
+ * <p>
+ * {@link #getAll()} loads the sub-repositories concurrently, one virtual thread each, so the time it takes
+ * is that of the slowest sub-repository rather than the sum of all of them.
+ */
 public class CombinedRepository<T extends Identifiable> implements IRepository<T> {
 
-    private final Map<Class<? extends T>, IRepository<? extends T>> subRepositories = new HashMap<>();
+    private final Map<Class<? extends T>, IRepository<? extends T>> subRepositories = new LinkedHashMap<>();
+    private final Map<Integer, Class<? extends T>> routes = new ConcurrentHashMap<>();
+    private volatile boolean routesLoaded;
+    private final boolean concatenatedView;
+
+    /**
+     * Creates a combined repository whose {@link #getAll()} copies the objects of all sub-repositories into one list.
+     */
+    public CombinedRepository() {
+        this(false);
+    }
+
+    /**
+     * Creates a combined repository.
+     *
+     * @param concatenatedView If true, {@link #getAll()} returns a read-only view over the lists returned by the
+     *                         sub-repositories instead of copying them into a new list.
+     */
+    public CombinedRepository(boolean concatenatedView) {
+        this.concatenatedView = concatenatedView;
+    }
 
     /**
      * Registers a sub-repository for a specific class.
@@ -21,6 +64,7 @@ public class CombinedRepository<T extends Identifiable> implements IRepository<T
      */
     public <S extends T> void registerRepository(Class<S> clazz, IRepository<S> repository) {
         subRepositories.put(clazz, repository);
+        routesLoaded = false;
     }
 
     /**
@@ -44,15 +88,82 @@ public class CombinedRepository<T extends Identifiable> implements IRepository<T
             throw new IllegalArgumentException("No repository registered for class: " + obj.getClass());
         }
         repository.create(obj);
+        routes.put(obj.getID(), objClass);
+    }
+
+    @Override
+    public void createAll(List<T> objects) {
+        for (Map.Entry<Class<T>, List<T>> group : groupByClass(objects).entrySet()) {
+            IRepository<T> repository = getRepository(group.getKey());
+            if (repository == null) {
+                throw new IllegalArgumentException("No repository registered for class: " + group.getKey());
+            }
+            repository.createAll(group.getValue());
+            for (T obj : group.getValue()) {
+                routes.put(obj.getID(), group.getKey());
+            }
+        }
     }
 
     @Override
     public T read(Integer id) {
-        for (IRepository<? extends T> repository : subRepositories.values()) {
-            T obj = repository.read(id); // Suppressing warning for cast
+        IRepository<? extends T> routed = route(id);
+        if (routed != null) {
+            T obj = routed.read(id);
             if (obj != null) {
                 return obj;
             }
+            routes.remove(id); // Deleted through another repository
+        }
+        return probe(id);
+    }
+
+    /**
+     * Reads an object straight from the sub-repository of its subtype, bypassing the routing map, so that an
+     * object is found even if an object of another subtype has the same ID.
+     */
+    @Override
+    public <S extends T> S readAs(Class<S> type, Integer id) {
+        IRepository<S> repository = getRepository(type);
+        return repository != null ? repository.read(id) : IRepository.super.readAs(type, id);
+    }
+
+    /**
+     * Returns the sub-repository the routing map assigns an ID to, loading the map first if needed.
+     */
+    private IRepository<? extends T> route(Integer id) {
+        if (!routesLoaded) {
+            loadRoutes();
+        }
+        Class<? extends T> clazz = routes.get(id);
+        return clazz == null ? null : subRepositories.get(clazz);
+    }
+
+    /**
+     * Records the concrete class of every object currently stored in the sub-repositories.
+     */
+    private synchronized void loadRoutes() {
+        if (routesLoaded) {
+            return;
+        }
+        for (Map.Entry<Class<? extends T>, IRepository<? extends T>> entry : subRepositories.entrySet()) {
+            try (Stream<? extends T> objects = entry.getValue().stream()) {
+                objects.forEach(obj -> routes.put(obj.getID(), entry.getKey()));
+            }
+        }
+        routesLoaded = true;
+    }
+
+    /**
+     * Looks for an ID the routing map does not know in each sub-repository in turn, and records where it was found.
+     */
+    private T probe(Integer id) {
+        for (Map.Entry<Class<? extends T>, IRepository<? extends T>> entry : subRepositories.entrySet()) {
+            T obj = entry.getValue().read(id);
+            if (obj != null) {
+                routes.put(id, entry.getKey());
+                return obj;
+            }
         }
         return null; // Not found
     }
@@ -66,31 +177,194 @@ public class CombinedRepository<T extends Identifiable> implements IRepository<T
             throw new IllegalArgumentException("No repository registered for class: " + obj.getClass());
         }
         repository.update(obj);
+        routes.put(obj.getID(), objClass);
     }
 
     @Override
-    public void delete(Integer id) {
-        boolean deleted = false;
-        for (IRepository<? extends T> repository : subRepositories.values()) {
-            if (repository.read(id) != null) {
-                repository.delete(id);
-                deleted = true;
-                break;
+    public void updateAll(List<T> objects) {
+        for (Map.Entry<Class<T>, List<T>> group : groupByClass(objects).entrySet()) {
+            IRepository<T> repository = getRepository(group.getKey());
+            if (repository == null) {
+                throw new IllegalArgumentException("No repository registered for class: " + group.getKey());
             }
+            repository.updateAll(group.getValue());
         }
-        if (!deleted) {
+    }
+
+    /**
+     * Splits a batch by concrete class so each sub-repository receives its objects in one call.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Class<T>, List<T>> groupByClass(List<T> objects) {
+        Map<Class<T>, List<T>> groups = new LinkedHashMap<>();
+        for (T obj : objects) {
+            groups.computeIfAbsent((Class<T>) obj.getClass(), key -> new ArrayList<>()).add(obj);
+        }
+        return groups;
+    }
+
+    /**
+     * Deletes an object through the sub-repository the routing map assigns its ID to, without reading it first.
+     *
+     * @throws IllegalArgumentException If no sub-repository holds an object with the ID.
+     */
+    @Override
+    public void delete(Integer id) {
+        if (!deleteIfPresent(id)) {
             throw new IllegalArgumentException("No object found with ID: " + id);
         }
     }
 
+    /**
+     * Deletes an object through the sub-repository the routing map assigns its ID to. If that sub-repository
+     * no longer holds the ID, for example because the object was deleted or replaced through another
+     * repository, the stale route is dropped and the other sub-repositories are tried in turn.
+     */
+    @Override
+    public boolean deleteIfPresent(Integer id) {
+        IRepository<? extends T> routed = route(id);
+        routes.remove(id);
+        if (routed != null && routed.deleteIfPresent(id)) {
+            return true;
+        }
+        for (IRepository<? extends T> repository : subRepositories.values()) {
+            if (repository != routed && repository.deleteIfPresent(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads every sub-repository on its own virtual thread and merges the results, in registration order.
+     * If a sub-repository fails, its exception is rethrown once all loads have finished.
+     */
     @Override
     public List<T> getAll() {
-        List<T> allItems = new ArrayList<>();
-        for (IRepository<? extends T> repository : subRepositories.values()) {
-            @SuppressWarnings("unchecked")
-            List<T> items = (List<T>) repository.getAll();
+        List<List<? extends T>> parts = new ArrayList<>();
+        if (subRepositories.size() == 1) {
+            parts.add(subRepositories.values().iterator().next().getAll());
+        } else {
+            List<Future<? extends List<? extends T>>> loads = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (IRepository<? extends T> repository : subRepositories.values()) {
+                    loads.add(executor.submit(repository::getAll));
+                }
+            }
+            for (Future<? extends List<? extends T>> load : loads) {
+                parts.add(result(load));
+            }
+        }
+        if (concatenatedView) {
+            return new ConcatenatedList<>(parts);
+        }
+        List<T> allItems = new ArrayList<>(parts.stream().mapToInt(List::size).sum());
+        for (List<? extends T> items : parts) {
             allItems.addAll(items);
         }
         return allItems;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the result of a finished load, rethrowing the exception it failed with.
+     */
+    private static <R> R result(Future<R> load) {
+        try {
+            return load.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Error loading objects: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading objects.", e);
+        }
+    }
+
+    /**
+     * A read-only list presenting several lists one after another, without copying them.
+     */
+    private static final class ConcatenatedList<E> extends AbstractList<E> {
+        private final List<? extends List<? extends E>> parts;
+        private final int[] offsets;
+
+        private ConcatenatedList(List<? extends List<? extends E>> parts) {
+            this.parts = parts;
+            this.offsets = new int[parts.size() + 1];
+            for (int i = 0; i < parts.size(); i++) {
+                offsets[i + 1] = offsets[i] + parts.get(i).size();
+            }
+        }
+
+        @Override
+        public E get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+            }
+            int part = 0;
+            while (index >= offsets[part + 1]) {
+                part++;
+            }
+            return parts.get(part).get(index - offsets[part]);
+        }
+
+        @Override
+        public int size() {
+            return offsets[parts.size()];
+        }
+    }
+
+    /**
+     * Passes the query to each sub-repository in turn, so every one can evaluate it in its own storage,
+     * and stops once the limit is reached.
+     */
+    @Override
+    public List<T> find(Query<? super T> query) {
+        List<T> results = new ArrayList<>();
+        for (IRepository<? extends T> repository : subRepositories.values()) {
+            if (results.size() >= query.getLimit()) {
+                break;
+            }
+            List<? extends T> matches = repository.find(query);
+            results.addAll(matches.subList(0, Math.min(matches.size(), query.getLimit() - results.size())));
+        }
+        return results;
+    }
+
+    /**
+     * Asks every sub-repository for the same page and merges the results. Each sub-repository seeks to the
+     * end of the previous page on its own, so the merged page costs no more than a single sub-repository's.
+     */
+    @Override
+    public Page<T> findPage(Query<? super T> query, PageRequest<T> request) {
+        List<T> merged = new ArrayList<>();
+        boolean more = false;
+        for (IRepository<? extends T> repository : subRepositories.values()) {
+            Page<T> page = findPage(repository, query, request);
+            merged.addAll(page.getItems());
+            more |= page.hasNext();
+        }
+        merged.sort(request.comparator());
+        more |= merged.size() > request.getSize();
+        return Page.of(merged.subList(0, Math.min(merged.size(), request.getSize())), request, more);
+    }
+
+    /**
+     * Requests a page from a sub-repository, whose type is a subtype of T.
+     */
+    @SuppressWarnings("unchecked")
+    private <S extends T> Page<T> findPage(IRepository<S> repository, Query<? super T> query, PageRequest<T> request) {
+        return (Page<T>) (Page<?>) repository.findPage(query, (PageRequest<S>) (PageRequest<?>) request);
+    }
+
+    /**
+     * Streams the objects of each sub-repository in turn. A sub-repository's stream is only opened once
+     * the previous one is exhausted, and is closed as soon as it has been consumed.
+     */
+    @Override
+    public Stream<T> stream() {
+        return subRepositories.values().stream()
+                .flatMap(IRepository::stream);
+    }
+}
@@ -3,67 +3,170 @@ package repository.factory;
 import model.*;
 import repository.*;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates repositories backed by the PostgreSQL database. All repositories share one connection pool,
+ * owned by the factory.
+ * <p>
+ * Entity types that are read far more often than they change can be cached: their repository is wrapped in a
+ * {@link CachingRepository}, and the factory hands out the same instance every time, so all services share one
+ * cache and see each other's writes.
+ */
 public class DBRepositoryFactory implements RepositoryFactory {
 
-    @Override
-    public DBRepository<Artist> createArtistRepository() {
-        return new DBRepository<>(Artist.class);
+    private static final String DB_URL = "jdbc:postgresql://localhost:5432/ticketsalescompany";
+    private static final String DB_USER = "map";
+    private static final String DB_PASSWORD = "map";
+
+    /** The entities stored in the database, each in its own table. */
+    static final List<Class<?>> ENTITY_TYPES = List.of(Venue.class, Section.class, Row.class, Seat.class,
+            Admin.class, Customer.class, Concert.class, SportsEvent.class, Artist.class, Athlete.class,
+            ConcertLineUp.class, SportsEventLineUp.class, Cart.class, Ticket.class);
+
+    /** The entity types cached by default, with the number of objects kept for each. */
+    public static final Map<Class<?>, Integer> DEFAULT_CACHE_SIZES = Map.of(
+            Venue.class, 1_000, Artist.class, 1_000, Athlete.class, 1_000, Event.class, 5_000);
+
+    /** How long cached objects are kept by default, which bounds how long changes made elsewhere go unseen. */
+    public static final Duration DEFAULT_CACHE_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    private final ConnectionPool connectionPool;
+    private final int fetchSize;
+    private final Map<Class<?>, Integer> cacheSizes;
+    private final Duration cacheTimeToLive;
+    private final Map<Class<?>, IRepository<?>> cachedRepositories = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a factory with a connection pool of default size.
+     */
+    public DBRepositoryFactory() {
+        this(new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD));
+    }
+
+    /**
+     * Creates a factory whose repositories borrow connections from the given pool.
+     * @param connectionPool The pool shared by all repositories created by this factory.
+     */
+    public DBRepositoryFactory(ConnectionPool connectionPool) {
+        this(connectionPool, DBRepository.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Creates a factory whose repositories borrow connections from the given pool, caching the
+     * {@link #DEFAULT_CACHE_SIZES default} entity types.
+     * @param connectionPool The pool shared by all repositories created by this factory.
+     * @param fetchSize The number of rows fetched per round trip when a repository scans a whole table.
+     */
+    public DBRepositoryFactory(ConnectionPool connectionPool, int fetchSize) {
+        this(connectionPool, fetchSize, DEFAULT_CACHE_SIZES, DEFAULT_CACHE_TIME_TO_LIVE);
+    }
+
+    /**
+     * Creates a factory whose repositories borrow connections from the given pool.
+     * @param connectionPool The pool shared by all repositories created by this factory.
+     * @param fetchSize The number of rows fetched per round trip when a repository scans a whole table.
+     * @param cacheSizes The entity types to cache, with the number of objects kept for each; empty to cache none.
+     * @param cacheTimeToLive How long cached objects are kept, or null to keep them until evicted or changed.
+     */
+    public DBRepositoryFactory(ConnectionPool connectionPool, int fetchSize, Map<Class<?>, Integer> cacheSizes,
+                               Duration cacheTimeToLive) {
+        this.connectionPool = connectionPool;
+        this.fetchSize = fetchSize;
+        this.cacheSizes = Map.copyOf(cacheSizes);
+        this.cacheTimeToLive = cacheTimeToLive;
+    }
+
+    /**
+     * Creates the tables and indexes of all entities that do not exist yet, and adds columns missing from
+     * existing tables.
+     * @throws exception.DatabaseException If the schema could not be updated.
+     */
+    public void migrateSchema() {
+        new SchemaManager(connectionPool).migrate(ENTITY_TYPES);
+    }
+
+    /**
+     * @return The connection pool shared by the repositories, for example to read its metrics.
+     */
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    /**
+     * Creates the repository of an entity type, or returns the shared cached repository if the type is cached.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Identifiable> IRepository<T> create(Class<T> type) {
+        Integer cacheSize = cacheSizes.get(type);
+        if (cacheSize == null) {
+            return new DBRepository<>(type, connectionPool, fetchSize);
+        }
+        return (IRepository<T>) cachedRepositories.computeIfAbsent(type, key ->
+                new CachingRepository<>(new DBRepository<>(type, connectionPool, fetchSize), cacheSize, cacheTimeToLive));
     }
 
     @Override
-    public DBRepository<Athlete> createAthleteRepository() {
-        return new DBRepository<>(Athlete.class);
+    public IRepository<Artist> createArtistRepository() {
+        return create(Artist.class);
     }
 
     @Override
-    public DBRepository<Seat> createSeatRepository() {
-        return new DBRepository<>(Seat.class);
+    public IRepository<Athlete> createAthleteRepository() {
+        return create(Athlete.class);
     }
 
     @Override
-    public DBRepository<Row> createRowRepository() {
-        return new DBRepository<>(Row.class);
+    public IRepository<Seat> createSeatRepository() {
+        return create(Seat.class);
     }
 
     @Override
-    public DBRepository<Section> createSectionRepository() {
-        return new DBRepository<>(Section.class);
+    public IRepository<Row> createRowRepository() {
+        return create(Row.class);
     }
 
     @Override
-    public DBRepository<Venue> createVenueRepository() {
-        return new DBRepository<>(Venue.class);
+    public IRepository<Section> createSectionRepository() {
+        return create(Section.class);
     }
 
     @Override
-    public DBRepository<Ticket> createTicketRepository() {
-        return new DBRepository<>(Ticket.class);
+    public IRepository<Venue> createVenueRepository() {
+        return create(Venue.class);
     }
 
     @Override
-    public DBRepository<Cart> createCartRepository() {
-        return new DBRepository<>(Cart.class);
+    public IRepository<Ticket> createTicketRepository() {
+        return create(Ticket.class);
     }
 
+    @Override
+    public IRepository<Cart> createCartRepository() {
+        return create(Cart.class);
+    }
 
     @Override
-    public DBRepository<User> createUserRepository() {
-        return new DBRepository<>(User.class);
+    public IRepository<User> createUserRepository() {
+        return create(User.class);
     }
 
     @Override
-    public DBRepository<Event> createEventRepository() {
-        return new DBRepository<>(Event.class);
+    public IRepository<Event> createEventRepository() {
+        return create(Event.class);
     }
 
     @Override
-    public DBRepository<ConcertLineUp> createConcertLineUpRepository() {
-        return new DBRepository<>(ConcertLineUp.class);
+    public IRepository<ConcertLineUp> createConcertLineUpRepository() {
+        return create(ConcertLineUp.class);
     }
 
     @Override
-    public DBRepository<SportsEventLineUp> createSportsEventLineUpRepository() {
-        return new DBRepository<>(SportsEventLineUp.class);
+    public IRepository<SportsEventLineUp> createSportsEventLineUpRepository() {
+        return create(SportsEventLineUp.class);
     }
 
 }
\ No newline at end of file
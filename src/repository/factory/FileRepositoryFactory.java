@@ -3,72 +3,96 @@ package repository.factory;
 import model.*;
 import repository.*;
 
+/**
+ * Creates CSV-backed repositories. Every repository keeps its file cached in memory and writes
+ * changes through to disk; seats, tickets and carts, which change on every sale, are stored as
+ * append-only logs.
+ * <p>
+ * Loading happens in two phases. Each file is first parsed on its own into objects that hold only the
+ * IDs of the entities they reference; the cached repositories then act as identity maps, one per entity
+ * type, from which those references are resolved when they are first accessed. Every entity is
+ * therefore loaded once and shared by all objects that refer to it.
+ */
 public class FileRepositoryFactory implements RepositoryFactory {
 
     @Override
     public FileRepository<Artist> createArtistRepository() {
-        return new FileRepository<>("src/repository/data/artists.csv", Artist::fromCsv);
+        return new FileRepository<>("src/repository/data/artists.csv", Artist::fromCsv,
+                FileRepository.StorageMode.IN_PLACE, true);
     }
 
     @Override
     public FileRepository<Athlete> createAthleteRepository() {
-        return new FileRepository<>("src/repository/data/athletes.csv", Athlete::fromCsv);
+        return new FileRepository<>("src/repository/data/athletes.csv", Athlete::fromCsv,
+                FileRepository.StorageMode.IN_PLACE, true);
     }
 
     @Override
     public FileRepository<Seat> createSeatRepository() {
-        return new FileRepository<>("src/repository/data/seats.csv", Seat::fromCsv);
+        return new FileRepository<>("src/repository/data/seats.csv", Seat::fromCsv,
+                FileRepository.StorageMode.LOG_STRUCTURED, true);
     }
 
     @Override
     public FileRepository<Row> createRowRepository() {
-        return new FileRepository<>("src/repository/data/rows.csv", Row::fromCsv);
+        return new FileRepository<>("src/repository/data/rows.csv", Row::fromCsv,
+                FileRepository.StorageMode.IN_PLACE, true);
     }
 
     @Override
     public FileRepository<Section> createSectionRepository() {
-        return new FileRepository<>("src/repository/data/sections.csv", Section::fromCsv);
+        return new FileRepository<>("src/repository/data/sections.csv", Section::fromCsv,
+                FileRepository.StorageMode.IN_PLACE, true);
     }
 
     @Override
     public FileRepository<Venue> createVenueRepository() {
-        return new FileRepository<>("src/repository/data/venues.csv", Venue::fromCsv);
+        return new FileRepository<>("src/repository/data/venues.csv", Venue::fromCsv,
+                FileRepository.StorageMode.IN_PLACE, true);
     }
 
     @Override
     public FileRepository<Ticket> createTicketRepository() {
-        return new FileRepository<>("src/repository/data/tickets.csv", Ticket::fromCsv);
+        return new FileRepository<>("src/repository/data/tickets.csv", Ticket::fromCsv,
+                FileRepository.StorageMode.LOG_STRUCTURED, true);
     }
 
     @Override
     public FileRepository<Cart> createCartRepository() {
-        return new FileRepository<>("src/repository/data/carts.csv", Cart::fromCsv);
+        return new FileRepository<>("src/repository/data/carts.csv", Cart::fromCsv,
+                FileRepository.StorageMode.LOG_STRUCTURED, true);
     }
 
     @Override
     public IRepository<User> createUserRepository() {
-        CombinedRepository<User> combinedRepository = new CombinedRepository<>();
-        combinedRepository.registerRepository(Admin.class, new FileRepository<>("src/repository/data/admins.csv", Admin::fromCsv));
-        combinedRepository.registerRepository(Customer.class, new FileRepository<>("src/repository/data/customers.csv", Customer::fromCsv));
+        CombinedRepository<User> combinedRepository = new CombinedRepository<>(true);
+        combinedRepository.registerRepository(Admin.class, new FileRepository<>("src/repository/data/admins.csv", Admin::fromCsv,
+                FileRepository.StorageMode.IN_PLACE, true));
+        combinedRepository.registerRepository(Customer.class, new FileRepository<>("src/repository/data/customers.csv", Customer::fromCsv,
+                FileRepository.StorageMode.IN_PLACE, true));
         return combinedRepository;
     }
 
     @Override
     public IRepository<Event> createEventRepository() {
-        CombinedRepository<Event> combinedRepository = new CombinedRepository<>();
-        combinedRepository.registerRepository(Concert.class, new FileRepository<>("src/repository/data/concerts.csv", Concert::fromCsv));
-        combinedRepository.registerRepository(SportsEvent.class, new FileRepository<>("src/repository/data/sports_events.csv", SportsEvent::fromCsv));
+        CombinedRepository<Event> combinedRepository = new CombinedRepository<>(true);
+        combinedRepository.registerRepository(Concert.class, new FileRepository<>("src/repository/data/concerts.csv", Concert::fromCsv,
+                FileRepository.StorageMode.IN_PLACE, true));
+        combinedRepository.registerRepository(SportsEvent.class, new FileRepository<>("src/repository/data/sports_events.csv", SportsEvent::fromCsv,
+                FileRepository.StorageMode.IN_PLACE, true));
         return combinedRepository;
     }
 
     @Override
     public FileRepository<ConcertLineUp> createConcertLineUpRepository() {
-        return new FileRepository<>("src/repository/data/concert_line_ups.csv", ConcertLineUp::fromCsv);
+        return new FileRepository<>("src/repository/data/concert_line_ups.csv", ConcertLineUp::fromCsv,
+                FileRepository.StorageMode.IN_PLACE, true);
     }
 
     @Override
     public FileRepository<SportsEventLineUp> createSportsEventLineUpRepository() {
-        return new FileRepository<>("src/repository/data/sports_event_line_ups.csv", SportsEventLineUp::fromCsv);
+        return new FileRepository<>("src/repository/data/sports_event_line_ups.csv", SportsEventLineUp::fromCsv,
+                FileRepository.StorageMode.IN_PLACE, true);
     }
 
 }
\ No newline at end of file
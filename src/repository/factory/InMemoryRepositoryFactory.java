@@ -3,8 +3,12 @@ package repository.factory;
 import model.*;
 import repository.*;
 
-import java.awt.print.Book;
+import java.util.List;
 
+/**
+ * Creates repositories that keep their objects in memory, with secondary indexes on the
+ * foreign keys the services look objects up by.
+ */
 public class InMemoryRepositoryFactory implements RepositoryFactory {
 
     @Override
@@ -19,17 +23,17 @@ public class InMemoryRepositoryFactory implements RepositoryFactory {
 
     @Override
     public IRepository<Seat> createSeatRepository() {
-        return new InMemoryRepository<>();
+        return new InMemoryRepository<>(List.of(Attributes.SEAT_ROW));
     }
 
     @Override
     public IRepository<Row> createRowRepository() {
-        return new InMemoryRepository<>();
+        return new InMemoryRepository<>(List.of(Attributes.ROW_SECTION));
     }
 
     @Override
     public IRepository<Section> createSectionRepository() {
-        return new InMemoryRepository<>();
+        return new InMemoryRepository<>(List.of(Attributes.SECTION_VENUE));
     }
 
     @Override
@@ -39,7 +43,7 @@ public class InMemoryRepositoryFactory implements RepositoryFactory {
 
     @Override
     public IRepository<Ticket> createTicketRepository() {
-        return new InMemoryRepository<>();
+        return new InMemoryRepository<>(List.of(Attributes.TICKET_EVENT, Attributes.TICKET_CUSTOMER, Attributes.TICKET_CART));
     }
 
     @Override
@@ -54,17 +58,17 @@ public class InMemoryRepositoryFactory implements RepositoryFactory {
 
     @Override
     public IRepository<Event> createEventRepository() {
-        return new InMemoryRepository<>();
+        return new InMemoryRepository<>(List.of(Attributes.EVENT_VENUE));
     }
 
     @Override
     public IRepository<ConcertLineUp> createConcertLineUpRepository() {
-        return new InMemoryRepository<>();
+        return new InMemoryRepository<>(List.of(Attributes.CONCERT_LINE_UP_CONCERT, Attributes.CONCERT_LINE_UP_ARTIST));
     }
 
     @Override
     public IRepository<SportsEventLineUp> createSportsEventLineUpRepository() {
-        return new InMemoryRepository<>();
+        return new InMemoryRepository<>(List.of(Attributes.SPORTS_EVENT_LINE_UP_EVENT, Attributes.SPORTS_EVENT_LINE_UP_ATHLETE));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package repository.factory;
+
+import model.*;
+import repository.*;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.List;
+
+/**
+ * Creates repositories backed by JPA on the {@code ticketSalesPU} persistence unit. All repositories share
+ * one entity manager factory, owned by this factory, and with it Hibernate's second-level and query caches.
+ */
+public class JpaRepositoryFactory implements RepositoryFactory, AutoCloseable {
+
+    /** The persistence unit declared in {@code persistence.xml}. */
+    public static final String PERSISTENCE_UNIT = "ticketSalesPU";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Creates a factory on the {@link #PERSISTENCE_UNIT} persistence unit.
+     */
+    public JpaRepositoryFactory() {
+        this(Persistence.createEntityManagerFactory(PERSISTENCE_UNIT));
+    }
+
+    /**
+     * Creates a factory whose repositories work on the given persistence unit.
+     * @param entityManagerFactory The persistence unit shared by all repositories created by this factory.
+     */
+    public JpaRepositoryFactory(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Closes the entity manager factory and its connections.
+     */
+    @Override
+    public void close() {
+        entityManagerFactory.close();
+    }
+
+    @Override
+    public JpaRepository<Artist> createArtistRepository() {
+        return new JpaRepository<>(Artist.class, entityManagerFactory);
+    }
+
+    @Override
+    public JpaRepository<Athlete> createAthleteRepository() {
+        return new JpaRepository<>(Athlete.class, entityManagerFactory);
+    }
+
+    @Override
+    public JpaRepository<Seat> createSeatRepository() {
+        return new JpaRepository<>(Seat.class, entityManagerFactory);
+    }
+
+    @Override
+    public JpaRepository<Row> createRowRepository() {
+        return new JpaRepository<>(Row.class, entityManagerFactory);
+    }
+
+    @Override
+    public JpaRepository<Section> createSectionRepository() {
+        return new JpaRepository<>(Section.class, entityManagerFactory);
+    }
+
+    @Override
+    public JpaRepository<Venue> createVenueRepository() {
+        return new JpaRepository<>(Venue.class, entityManagerFactory);
+    }
+
+    @Override
+    public JpaRepository<Ticket> createTicketRepository() {
+        // Ticket listings show the event, seat and buyer, so they are loaded with the ticket
+        return new JpaRepository<>(Ticket.class, entityManagerFactory, "event", "seat", "customer");
+    }
+
+    @Override
+    public JpaRepository<Cart> createCartRepository() {
+        return new JpaRepository<>(Cart.class, entityManagerFactory);
+    }
+
+    @Override
+    public JpaRepository<User> createUserRepository() {
+        return new JpaRepository<>(List.of(Admin.class, Customer.class), entityManagerFactory);
+    }
+
+    @Override
+    public JpaRepository<Event> createEventRepository() {
+        return new JpaRepository<>(List.of(Concert.class, SportsEvent.class), entityManagerFactory);
+    }
+
+    @Override
+    public JpaRepository<ConcertLineUp> createConcertLineUpRepository() {
+        return new JpaRepository<>(ConcertLineUp.class, entityManagerFactory);
+    }
+
+    @Override
+    public JpaRepository<SportsEventLineUp> createSportsEventLineUpRepository() {
+        return new JpaRepository<>(SportsEventLineUp.class, entityManagerFactory);
+    }
+}
@@ -7,6 +7,7 @@ import repository.IRepository;
 import repository.factory.RepositoryFactory;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class ArtistService {
     private final IRepository<Artist> artistRepository;
@@ -79,7 +80,7 @@ public class ArtistService {
      * @return The artist with the specified ID, or null if no artist was found.
      */
     public Artist findArtistByID(int artistID) {
-        return artistRepository.getAll().stream().filter(artist -> artist.getID() == artistID).findFirst().orElse(null);
+        return artistRepository.read(artistID);
     }
 
     /**
@@ -88,7 +89,9 @@ public class ArtistService {
      * @return The artist with the specified name, or null if no artist was found.
      */
     public Artist findArtistByName(String artistName) {
-        return artistRepository.getAll().stream().filter(artist -> artist.getArtistName().equalsIgnoreCase(artistName)).findFirst().orElse(null);
+        try (Stream<Artist> artists = artistRepository.stream()) {
+            return artists.filter(artist -> artist.getArtistName().equalsIgnoreCase(artistName)).findFirst().orElse(null);
+        }
     }
 
     /**
@@ -7,6 +7,7 @@ import repository.IRepository;
 import repository.factory.RepositoryFactory;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class AthleteService {
     private final IRepository<Athlete> athleteRepository;
@@ -79,7 +80,7 @@ public class AthleteService {
      * @return The athlete with the specified ID, or null if no athlete was found.
      */
     public Athlete findAthleteByID(int athleteID) {
-        return athleteRepository.getAll().stream().filter(athlete -> athlete.getID() == athleteID).findFirst().orElse(null);
+        return athleteRepository.read(athleteID);
     }
 
     /**
@@ -88,7 +89,9 @@ public class AthleteService {
      * @return The athlete with the specified name, or null if no athlete was found.
      */
     public Athlete findAthleteByName(String athleteName) {
-        return athleteRepository.getAll().stream().filter(athlete -> athlete.getAthleteName().equalsIgnoreCase(athleteName)).findFirst().orElse(null);
+        try (Stream<Athlete> athletes = athleteRepository.stream()) {
+            return athletes.filter(athlete -> athlete.getAthleteName().equalsIgnoreCase(athleteName)).findFirst().orElse(null);
+        }
     }
 
 
@@ -21,9 +21,11 @@ import java.util.UUID;
 public class CartService {
 
     private final IRepository<Cart> cartRepository;
+    private final TicketService ticketService;
 
-    public CartService(RepositoryFactory repositoryFactory) {
+    public CartService(RepositoryFactory repositoryFactory, TicketService ticketService) {
         this.cartRepository = repositoryFactory.createCartRepository();
+        this.ticketService = ticketService;
     }
 
     /**
@@ -60,13 +62,10 @@ public class CartService {
             throw new ValidationException("Ticket cannot be null.");
         }
         try {
-            if (ticket.isSold()) {
+            // Mark the ticket as reserved, unless another customer got to it first
+            if (!ticketService.claimTicket(ticket, cart)) {
                 throw new IllegalArgumentException("Ticket is already sold.");
             }
-
-            // Mark the ticket as reserved
-            ticket.setSold(true);
-            ticket.setCart(cart);
             cart.addTicket(ticket);
 
             updateTotalPrice(cart); // Update total price after adding a ticket
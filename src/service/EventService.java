@@ -3,7 +3,11 @@ package service;
 import exception.EntityNotFoundException;
 import exception.ValidationException;
 import model.*;
+import repository.Attributes;
 import repository.IRepository;
+import repository.Page;
+import repository.PageRequest;
+import repository.Query;
 import repository.factory.RepositoryFactory;
 
 import java.time.LocalDateTime;
@@ -102,9 +106,8 @@ public class EventService {
      * @return true if the artist is successfully removed, false otherwise.
      */
     public boolean removeArtistFromConcert(int eventID, int artistID) {
-        ConcertLineUp lineUp = concertLineUpRepository.getAll().stream()
-                .filter(lineUpEntry -> lineUpEntry.getConcert().getID() == eventID &&
-                        lineUpEntry.getArtist().getID() == artistID)
+        ConcertLineUp lineUp = concertLineUpRepository.findBy(Attributes.CONCERT_LINE_UP_CONCERT, eventID).stream()
+                .filter(lineUpEntry -> lineUpEntry.getArtist().getID() == artistID)
                 .findFirst()
                 .orElse(null);
         if (lineUp != null) {
@@ -121,11 +124,8 @@ public class EventService {
      * @return the Concert object, or null if not found.
      */
     public Concert findConcertByID(int concertID) {
-        return eventRepository.getAll().stream()
-                .filter(event -> event instanceof Concert && event.getID() == concertID)
-                .map(event -> (Concert) event)
-                .findFirst()
-                .orElse(null);
+        // Event subtypes may be stored separately with overlapping IDs
+        return eventRepository.readAs(Concert.class, concertID);
     }
 
     /**
@@ -135,8 +135,7 @@ public class EventService {
      * @return a list of Artist objects.
      */
     public List<Artist> getArtistsByConcert(int concertID) {
-        return concertLineUpRepository.getAll().stream()
-                .filter(lineUp -> lineUp.getConcert().getID() == concertID)
+        return concertLineUpRepository.findBy(Attributes.CONCERT_LINE_UP_CONCERT, concertID).stream()
                 .map(ConcertLineUp::getArtist)
                 .distinct()
                 .toList();
@@ -204,9 +203,8 @@ public class EventService {
      * @return true if the athlete is successfully removed, false otherwise.
      */
     public boolean removeAthleteFromSportsEvent(int eventID, int athleteID) {
-        SportsEventLineUp lineUp = sportsEventLineUpRepository.getAll().stream()
-                .filter(lineUpEntry -> lineUpEntry.getSportsEvent().getID() == eventID &&
-                        lineUpEntry.getAthlete().getID() == athleteID)
+        SportsEventLineUp lineUp = sportsEventLineUpRepository.findBy(Attributes.SPORTS_EVENT_LINE_UP_EVENT, eventID).stream()
+                .filter(lineUpEntry -> lineUpEntry.getAthlete().getID() == athleteID)
                 .findFirst()
                 .orElse(null);
 
@@ -224,11 +222,8 @@ public class EventService {
      * @return the SportsEvent object, or null if not found.
      */
     public SportsEvent findSportsEventByID(int sportsEventID) {
-        return eventRepository.getAll().stream()
-                .filter(event -> event instanceof SportsEvent && event.getID() == sportsEventID)
-                .map(event -> (SportsEvent) event)
-                .findFirst()
-                .orElse(null);
+        // Event subtypes may be stored separately with overlapping IDs
+        return eventRepository.readAs(SportsEvent.class, sportsEventID);
     }
 
     /**
@@ -238,8 +233,7 @@ public class EventService {
      * @return a list of Athlete objects.
      */
     public List<Athlete> getAthletesBySportsEvent(int sportsEventID) {
-        return sportsEventLineUpRepository.getAll().stream()
-                .filter(lineUp -> lineUp.getSportsEvent().getID() == sportsEventID)
+        return sportsEventLineUpRepository.findBy(Attributes.SPORTS_EVENT_LINE_UP_EVENT, sportsEventID).stream()
                 .map(SportsEventLineUp::getAthlete)
                 .distinct() // Evită duplicarea atleților
                 .toList();
@@ -287,13 +281,13 @@ public class EventService {
         }
 
         if (event instanceof Concert) {
-            concertLineUpRepository.getAll().stream()
-                    .filter(lineUp -> lineUp.getConcert().getID() == eventId)
-                    .forEach(lineUp -> concertLineUpRepository.delete(lineUp.hashCode()));
+            concertLineUpRepository.deleteAll(concertLineUpRepository.findBy(Attributes.CONCERT_LINE_UP_CONCERT, eventId).stream()
+                    .map(ConcertLineUp::getID)
+                    .toList());
         } else if (event instanceof SportsEvent) {
-            sportsEventLineUpRepository.getAll().stream()
-                    .filter(lineUp -> lineUp.getSportsEvent().getID() == eventId)
-                    .forEach(lineUp -> sportsEventLineUpRepository.delete(lineUp.hashCode()));
+            sportsEventLineUpRepository.deleteAll(sportsEventLineUpRepository.findBy(Attributes.SPORTS_EVENT_LINE_UP_EVENT, eventId).stream()
+                    .map(SportsEventLineUp::getID)
+                    .toList());
         }
         eventRepository.delete(eventId);
         return true;
@@ -306,10 +300,7 @@ public class EventService {
      * @return the Event object, or null if not found.
      */
     public Event findEventByID(int eventId) {
-        return eventRepository.getAll().stream()
-                .filter(event -> event.getID() == eventId)
-                .findFirst()
-                .orElse(null);
+        return eventRepository.read(eventId);
     }
 
     /**
@@ -321,6 +312,26 @@ public class EventService {
         return eventRepository.getAll();
     }
 
+    /**
+     * Retrieves the first page of all events, sorted by start date and time.
+     *
+     * @param pageSize the maximum number of events on the page.
+     * @return the first page of events.
+     */
+    public Page<Event> getEventsPage(int pageSize) {
+        return getEventsPage(PageRequest.first(pageSize, Attributes.EVENT_START, false));
+    }
+
+    /**
+     * Retrieves a page of all events.
+     *
+     * @param request the page to retrieve, usually the next request of the previous page.
+     * @return the requested page of events.
+     */
+    public Page<Event> getEventsPage(PageRequest<Event> request) {
+        return eventRepository.findPage(new Query<>(), request);
+    }
+
     /**
      * Retrieves events associated with a specific venue.
      *
@@ -328,9 +339,7 @@ public class EventService {
      * @return a list of Event objects.
      */
     public List<Event> getEventsByVenue(int venueID) {
-        return eventRepository.getAll().stream()
-                .filter(event -> event.getVenueID() == venueID)
-                .toList();
+        return eventRepository.find(new Query<Event>().equalTo(Attributes.EVENT_VENUE, venueID));
     }
     /**
      * Retrieves events by location or venue name.
@@ -352,9 +361,8 @@ public class EventService {
      * @return a list of upcoming Event objects.
      */
     public List<Event> getUpcomingEventsForArtist(int artistID) {
-        return concertLineUpRepository.getAll().stream()
-                .filter(lineUp -> lineUp.getArtist().getID() == artistID &&
-                        lineUp.getConcert().getStartDateTime().isAfter(LocalDateTime.now()))
+        return concertLineUpRepository.findBy(Attributes.CONCERT_LINE_UP_ARTIST, artistID).stream()
+                .filter(lineUp -> lineUp.getConcert().getStartDateTime().isAfter(LocalDateTime.now()))
                 .map(ConcertLineUp::getConcert)
                 .filter(event -> event instanceof Concert)
                 .map(event -> (Event) event)
@@ -368,9 +376,8 @@ public class EventService {
      * @return a list of upcoming Event objects.
      */
     public List<Event> getUpcomingEventsForAthlete(int athleteID) {
-        return sportsEventLineUpRepository.getAll().stream()
-                .filter(lineUp -> lineUp.getAthlete().getID() == athleteID &&
-                        lineUp.getSportsEvent().getStartDateTime().isAfter(LocalDateTime.now()))
+        return sportsEventLineUpRepository.findBy(Attributes.SPORTS_EVENT_LINE_UP_ATHLETE, athleteID).stream()
+                .filter(lineUp -> lineUp.getSportsEvent().getStartDateTime().isAfter(LocalDateTime.now()))
                 .map(SportsEventLineUp::getSportsEvent)
                 .filter(event -> event instanceof SportsEvent)
                 .map(event -> (Event) event)
@@ -4,13 +4,18 @@ import exception.BusinessLogicException;
 import exception.EntityNotFoundException;
 import exception.ValidationException;
 import model.*;
+import repository.Attributes;
 import repository.IRepository;
+import repository.Page;
+import repository.PageRequest;
+import repository.Query;
 import repository.factory.RepositoryFactory;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing ticket-related operations.
@@ -64,9 +69,14 @@ public class TicketService {
             allTickets.addAll(generateTicketsWithoutSeats(event, calculateDynamicStandardPrice(basePrice, event.getStartDateTime()), standardCount, TicketType.STANDARD));
         }
 
-        // Save tickets to repository
-        for (Ticket ticket : allTickets) {
-            ticketRepository.create(ticket);
+        // Save tickets to repository, then persist the seats so they reference the assigned ticket IDs
+        ticketRepository.createAll(allTickets);
+        List<Seat> assignedSeats = allTickets.stream()
+                .map(Ticket::getSeat)
+                .filter(seat -> seat != null)
+                .collect(Collectors.toList());
+        if (!assignedSeats.isEmpty()) {
+            venueService.updateSeats(assignedSeats);
         }
 
         return allTickets;
@@ -86,7 +96,6 @@ public class TicketService {
                 .map(seat -> {
                     Ticket ticket = new Ticket(0, event, seat, null, price, ticketType);
                     seat.setTicket(ticket); // Associate ticket with seat
-                    venueService.updateSeat(seat); // Persist the seat update
                     return ticket;
                 })
                 .collect(Collectors.toList());
@@ -176,9 +185,30 @@ public class TicketService {
      * @return a list of tickets for the specified event.
      */
     public List<Ticket> getTicketsByEvent(Event event) {
-        return ticketRepository.getAll().stream()
-                .filter(ticket -> ticket.getEvent().equals(event))
-                .collect(Collectors.toList());
+        return new ArrayList<>(ticketRepository.find(new Query<Ticket>()
+                .equalTo(Attributes.TICKET_EVENT, event.getID())));
+    }
+
+    /**
+     * Retrieves the first page of tickets for a specific event, in ID order.
+     *
+     * @param event    the event for which tickets are retrieved.
+     * @param pageSize the maximum number of tickets on the page.
+     * @return the first page of tickets for the event.
+     */
+    public Page<Ticket> getTicketsByEventPage(Event event, int pageSize) {
+        return getTicketsByEventPage(event, PageRequest.first(pageSize));
+    }
+
+    /**
+     * Retrieves a page of tickets for a specific event.
+     *
+     * @param event   the event for which tickets are retrieved.
+     * @param request the page to retrieve, usually the next request of the previous page.
+     * @return the requested page of tickets for the event.
+     */
+    public Page<Ticket> getTicketsByEventPage(Event event, PageRequest<Ticket> request) {
+        return ticketRepository.findPage(new Query<Ticket>().equalTo(Attributes.TICKET_EVENT, event.getID()), request);
     }
 
     /**
@@ -188,9 +218,9 @@ public class TicketService {
      * @return a list of available tickets for the specified event.
      */
     public List<Ticket> getAvailableTicketsForEvent(Event event) {
-        return getTicketsByEvent(event).stream()
-                .filter(ticket -> !ticket.isSold())
-                .collect(Collectors.toList());
+        return new ArrayList<>(ticketRepository.find(new Query<Ticket>()
+                .equalTo(Attributes.TICKET_EVENT, event.getID())
+                .equalTo(Attributes.TICKET_SOLD, false)));
     }
 
     /**
@@ -200,9 +230,7 @@ public class TicketService {
      * @return a list of tickets associated with the specified cart ID.
      */
     public List<Ticket> findTicketsByCartID(int cartID) {
-        return ticketRepository.getAll().stream()
-                .filter(ticket -> ticket.getCart() != null && ticket.getCart().getID() == cartID)
-                .collect(Collectors.toList());
+        return new ArrayList<>(ticketRepository.findBy(Attributes.TICKET_CART, cartID));
     }
 
     /**
@@ -215,6 +243,33 @@ public class TicketService {
         ticketRepository.update(ticket);
     }
 
+    /**
+     * Marks a ticket as sold and puts it in a cart, unless it has already been sold. The check and the change
+     * are made in one atomic step by the repository, so when several customers try to claim the same ticket
+     * at once, exactly one of them gets it.
+     *
+     * @param ticket the ticket to claim; updated to match the stored ticket if the claim succeeds.
+     * @param cart   the cart the ticket goes to.
+     * @return true if the ticket was claimed, false if it was already sold or no longer exists.
+     */
+    public boolean claimTicket(Ticket ticket, Cart cart) {
+        List<Ticket> changed = new ArrayList<>(1);
+        boolean claimed = ticketRepository.compareAndSet(ticket.getID(),
+                new Query<Ticket>().equalTo(Attributes.TICKET_SOLD, false),
+                stored -> {
+                    stored.setSold(true);
+                    stored.setCart(cart);
+                    changed.add(stored);
+                });
+        if (claimed && changed.get(0) != ticket) {
+            // The repository changed its own copy of the ticket
+            ticket.setSold(true);
+            ticket.setCart(cart);
+            ticket.setVersion(changed.get(0).getVersion());
+        }
+        return claimed;
+    }
+
     /**
      * Finds a ticket by its ID.
      *
@@ -254,19 +309,19 @@ public class TicketService {
      * @return a list of strings describing the availability of each ticket type.
      */
     public List<String> getTicketAvailabilityByType(Event event) {
-        List<Ticket> tickets = getTicketsByEvent(event);
-
-        long earlyBirdAvailable = tickets.stream()
-                .filter(ticket -> ticket.getTicketType() == TicketType.EARLY_BIRD && !ticket.isSold())
-                .count();
-
-        long vipAvailable = tickets.stream()
-                .filter(ticket -> ticket.getTicketType() == TicketType.VIP && !ticket.isSold())
-                .count();
-
-        long standardAvailable = tickets.stream()
-                .filter(ticket -> ticket.getTicketType() == TicketType.STANDARD && !ticket.isSold())
-                .count();
+        long earlyBirdAvailable = 0;
+        long vipAvailable = 0;
+        long standardAvailable = 0;
+        for (Ticket ticket : getTicketsByEvent(event)) {
+            if (ticket.isSold()) {
+                continue;
+            }
+            switch (ticket.getTicketType()) {
+                case EARLY_BIRD -> earlyBirdAvailable++;
+                case VIP -> vipAvailable++;
+                case STANDARD -> standardAvailable++;
+            }
+        }
 
         List<String> availability = new ArrayList<>();
         availability.add(earlyBirdAvailable > 0
@@ -292,9 +347,36 @@ public class TicketService {
      * @return a list of available tickets of the specified type for the event.
      */
     public List<Ticket> getAvailableTicketsByType(Event event, TicketType ticketType) {
-        return getTicketsByEvent(event).stream()
-                .filter(ticket -> ticket.getTicketType() == ticketType && !ticket.isSold())
-                .collect(Collectors.toList());
+        return new ArrayList<>(ticketRepository.find(new Query<Ticket>()
+                .equalTo(Attributes.TICKET_EVENT, event.getID())
+                .equalTo(Attributes.TICKET_TYPE, ticketType)
+                .equalTo(Attributes.TICKET_SOLD, false)));
+    }
+
+    /**
+     * Retrieves the first page of a customer's tickets, most recently purchased first. Tickets purchased at
+     * the same time are ordered by ID.
+     *
+     * @param customer the customer whose tickets are retrieved.
+     * @param pageSize the maximum number of tickets on the page.
+     * @return the first page of the customer's tickets.
+     */
+    public Page<Ticket> getTicketsByCustomerPage(Customer customer, int pageSize) {
+        return getTicketsByCustomerPage(customer, PageRequest.first(pageSize, Attributes.TICKET_PURCHASE_DATE, true));
+    }
+
+    /**
+     * Retrieves a page of a customer's tickets.
+     *
+     * @param customer the customer whose tickets are retrieved.
+     * @param request  the page to retrieve, usually the next request of the previous page.
+     * @return the requested page of the customer's tickets.
+     */
+    public Page<Ticket> getTicketsByCustomerPage(Customer customer, PageRequest<Ticket> request) {
+        if (customer == null) {
+            throw new ValidationException("Customer cannot be null.");
+        }
+        return ticketRepository.findPage(new Query<Ticket>().equalTo(Attributes.TICKET_CUSTOMER, customer.getID()), request);
     }
 
     /**
@@ -308,9 +390,11 @@ public class TicketService {
         if (customer == null) {
             throw new ValidationException("Customer cannot be null.");
         }
-        return ticketRepository.getAll().stream()
-                .filter(ticket -> customer.equals(ticket.getCustomer()))
-                .collect(Collectors.toList());
+        try (Stream<Ticket> tickets = ticketRepository.stream()) {
+            return tickets
+                    .filter(ticket -> customer.equals(ticket.getCustomer()))
+                    .collect(Collectors.toList());
+        }
     }
 
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import repository.IRepository;
 import repository.factory.RepositoryFactory;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public class UserService {
     private final IRepository<User> userRepository;
@@ -42,13 +43,9 @@ public class UserService {
      * @return true if the username is already taken, false if the username is unique.
      */
     public boolean takenUsername(String username) {
-        List<User> users = userRepository.getAll();
-        for (User user : users) {
-            if (user.getUsername() != null && user.getUsername().equals(username)) {
-                return true;
-            }
+        try (Stream<User> users = userRepository.stream()) {
+            return users.anyMatch(user -> user.getUsername() != null && user.getUsername().equals(username));
         }
-        return false;
     }
 
 
@@ -104,22 +101,22 @@ public class UserService {
      * @return true if login is successful (correct username and password), false if login fails (incorrect credentials).
      */
     public boolean login(String username, String password) {
-        for (User user : userRepository.getAll()) {
-            if (user.getUsername().equals(username)) {
-                if (user.getPassword().equals(password)) {
-                    currentUser = user;
-                    if (currentUser instanceof Customer) {
-                        customerService.setCurrentCustomer((Customer) currentUser);
-                        return true;
-                    } else if (currentUser instanceof Admin) {
-                        return true;
-                    }
-                } else {
-                    return false; // Incorrect password
-                }
-            }
+        User user;
+        try (Stream<User> users = userRepository.stream()) {
+            user = users.filter(candidate -> candidate.getUsername().equals(username)).findFirst().orElse(null);
+        }
+        if (user == null) {
+            return false; // Username not found
+        }
+        if (!user.getPassword().equals(password)) {
+            return false; // Incorrect password
         }
-        return false; // Username not found
+        currentUser = user;
+        if (currentUser instanceof Customer) {
+            customerService.setCurrentCustomer((Customer) currentUser);
+            return true;
+        }
+        return currentUser instanceof Admin;
     }
 
     /**
@@ -156,12 +153,18 @@ public class UserService {
     }
 
     public Customer findCustomerByID(int customerID) {
-        return userRepository.getAll().stream()
-                .filter(user -> user instanceof Customer)
-                .map(user -> (Customer) user)
-                .filter(customer -> customer.getID() == customerID)
-                .findFirst()
-                .orElse(null);
+        if (userRepository.read(customerID) instanceof Customer customer) {
+            return customer;
+        }
+        // User subtypes may be stored separately with overlapping IDs
+        try (Stream<User> users = userRepository.stream()) {
+            return users
+                    .filter(user -> user instanceof Customer)
+                    .map(user -> (Customer) user)
+                    .filter(customer -> customer.getID() == customerID)
+                    .findFirst()
+                    .orElse(null);
+        }
     }
 
 }
\ No newline at end of file
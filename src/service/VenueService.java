@@ -4,12 +4,15 @@ import exception.BusinessLogicException;
 import exception.EntityNotFoundException;
 import exception.ValidationException;
 import model.*;
+import repository.Attributes;
 import repository.IRepository;
+import repository.Query;
 import repository.factory.RepositoryFactory;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class VenueService {
     private final IRepository<Venue> venueRepository;
@@ -37,6 +40,28 @@ public class VenueService {
         seatRepository.update(seat);
     }
 
+    /**
+     * Updates several Seats in a single batch.
+     *
+     * @param seats the Seats to update.
+     */
+    public void updateSeats(List<Seat> seats) {
+        for (Seat seat : seats) {
+            if (seat == null) {
+                throw new ValidationException("Seat cannot be null.");
+            }
+        }
+        seats.stream()
+                .map(seat -> seat.getRow().getID())
+                .distinct()
+                .forEach(rowId -> {
+                    if (findRowByID(rowId) == null) {
+                        throw new BusinessLogicException("Row associated with the seat does not exist.");
+                    }
+                });
+        seatRepository.updateAll(seats);
+    }
+
     /**
      * Creates a new Seat and saves it to all repositories.
      *
@@ -56,12 +81,10 @@ public class VenueService {
     }
 
     public void deleteSeatsByRow(int rowId) {
-        List<Seat> seats = seatRepository.getAll().stream()
-                .filter(seat -> seat.getRow().getID() == rowId)
+        List<Integer> seatIds = seatRepository.findBy(Attributes.SEAT_ROW, rowId).stream()
+                .map(Seat::getID)
                 .toList();
-        for (Seat seat : seats) {
-            seatRepository.delete(seat.getID());
-        }
+        seatRepository.deleteAll(seatIds);
     }
 
     /**
@@ -184,13 +207,11 @@ public class VenueService {
     }
 
     public void deleteRowsBySection(int sectionID) {
-        List<Row> rows = rowRepository.getAll().stream().
-                filter(row -> row.getSection().getID() == sectionID)
-                .toList();
+        List<Row> rows = rowRepository.findBy(Attributes.ROW_SECTION, sectionID);
         for (Row row : rows) {
             deleteSeatsByRow(row.getID());
-            rowRepository.delete(row.getID());
         }
+        rowRepository.deleteAll(rows.stream().map(Row::getID).toList());
     }
 
     public void deleteRow(int rowID) {
@@ -222,15 +243,53 @@ public class VenueService {
         if (row == null) {
             throw new EntityNotFoundException("Row not found");
         }
+        List<Seat> seats = new ArrayList<>(numberOfSeats);
         for (int i = 1; i <= numberOfSeats; i++) {
             Seat seat = new Seat(0, i, false, row); // Create the Seat object
             row.addSeat(seat); // Add the Seat to the Row's seats list
-            seatRepository.create(seat); // Persist the Seat in the repository
+            seats.add(seat);
         }
+        seatRepository.createAll(seats); // Persist all Seats in one batch
 
         rowRepository.update(row); // Persist the updated Row with its seats
     }
 
+    /**
+     * Adds rows to a section and fills each of them with seats. All rows are stored in one batch and all
+     * seats in another, so filling a large venue takes two bulk inserts rather than one per row.
+     *
+     * @param section       the section to add the rows to
+     * @param numberOfRows  the number of rows to add
+     * @param seatsPerRow   the capacity of each row, and the number of seats added to it
+     * @return the created rows
+     * @throws BusinessLogicException if the section is null
+     */
+    public List<Row> addRowsWithSeats(Section section, int numberOfRows, int seatsPerRow) {
+        if (section == null) {
+            throw new BusinessLogicException("Section cannot be null.");
+        }
+        List<Row> rows = new ArrayList<>(numberOfRows);
+        for (int i = 0; i < numberOfRows; i++) {
+            Row row = new Row(0, seatsPerRow, section);
+            section.addRow(row);
+            rows.add(row);
+        }
+        rowRepository.createAll(rows);
+
+        List<Seat> seats = new ArrayList<>(numberOfRows * seatsPerRow);
+        for (Row row : rows) {
+            for (int i = 1; i <= seatsPerRow; i++) {
+                Seat seat = new Seat(0, i, false, row);
+                row.addSeat(seat);
+                seats.add(seat);
+            }
+        }
+        seatRepository.createAll(seats);
+        rowRepository.updateAll(rows);
+        sectionRepository.update(section);
+        return rows;
+    }
+
     /**
      * Finds rows within a specified section.
      *
@@ -238,8 +297,7 @@ public class VenueService {
      * @return a list of rows in the specified section, or an empty list if the section is not found
      */
     public List<Row> findRowsBySection(int sectionId) {
-        Section section = findSectionByID(sectionId);
-        return section != null ? section.getRows() : new ArrayList<>();
+        return new ArrayList<>(rowRepository.find(new Query<Row>().equalTo(Attributes.ROW_SECTION, sectionId)));
     }
 
     /**
@@ -349,13 +407,11 @@ public class VenueService {
     }
 
     public void deleteSectionByVenue(int venueID) {
-        List<Section> sections = sectionRepository.getAll().stream().
-                filter(section -> section.getVenue().getID() == venueID)
-                .toList();
+        List<Section> sections = sectionRepository.findBy(Attributes.SECTION_VENUE, venueID);
         for (Section section : sections) {
             deleteRowsBySection(section.getID());
-            sectionRepository.delete(section.getID());
         }
+        sectionRepository.deleteAll(sections.stream().map(Section::getID).toList());
     }
 
     /**
@@ -489,10 +545,12 @@ public class VenueService {
      * @return the Venue object if found, null otherwise.
      */
     public Venue findVenueByName(String name) {
-        return venueRepository.getAll().stream()
-                .filter(venue -> venue.getVenueName().equalsIgnoreCase(name))
-                .findFirst()
-                .orElse(null);
+        try (Stream<Venue> venues = venueRepository.stream()) {
+            return venues
+                    .filter(venue -> venue.getVenueName().equalsIgnoreCase(name))
+                    .findFirst()
+                    .orElse(null);
+        }
     }
 
     /**
@@ -557,9 +615,7 @@ public class VenueService {
      * Retrieves all Sections associated with a specific Venue.
      */
     public List<Section> getSectionsByVenueID(int venueId) {
-        return sectionRepository.getAll().stream()
-                .filter(section -> section.getVenue().getID() == venueId)
-                .collect(Collectors.toList());
+        return new ArrayList<>(sectionRepository.findBy(Attributes.SECTION_VENUE, venueId));
     }
 
     public void loadSectionsForVenue(Venue venue) {
@@ -2,16 +2,47 @@ package test;
 
 import controller.*;
 import exception.BusinessLogicException;
+import exception.ConcurrencyException;
+import exception.DatabaseException;
 import model.*;
 import org.junit.jupiter.api.*;
+import repository.Attribute;
+import repository.Attributes;
+import repository.CachingRepository;
+import repository.ConnectionPool;
+import repository.DBRepository;
+import repository.FileRepository;
+import repository.GlobalIdGenerator;
+import repository.IRepository;
+import repository.InMemoryRepository;
+import repository.Page;
+import repository.PageRequest;
+import repository.Query;
+import repository.SchemaManager;
 import repository.factory.*;
 import service.*;
 
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.metamodel.Metamodel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -54,7 +85,7 @@ public class ApplicationTest {
         eventService = new EventService(repositoryFactory, repositoryFactory, repositoryFactory, venueService,
                 artistService, athleteService);
         ticketService = new TicketService(repositoryFactory, venueService);
-        cartService = new CartService(repositoryFactory);
+        cartService = new CartService(repositoryFactory, ticketService);
         customerService = new CustomerService();
         userService = new UserService(repositoryFactory, customerService);
 
@@ -191,6 +222,9 @@ public class ApplicationTest {
         venueService.addSeatsToRow(rows.get(0).getID(), 10);
         List<Seat> seats = venueService.getSeatsByRow(rows.get(0).getID());
         assertEquals(10, seats.size(), "Ten seats should be added to the first row.");
+        List<Row> filledRows = venueService.addRowsWithSeats(sections.get(1), 3, 20);
+        assertEquals(3, venueService.findRowsBySection(sections.get(1).getID()).size(), "Three filled rows should be added to the second section.");
+        assertEquals(20, venueService.getSeatsByRow(filledRows.get(2).getID()).size(), "Each filled row should hold twenty seats.");
 
         // 6. DELETE ROW, SECTION, AND VENUE
         venueService.deleteRow(rows.get(0).getID());
@@ -395,6 +429,7 @@ public class ApplicationTest {
         Ticket ticketToAdd = ticketsWithSeats.get(0);
         boolean isAdded = cartService.addTicketToCart(cart, ticketToAdd);
         assertTrue(isAdded, "Ticket should be added to the cart.");
+        assertFalse(cartService.addTicketToCart(cart, ticketToAdd), "A sold ticket should not be added again.");
 
         List<Ticket> cartTickets = cartService.getTicketsInCart(cart);
         assertEquals(1, cartTickets.size(), "Cart should contain one ticket.");
@@ -661,5 +696,728 @@ public class ApplicationTest {
         assertNull(recommendedSeat, "When the row does not exist, no seat should be recommended.");
     }
 
+    /**
+     * Tests that secondary indexes follow creates, updates and deletes.
+     */
+    @Order(11)
+    @DisplayName("In-Memory Repository: Secondary Index Lookups")
+    @Test
+    public void secondaryIndexLookups() {
+        InMemoryRepository<Seat> seatRepository = new InMemoryRepository<>(List.of(Attributes.SEAT_ROW));
+        Row firstRow = new Row(1, 10, null);
+        Row secondRow = new Row(2, 10, null);
+        for (int i = 1; i <= 3; i++) {
+            seatRepository.create(new Seat(0, i, false, firstRow));
+        }
+        seatRepository.create(new Seat(0, 1, false, secondRow));
+
+        List<Seat> firstRowSeats = seatRepository.findBy(Attributes.SEAT_ROW, firstRow.getID());
+        assertEquals(3, firstRowSeats.size(), "Three seats should be indexed under the first row.");
+        assertEquals(1, seatRepository.findBy(Attributes.SEAT_ROW, secondRow.getID()).size(), "One seat should be indexed under the second row.");
+
+        // Moving a seat is picked up on update, even though the object was changed before
+        Seat movedSeat = firstRowSeats.get(0);
+        movedSeat.setRow(secondRow);
+        seatRepository.update(movedSeat);
+        assertEquals(2, seatRepository.findBy(Attributes.SEAT_ROW, firstRow.getID()).size(), "The moved seat should leave the first row.");
+        assertEquals(2, seatRepository.findBy(Attributes.SEAT_ROW, secondRow.getID()).size(), "The moved seat should join the second row.");
+
+        seatRepository.delete(movedSeat.getID());
+        assertEquals(1, seatRepository.findBy(Attributes.SEAT_ROW, secondRow.getID()).size(), "Deleted seats should be removed from the index.");
+        assertTrue(seatRepository.findBy(Attributes.SEAT_ROW, 99).isEmpty(), "Unknown keys should match nothing.");
+    }
+
+    /**
+     * Tests equality, range and in-list conditions, the limit, and that null in an in-list is rejected.
+     */
+    @Order(12)
+    @DisplayName("In-Memory Repository: Query Conditions and Limit")
+    @Test
+    public void queryConditionsAndLimit() {
+        InMemoryRepository<Seat> seatRepository = new InMemoryRepository<>(List.of(Attributes.SEAT_ROW));
+        Attribute<Seat> seatNumber = new Attribute<>("number", Seat::getNumber);
+        Row firstRow = new Row(1, 10, null);
+        Row secondRow = new Row(2, 10, null);
+        for (int i = 1; i <= 5; i++) {
+            seatRepository.create(new Seat(0, i, false, firstRow));
+            seatRepository.create(new Seat(0, i, false, secondRow));
+        }
+
+        List<Seat> middleSeats = seatRepository.find(new Query<Seat>()
+                .equalTo(Attributes.SEAT_ROW, firstRow.getID())
+                .between(seatNumber, 2, 4));
+        assertEquals(List.of(2, 3, 4), middleSeats.stream().map(Seat::getNumber).toList(), "Range conditions should be inclusive and results ordered by ID.");
+
+        List<Seat> bothRows = seatRepository.find(new Query<Seat>()
+                .in(Attributes.SEAT_ROW, List.of(firstRow.getID(), secondRow.getID()))
+                .equalTo(seatNumber, 5));
+        assertEquals(2, bothRows.size(), "In-list conditions should match every listed row.");
+
+        assertEquals(3, seatRepository.find(new Query<Seat>().between(seatNumber, 3, null).limit(3)).size(), "The limit should cap the results.");
+        assertTrue(seatRepository.find(new Query<Seat>().in(Attributes.SEAT_ROW, List.of())).isEmpty(), "An empty in-list should match nothing.");
+        assertThrows(IllegalArgumentException.class,
+                () -> new Query<Seat>().in(Attributes.SEAT_ROW, Arrays.asList(firstRow.getID(), null)),
+                "Null in an in-list should be rejected.");
+    }
+
+    /**
+     * Tests paging by ID while objects are added, and paging by an attribute in descending order.
+     */
+    @Order(13)
+    @DisplayName("In-Memory Repository: Keyset Pagination")
+    @Test
+    public void keysetPagination() {
+        InMemoryRepository<Seat> seatRepository = new InMemoryRepository<>(List.of(Attributes.SEAT_ROW));
+        Attribute<Seat> seatNumber = new Attribute<>("number", Seat::getNumber);
+        Row row = new Row(1, 10, null);
+        for (int i = 1; i <= 7; i++) {
+            seatRepository.create(new Seat(0, i % 3, false, row));
+        }
+
+        List<Integer> pagedIDs = new ArrayList<>();
+        Page<Seat> page = seatRepository.findPage(new Query<>(), PageRequest.first(3));
+        pagedIDs.addAll(page.getItems().stream().map(Seat::getID).toList());
+        // Objects added before the cursor do not shift later pages
+        seatRepository.create(new Seat(0, 0, false, row));
+        while (page.hasNext()) {
+            page = seatRepository.findPage(new Query<>(), page.getNextRequest());
+            pagedIDs.addAll(page.getItems().stream().map(Seat::getID).toList());
+        }
+        assertEquals(seatRepository.getAll().stream().map(Seat::getID).toList(), pagedIDs, "Paging by ID should visit every seat once, in order.");
+
+        List<Seat> sorted = new ArrayList<>();
+        PageRequest<Seat> request = PageRequest.first(2, seatNumber, true);
+        while (request != null) {
+            Page<Seat> numberPage = seatRepository.findPage(new Query<Seat>().equalTo(Attributes.SEAT_ROW, row.getID()), request);
+            assertTrue(numberPage.getItems().size() <= 2, "Pages should not exceed their size.");
+            sorted.addAll(numberPage.getItems());
+            request = numberPage.getNextRequest();
+        }
+        List<Seat> expected = new ArrayList<>(seatRepository.getAll());
+        expected.sort(Comparator.comparing(Seat::getNumber).reversed().thenComparing(Comparator.comparing(Seat::getID).reversed()));
+        assertEquals(expected, sorted, "Paging by an attribute should follow its order, with ties broken by ID.");
+    }
+
+    /**
+     * Tests the schema plan: declared indexes, an index per join column not already leading one,
+     * and one ID sequence shared by subtypes created before their tables, to which existing tables are moved.
+     */
+    @Order(14)
+    @DisplayName("Schema Manager: Indexes and Shared Sequences")
+    @Test
+    public void schemaIndexesJoinColumns() {
+        List<String> plan = new SchemaManager(null).plan(List.of(Ticket.class, Seat.class, Admin.class, Customer.class));
+
+        assertTrue(plan.contains("CREATE INDEX IF NOT EXISTS idx_ticket_availability ON ticket (event_id, ticket_type, is_sold)"),
+                "Declared composite indexes should be created.");
+        assertTrue(plan.contains("CREATE INDEX IF NOT EXISTS idx_ticket_customer_id ON ticket (customer_id)"),
+                "Join columns should be indexed.");
+        assertTrue(plan.contains("CREATE INDEX IF NOT EXISTS idx_seat_row_id ON seat (row_id)"),
+                "Join columns should be indexed.");
+        assertFalse(plan.contains("CREATE INDEX IF NOT EXISTS idx_ticket_event_id ON ticket (event_id)"),
+                "A join column leading a declared index should not get a second index.");
+        assertEquals(1, plan.stream().filter(sql -> sql.startsWith("CREATE SEQUENCE")).count(),
+                "Admins and customers should share one ID sequence.");
+        assertTrue(plan.indexOf("CREATE SEQUENCE IF NOT EXISTS user_id_seq") < plan.indexOf(plan.stream()
+                .filter(sql -> sql.startsWith("CREATE TABLE IF NOT EXISTS admin")).findFirst().orElseThrow()),
+                "Sequences should be created before the tables using them.");
+        assertTrue(plan.contains("ALTER TABLE customer ADD COLUMN IF NOT EXISTS username VARCHAR(255), "
+                        + "ADD COLUMN IF NOT EXISTS email VARCHAR(255), ADD COLUMN IF NOT EXISTS password VARCHAR(255), "
+                        + "ALTER COLUMN user_id DROP IDENTITY IF EXISTS, ALTER COLUMN user_id SET DEFAULT nextval('user_id_seq')"),
+                "Existing tables should be switched to the shared sequence.");
+        assertEquals(List.of("SELECT setval('user_id_seq', GREATEST((SELECT last_value FROM user_id_seq), "
+                        + "(SELECT COALESCE(MAX(user_id), 0) FROM admin), (SELECT COALESCE(MAX(user_id), 0) FROM customer)))"),
+                plan.stream().filter(sql -> sql.startsWith("SELECT setval")).toList(),
+                "The shared sequence should be moved past the IDs of every table using it.");
+        assertTrue(plan.indexOf(plan.stream().filter(sql -> sql.startsWith("ALTER TABLE customer")).findFirst().orElseThrow())
+                        < plan.indexOf(plan.stream().filter(sql -> sql.startsWith("SELECT setval")).findFirst().orElseThrow()),
+                "The sequence should be moved once every table draws from it.");
+    }
+
+    /**
+     * Tests that repeated reads are answered from the cache, that objects read often survive a scan of
+     * objects read once, and that updates and deletes invalidate cached objects.
+     */
+    @Order(15)
+    @DisplayName("Caching Repository: Read-Through and Invalidation")
+    @Test
+    public void cachingRepositoryReadThrough() {
+        InMemoryRepository<Artist> storage = new InMemoryRepository<>();
+        for (int i = 1; i <= 4; i++) {
+            storage.create(new Artist(i, "Artist " + i, "Pop"));
+        }
+        CachingRepository<Artist> cache = new CachingRepository<>(storage, 3);
+
+        cache.read(1);
+        cache.read(1);
+        cache.read(1);
+        assertEquals(2, cache.getMetrics().hits(), "Repeated reads should be answered from the cache.");
+        assertEquals(1, cache.getMetrics().misses(), "Only the first read should reach the repository.");
+
+        cache.read(2);
+        cache.read(3);
+        cache.read(4);
+        assertEquals(1, cache.getMetrics().evictions(), "The cache should not grow past its size.");
+        cache.read(1);
+        assertEquals(3, cache.getMetrics().hits(), "An object read often should survive objects read once.");
+
+        Artist renamed = new Artist(1, "Renamed", "Rock");
+        cache.update(renamed);
+        assertEquals("Renamed", cache.read(1).getArtistName(), "Updates should invalidate the cached object.");
+        cache.delete(1);
+        assertNull(cache.read(1), "Deleted objects should not be served from the cache.");
+    }
+
+    /**
+     * Tests that inserted and copied rows fill the join columns the generated schema declares NOT NULL,
+     * against a fake database that enforces the constraints of the tables created through it.
+     */
+    @Order(16)
+    @DisplayName("Database Repository: Inserts and Copies Fill Join Columns")
+    @Test
+    public void copyAndInsertFillJoinColumns() {
+        FakeDatabase database = FakeDatabase.create();
+        try (ConnectionPool pool = new ConnectionPool(database.getUrl(), "", "", 0, 2,
+                Duration.ofMinutes(1), Duration.ofSeconds(1))) {
+            DBRepositoryFactory repositoryFactory = new DBRepositoryFactory(pool);
+            repositoryFactory.migrateSchema();
+
+            Venue venue = new Venue(1, "Arena", "Cluj", 100, true);
+            Section section = new Section(2, "A", 100, venue);
+            Row row = new Row(3, 10, section);
+            repositoryFactory.createSectionRepository().create(section);
+            repositoryFactory.createRowRepository().create(row);
+            repositoryFactory.createSeatRepository().create(new Seat(0, 1, false, row));
+            assertTrue(database.getStatements("INSERT INTO seat").get(0).contains("row_id"),
+                    "Inserts should write the join column of a reference.");
+            repositoryFactory.createUserRepository().create(new Customer(0, "ana", "ana@example.com", "secret"));
+            assertTrue(database.getStatements("INSERT INTO customer").get(0).contains("username"),
+                    "Inserts should write the columns declared by the superclass.");
+
+            Concert concert = new Concert(4, "Concert", "Live", LocalDateTime.now().plusDays(1),
+                    LocalDateTime.now().plusDays(2), 1, EventStatus.SCHEDULED);
+            List<Ticket> tickets = new ArrayList<>();
+            for (int i = 0; i < DBRepository.COPY_THRESHOLD; i++) {
+                tickets.add(new Ticket(0, concert, null, null, 50, TicketType.STANDARD));
+            }
+            repositoryFactory.createTicketRepository().createAll(tickets);
+
+            assertTrue(database.getStatements("COPY ticket").get(0).contains("event_id"),
+                    "Copies should write the join column of a reference.");
+            assertEquals(DBRepository.COPY_THRESHOLD, database.getCopiedRows().size(),
+                    "Every ticket should be copied.");
+            assertTrue(database.getCopiedRows().get(0).contains("\t4\t"), "The event's ID should be copied.");
+            assertTrue(tickets.stream().allMatch(ticket -> ticket.getID() > 0),
+                    "Copied tickets should get their reserved IDs.");
+        }
+    }
+
+    /**
+     * Tests that conditional updates let exactly one of several racing callers claim a ticket in memory and
+     * in a file, and that in the database they keep the ticket's references, including the new cart.
+     */
+    @Order(17)
+    @DisplayName("Repositories: Conditional Updates")
+    @Test
+    public void conditionalUpdates() throws Exception {
+        Concert concert = new Concert(4, "Concert", "Live", LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), 1, EventStatus.SCHEDULED);
+        Path file = Files.createTempFile("tickets", ".csv");
+        try {
+            List<IRepository<Ticket>> repositories = List.of(new InMemoryRepository<>(),
+                    new FileRepository<>(file.toString(), Ticket::fromCsv));
+            for (IRepository<Ticket> repository : repositories) {
+                repository.create(new Ticket(7, concert, null, null, 50, TicketType.STANDARD));
+                List<Callable<Boolean>> claims = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    claims.add(() -> repository.compareAndSet(7, new Query<Ticket>().equalTo(Attributes.TICKET_SOLD, false),
+                            ticket -> ticket.setSold(true)));
+                }
+                ExecutorService executor = Executors.newFixedThreadPool(claims.size());
+                try {
+                    int successes = 0;
+                    for (Future<Boolean> claim : executor.invokeAll(claims)) {
+                        successes += claim.get() ? 1 : 0;
+                    }
+                    assertEquals(1, successes, "Exactly one racing claim should succeed.");
+                } finally {
+                    executor.shutdown();
+                }
+                assertTrue(repository.read(7).isSold(), "The successful claim should be stored.");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
 
-}
\ No newline at end of file
+        FakeDatabase database = FakeDatabase.create();
+        database.onQuery("SELECT * FROM ticket", List.of("ticket_id", "event_id", "seat_id", "customer_id", "cart_id",
+                        "price", "ticket_type", "is_sold", "purchase_date", "version"),
+                parameters -> List.<Object[]>of(new Object[]{7, 4, null, null, null, 50.0, "STANDARD", false, null, 0}));
+        try (ConnectionPool pool = new ConnectionPool(database.getUrl(), "", "", 0, 2,
+                Duration.ofMinutes(1), Duration.ofSeconds(1))) {
+            new SchemaManager(pool).migrate(List.of(Ticket.class));
+            DBRepository<Ticket> tickets = new DBRepository<>(Ticket.class, pool);
+            Cart cart = new Cart();
+            cart.setID(9);
+
+            assertTrue(tickets.compareAndSet(7, new Query<Ticket>().equalTo(Attributes.TICKET_SOLD, false),
+                    ticket -> ticket.setCart(cart)), "The claim should be written.");
+            String update = database.getStatements("UPDATE ticket").get(0);
+            assertTrue(update.contains("cart_id = ?"), "The update should write the new cart.");
+            assertTrue(update.contains("event_id = ?"), "The update should keep the event read with the ticket.");
+        }
+    }
+
+    /**
+     * Tests that an explicit ID only makes threads drop their blocks of IDs when it may fall inside one.
+     */
+    @Order(18)
+    @DisplayName("ID Generator: Explicit IDs and Reserved Blocks")
+    @Test
+    public void explicitIdsKeepReservedBlocks() {
+        GlobalIdGenerator.initialize(1000);
+        assertEquals(1001, GlobalIdGenerator.getNextId(), "IDs should continue after the initial maximum.");
+
+        GlobalIdGenerator.advanceTo(500);
+        assertEquals(1002, GlobalIdGenerator.getNextId(), "An ID below every block should not drop the thread's block.");
+
+        GlobalIdGenerator.advanceTo(1050);
+        int next = GlobalIdGenerator.getNextId();
+        assertTrue(next > 1050, "An ID inside a block should make the thread reserve a new one above it.");
+        GlobalIdGenerator.advanceTo(next + 1_000);
+        assertTrue(GlobalIdGenerator.getNextId() > next + 1_000, "An ID above the mark should raise it.");
+    }
+
+    /**
+     * Tests that tickets and carts written without some of their references can be read back.
+     */
+    @Order(19)
+    @DisplayName("CSV: Missing References Round Trip")
+    @Test
+    public void missingReferencesRoundTrip() {
+        Ticket ticket = Ticket.fromCsv(new Ticket(3, null, null, null, 25, TicketType.VIP).toCsv());
+        assertEquals(3, ticket.getID(), "The ticket should be read back.");
+        assertNull(ticket.getEvent(), "A ticket written without an event should be read without one.");
+
+        Cart cart = new Cart();
+        cart.setCartID(5);
+        cart.setTotalPrice(40);
+        Cart readBack = Cart.fromCsv(cart.toCsv());
+        assertEquals(5, readBack.getID(), "The cart should be read back.");
+        assertNull(readBack.getCustomer(), "A cart written without a customer should be read without one.");
+        assertNull(readBack.getEvent(), "A cart written without an event should be read without one.");
+        assertEquals(40, readBack.getTotalPrice(), "The cart's other fields should be read back.");
+    }
+
+    /**
+     * Tests that carts and line-ups read from CSV keep the IDs of their references without looking them up,
+     * so they are written back unchanged even when the referenced objects have not been loaded.
+     */
+    @Order(20)
+    @DisplayName("CSV: References Resolved on First Access")
+    @Test
+    public void referencesResolvedLazily() {
+        assertEquals("8,901,902,true,60.0", Cart.fromCsv("8,901,902,true,60.0").toCsv(),
+                "A cart should keep the IDs of its customer and event.");
+        assertEquals("1,903,904", ConcertLineUp.fromCsv("1,903,904").toCsv(),
+                "A concert line-up should keep the IDs of its concert and artist.");
+        assertEquals("2,905,906", SportsEventLineUp.fromCsv("2,905,906").toCsv(),
+                "A sports event line-up should keep the IDs of its event and athlete.");
+    }
+
+    /**
+     * Tests creating, reading, updating and deleting artists in a CSV file in both storage modes, with
+     * and without the in-memory cache, that all of them are listed in ID order whatever order they were
+     * created in, and that a repository reopened on the file sees the same objects.
+     */
+    @Order(21)
+    @DisplayName("File Repository: CRUD Round Trips")
+    @Test
+    public void fileRepositoryRoundTrips() throws Exception {
+        for (FileRepository.StorageMode mode : FileRepository.StorageMode.values()) {
+            for (boolean cached : List.of(false, true)) {
+                Path file = Files.createTempFile("artists", ".csv");
+                try {
+                    FileRepository<Artist> artists = new FileRepository<>(file.toString(), Artist::fromCsv, mode, cached);
+                    artists.create(new Artist(2, "Björk", "Electronic"));
+                    artists.createAll(List.of(new Artist(1, "Adele", "Pop"), new Artist(3, "Coldplay", "Rock")));
+                    assertEquals("Björk", artists.read(2).getArtistName(), "Created objects should be readable.");
+                    assertThrows(IllegalArgumentException.class, () -> artists.create(new Artist(1, "Other", "Pop")),
+                            "Creating an object over a stored one should be rejected.");
+
+                    artists.update(new Artist(1, "Adele Adkins", "Soul"));
+                    artists.delete(3);
+                    assertEquals("Adele Adkins", artists.read(1).getArtistName(), "Updates should be readable.");
+                    assertNull(artists.read(3), "Deleted objects should not be readable.");
+                    assertEquals(List.of("Adele Adkins", "Björk"),
+                            artists.getAll().stream().map(Artist::getArtistName).toList(),
+                            "All objects should be returned in ID order (" + mode + (cached ? ", cached" : "") + ").");
+
+                    FileRepository<Artist> reopened = new FileRepository<>(file.toString(), Artist::fromCsv, mode, cached);
+                    assertEquals(List.of("Adele Adkins", "Björk"),
+                            reopened.getAll().stream().map(Artist::getArtistName).toList(),
+                            "A reopened repository should see the live objects in ID order (" + mode + ").");
+                } finally {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that a log-structured file reopened after updates and deletes, and again after compaction,
+     * yields the same live objects, and that compaction leaves only their lines in the file.
+     */
+    @Order(22)
+    @DisplayName("File Repository: Reopening After Tombstones and Compaction")
+    @Test
+    public void fileRepositoryReopensAfterCompaction() throws Exception {
+        Path file = Files.createTempFile("artists", ".csv");
+        try {
+            FileRepository<Artist> artists = new FileRepository<>(file.toString(), Artist::fromCsv,
+                    FileRepository.StorageMode.LOG_STRUCTURED);
+            for (int i = 1; i <= 10; i++) {
+                artists.create(new Artist(i, "Artist " + i, "Pop"));
+            }
+            artists.update(new Artist(2, "Renamed", "Rock"));
+            artists.deleteAll(List.of(4, 5));
+            artists.delete(2);
+            artists.create(new Artist(4, "Recreated", "Jazz"));
+            List<String> expected = List.of("Artist 1", "Artist 3", "Recreated", "Artist 6", "Artist 7", "Artist 8",
+                    "Artist 9", "Artist 10");
+
+            FileRepository<Artist> afterTombstones = new FileRepository<>(file.toString(), Artist::fromCsv,
+                    FileRepository.StorageMode.LOG_STRUCTURED);
+            assertEquals(expected, afterTombstones.getAll().stream().map(Artist::getArtistName).toList(),
+                    "Tombstones should hide deleted objects after reopening.");
+            assertNull(afterTombstones.read(2), "An object deleted after an update should stay deleted.");
+
+            afterTombstones.compact();
+            assertEquals(expected.size(), Files.readAllLines(file).size(),
+                    "Compaction should keep only the live lines.");
+            FileRepository<Artist> afterCompaction = new FileRepository<>(file.toString(), Artist::fromCsv,
+                    FileRepository.StorageMode.LOG_STRUCTURED);
+            assertEquals(expected, afterCompaction.getAll().stream().map(Artist::getArtistName).toList(),
+                    "A compacted file should yield the same objects after reopening.");
+            assertEquals("Recreated", afterCompaction.read(4).getArtistName(), "Lookups should use the new offsets.");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests reading a file large enough to be parsed in several chunks and streamed in several windows, with
+     * multi-byte names and superseded versions, so that records lie on both sides of every split.
+     */
+    @Order(23)
+    @DisplayName("File Repository: Records Across Parse Chunks and Stream Windows")
+    @Test
+    public void fileRepositoryReadsAcrossSplits() throws Exception {
+        Path file = Files.createTempFile("artists", ".csv");
+        try {
+            FileRepository<Artist> artists = new FileRepository<>(file.toString(), Artist::fromCsv,
+                    FileRepository.StorageMode.LOG_STRUCTURED);
+            List<Artist> created = new ArrayList<>();
+            for (int i = 1; i <= 2_500; i++) {
+                created.add(new Artist(i, "Künstler Nr. " + i + " – " + "é".repeat(i % 40), "Pop"));
+            }
+            artists.createAll(created);
+            for (int i = 1; i <= 2_500; i += 7) {
+                artists.update(new Artist(i, "Überarbeitet " + i, "Rock"));
+            }
+            List<String> expected = new ArrayList<>();
+            for (int i = 1; i <= 2_500; i++) {
+                expected.add(i % 7 == 1 ? "Überarbeitet " + i : created.get(i - 1).getArtistName());
+            }
+            assertTrue(Files.size(file) > 2 * 64 * 1024, "The file should span several stream windows.");
+
+            FileRepository<Artist> reopened = new FileRepository<>(file.toString(), Artist::fromCsv,
+                    FileRepository.StorageMode.LOG_STRUCTURED);
+            assertEquals(expected, reopened.getAll().stream().map(Artist::getArtistName).toList(),
+                    "Parsing in chunks should return every record once, in ID order.");
+            try (Stream<Artist> stream = reopened.stream()) {
+                assertEquals(expected, stream.map(Artist::getArtistName).toList(),
+                        "Streaming in windows should return every record once, in ID order.");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests that a combined repository finds objects through its routing map, falls back to probing the
+     * sub-repositories for IDs it does not know or whose route is stale, drops routes on delete, and reads
+     * by subtype objects whose ID another subtype shares.
+     */
+    @Order(24)
+    @DisplayName("Combined Repository: Routing by ID")
+    @Test
+    public void combinedRepositoryRouting() {
+        InMemoryRepository<Concert> concerts = new InMemoryRepository<>();
+        AtomicInteger sportsEventReads = new AtomicInteger();
+        InMemoryRepository<SportsEvent> sportsEvents = new InMemoryRepository<>() {
+            @Override
+            public SportsEvent read(Integer id) {
+                sportsEventReads.incrementAndGet();
+                return super.read(id);
+            }
+        };
+        CombinedRepository<Event> events = new CombinedRepository<>();
+        events.registerRepository(Concert.class, concerts);
+        events.registerRepository(SportsEvent.class, sportsEvents);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        events.create(new Concert(1, "Concert", "Routed", start, start.plusHours(2), 1, EventStatus.SCHEDULED));
+        events.create(new SportsEvent(2, "Match", "Routed", start, start.plusHours(2), 1, EventStatus.SCHEDULED));
+        assertInstanceOf(Concert.class, events.read(1), "Created objects should be routed to their repository.");
+        assertInstanceOf(SportsEvent.class, events.read(2), "Created objects should be routed to their repository.");
+
+        sportsEvents.create(new SportsEvent(3, "Match", "Unrouted", start, start.plusHours(2), 1, EventStatus.SCHEDULED));
+        assertInstanceOf(SportsEvent.class, events.read(3), "Unknown IDs should be found by probing.");
+
+        // Replace the concert behind the combined repository's back, so its route goes stale
+        concerts.delete(1);
+        sportsEvents.create(new SportsEvent(1, "Match", "Moved", start, start.plusHours(2), 1, EventStatus.SCHEDULED));
+        events.delete(1);
+        assertNull(sportsEvents.read(1), "Deleting through a stale route should delete where the object is stored.");
+        assertNull(events.read(1), "Deleted objects should not be found.");
+
+        int readsBeforeDelete = sportsEventReads.get();
+        events.delete(2);
+        assertEquals(readsBeforeDelete, sportsEventReads.get(), "Deleting through a route should not read the object first.");
+        concerts.create(new Concert(2, "Concert", "Recreated", start, start.plusHours(2), 1, EventStatus.SCHEDULED));
+        assertInstanceOf(Concert.class, events.read(2), "Deleting should drop the route of the deleted object.");
+        sportsEvents.create(new SportsEvent(2, "Match", "Same ID", start, start.plusHours(2), 1, EventStatus.SCHEDULED));
+        assertEquals("Same ID", events.readAs(SportsEvent.class, 2).getEventDescription(),
+                "Reading by subtype should find the object even if another subtype has the same ID.");
+        assertEquals("Recreated", events.readAs(Concert.class, 2).getEventDescription(),
+                "Reading by subtype should find the object even if another subtype has the same ID.");
+        assertThrows(IllegalArgumentException.class, () -> events.delete(99), "Deleting an unknown ID should fail.");
+    }
+
+    /**
+     * Tests that a combined repository loading its sub-repositories concurrently returns their objects in
+     * registration order, both copied and as a concatenated view with empty parts, and passes on the
+     * exception a failing sub-repository throws.
+     */
+    @Order(25)
+    @DisplayName("Combined Repository: Concurrent Loading and Concatenated View")
+    @Test
+    public void combinedRepositoryGetAll() {
+        InMemoryRepository<Artist> artists = new InMemoryRepository<>();
+        artists.createAll(List.of(new Artist(1, "Adele", "Pop"), new Artist(2, "Björk", "Electronic")));
+        InMemoryRepository<Seat> seats = new InMemoryRepository<>();
+        seats.create(new Seat(3, 1, false, null));
+
+        for (boolean concatenatedView : List.of(false, true)) {
+            CombinedRepository<Identifiable> all = new CombinedRepository<>(concatenatedView);
+            all.registerRepository(Venue.class, new InMemoryRepository<>());
+            all.registerRepository(Artist.class, artists);
+            all.registerRepository(Athlete.class, new InMemoryRepository<>());
+            all.registerRepository(Seat.class, seats);
+            all.registerRepository(Section.class, new InMemoryRepository<>());
+
+            List<Identifiable> objects = all.getAll();
+            assertEquals(3, objects.size(), "Empty sub-repositories should add nothing.");
+            assertEquals(List.of(1, 2, 3), objects.stream().map(Identifiable::getID).toList(),
+                    "Objects should be returned in registration order.");
+            assertEquals(3, objects.get(2).getID(), "Indexing should skip empty parts.");
+            assertThrows(IndexOutOfBoundsException.class, () -> objects.get(3), "Indexing past the end should fail.");
+            assertThrows(IndexOutOfBoundsException.class, () -> objects.get(-1), "Negative indexes should fail.");
+        }
+
+        CombinedRepository<Identifiable> failing = new CombinedRepository<>(true);
+        failing.registerRepository(Artist.class, artists);
+        failing.registerRepository(Athlete.class, new InMemoryRepository<>() {
+            @Override
+            public List<Athlete> getAll() {
+                throw new IllegalStateException("Storage unavailable");
+            }
+        });
+        IllegalStateException exception = assertThrows(IllegalStateException.class, failing::getAll,
+                "A failing sub-repository's exception should be passed on.");
+        assertEquals("Storage unavailable", exception.getMessage());
+    }
+
+    /**
+     * Tests that the connection pool never opens more than its maximum, fails acquisitions that wait past
+     * the timeout, reuses returned connections with auto-commit restored, and closes idle connections above
+     * its minimum.
+     */
+    @Order(26)
+    @DisplayName("Connection Pool: Bounds, Reuse and Eviction")
+    @Test
+    public void connectionPool() throws Exception {
+        FakeDatabase database = FakeDatabase.create();
+        try (ConnectionPool pool = new ConnectionPool(database.getUrl(), "", "", 0, 2,
+                Duration.ofMillis(100), Duration.ofMillis(100))) {
+            Connection first = pool.getConnection();
+            Connection second = pool.getConnection();
+            assertThrows(DatabaseException.class, pool::getConnection,
+                    "Acquiring past the maximum should time out.");
+            assertEquals(2, database.getOpenConnections(), "The pool should not open more than its maximum.");
+            assertEquals(1, pool.getMetrics().timeouts(), "The timeout should be counted.");
+
+            first.setAutoCommit(false);
+            first.close();
+            assertThrows(SQLException.class, first::getAutoCommit, "A returned connection should not be usable.");
+            try (Connection reused = pool.getConnection()) {
+                assertTrue(reused.getAutoCommit(), "A returned connection should be reset to auto-commit.");
+                assertEquals(2, database.getOpenedConnections(), "A returned connection should be reused.");
+            }
+            second.close();
+            assertEquals(0, pool.getMetrics().active(), "Every connection should be back in the pool.");
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (database.getOpenConnections() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(0, database.getOpenConnections(), "Idle connections above the minimum should be closed.");
+        }
+    }
+
+    /**
+     * Tests the statements generated from the entity mappings for inserts and for plain and versioned updates.
+     */
+    @Order(27)
+    @DisplayName("Database Repository: Generated Statements")
+    @Test
+    public void generatedStatements() {
+        FakeDatabase database = FakeDatabase.create();
+        try (ConnectionPool pool = new ConnectionPool(database.getUrl(), "", "", 0, 2,
+                Duration.ofMinutes(1), Duration.ofSeconds(1))) {
+            database.setUpdateCount(1);
+            DBRepository<Artist> artists = new DBRepository<>(Artist.class, pool);
+            Artist artist = new Artist(0, "Adele", "Pop");
+            artists.create(artist);
+            artists.update(artist);
+            assertEquals(List.of("INSERT INTO artist (artist_name, genre) VALUES (?, ?)"),
+                    database.getStatements("INSERT INTO artist"));
+            assertEquals(List.of("UPDATE artist SET artist_name = ?, genre = ? WHERE artist_id = ?"),
+                    database.getStatements("UPDATE artist"));
+
+            DBRepository<Seat> seats = new DBRepository<>(Seat.class, pool);
+            Seat seat = new Seat(5, 1, false, null);
+            seats.update(seat);
+            assertEquals(List.of("UPDATE seat SET seat_number = ?, is_reserved = ?, row_id = ?, version = version + 1 "
+                    + "WHERE seat_id = ? AND version = ?"), database.getStatements("UPDATE seat"));
+
+            database.setUpdateCount(0);
+            assertThrows(ConcurrencyException.class, () -> seats.update(seat),
+                    "A versioned update that matches no row should fail.");
+        }
+    }
+
+    /**
+     * Tests that a database stream closed before it is exhausted returns its connection and closes its statement.
+     */
+    @Order(28)
+    @DisplayName("Database Repository: Streams Closed Early")
+    @Test
+    public void streamClosedEarly() {
+        FakeDatabase database = FakeDatabase.create();
+        database.onQuery("SELECT * FROM artist", List.of("artist_id", "artist_name", "genre"),
+                parameters -> List.<Object[]>of(new Object[]{1, "Adele", "Pop"}, new Object[]{2, "Björk", "Electronic"},
+                        new Object[]{3, "Coldplay", "Rock"}));
+        try (ConnectionPool pool = new ConnectionPool(database.getUrl(), "", "", 0, 2,
+                Duration.ofMinutes(1), Duration.ofSeconds(1))) {
+            DBRepository<Artist> artists = new DBRepository<>(Artist.class, pool);
+            try (Stream<Artist> stream = artists.stream()) {
+                assertEquals("Adele", stream.findFirst().orElseThrow().getArtistName());
+                assertEquals(1, pool.getMetrics().active(), "An open stream should hold its connection.");
+            }
+            assertEquals(0, pool.getMetrics().active(), "Closing the stream should return its connection.");
+            assertEquals(0, database.getOpenStatements(), "Closing the stream should close its statement.");
+
+            try (Stream<Artist> stream = artists.stream()) {
+                assertEquals(3, stream.count());
+            }
+            assertEquals(0, pool.getMetrics().active(), "An exhausted stream should return its connection.");
+        }
+    }
+
+    /**
+     * Tests that the JPA persistence unit bootstraps, with events mapped as one entity hierarchy whose
+     * subtypes each have their own table, against a fake database so that no server is needed.
+     */
+    @Order(29)
+    @DisplayName("JPA Repository: Persistence Unit Bootstraps")
+    @Test
+    public void persistenceUnitBootstraps() {
+        FakeDatabase database = FakeDatabase.create();
+        EntityManagerFactory entityManagerFactory = Persistence.createEntityManagerFactory(
+                JpaRepositoryFactory.PERSISTENCE_UNIT, Map.of(
+                        "hibernate.connection.driver_class", FakeDatabase.FakeDriver.class.getName(),
+                        "hibernate.connection.url", database.getUrl(),
+                        "hibernate.hbm2ddl.auto", "none",
+                        "hibernate.temp.use_jdbc_metadata_defaults", "false"));
+        try (JpaRepositoryFactory jpaFactory = new JpaRepositoryFactory(entityManagerFactory)) {
+            Metamodel metamodel = entityManagerFactory.getMetamodel();
+            assertEquals(metamodel.entity(Event.class), metamodel.entity(Concert.class).getSupertype(),
+                    "Concerts should be mapped as events.");
+            assertEquals(metamodel.entity(Event.class), metamodel.entity(SportsEvent.class).getSupertype(),
+                    "Sports events should be mapped as events.");
+            assertEquals(Event.class, metamodel.entity(Ticket.class).getSingularAttribute("event").getJavaType(),
+                    "Tickets should reference the event entity.");
+            assertNotNull(jpaFactory.createEventRepository(), "Event repositories should be created on the unit.");
+        }
+    }
+
+    /**
+     * Tests that the key of an existing event table, named after the table before events were mapped as one
+     * entity, is renamed to the key column the events now share, that user tables are left alone, and that
+     * existing carts get the column linking them to their customer.
+     */
+    @Order(30)
+    @DisplayName("Schema Manager: Migrating Existing Tables")
+    @Test
+    public void schemaMigratesExistingTables() {
+        List<String> plan = new SchemaManager(null).plan(List.of(Concert.class, SportsEvent.class, Customer.class));
+
+        List<String> renames = plan.stream().filter(sql -> sql.contains("RENAME COLUMN")).toList();
+        assertEquals(2, renames.size(), "Only the event tables should have their key renamed.");
+        assertTrue(new SchemaManager(null).plan(List.of(Cart.class)).stream()
+                        .anyMatch(sql -> sql.startsWith("ALTER TABLE cart ") && sql.contains("ADD COLUMN IF NOT EXISTS customer_id INTEGER")),
+                "Existing carts should get the column linking them to their customer.");
+        assertTrue(renames.get(0).contains("column_name = 'concert_id'")
+                        && renames.get(0).contains("ALTER TABLE concert RENAME COLUMN concert_id TO event_id"),
+                "The concert key should be renamed if the old column exists.");
+        assertTrue(renames.get(1).contains("ALTER TABLE sports_event RENAME COLUMN sports_event_id TO event_id"),
+                "The sports event key should be renamed if the old column exists.");
+        assertTrue(plan.indexOf(renames.get(0)) < plan.indexOf(plan.stream()
+                        .filter(sql -> sql.startsWith("ALTER TABLE concert ")).findFirst().orElseThrow()),
+                "The key should be renamed before columns are added or its default is changed.");
+    }
+
+    /**
+     * Tests that a customer's tickets are paged from the most recent purchase down, even when the tickets
+     * were purchased in a different order than their IDs were assigned.
+     */
+    @Order(31)
+    @DisplayName("Ticket Service: Paging a Customer's Tickets by Purchase Date")
+    @Test
+    public void customerTicketsByPurchaseDate() {
+        Venue venue = venueService.createVenue("Open Field", "Miami", 5000, false);
+        Concert concert = eventService.createConcert("Open Air Festival", "An amazing music festival",
+                LocalDateTime.of(2024, 9, 5, 18, 0), LocalDateTime.of(2024, 9, 5, 21, 0), venue.getID(), EventStatus.SCHEDULED);
+        List<Ticket> tickets = ticketService.generateTicketsForEvent(concert, 100.0, 0, 0, 3);
+        Customer customer = new Customer(1, "jane_doe", "jane@example.com", "password456");
+        LocalDateTime purchased = LocalDateTime.of(2024, 8, 1, 12, 0);
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            ticket.setSold(true);
+            ticket.setCustomer(customer);
+            ticket.setPurchaseDate(purchased.minusDays(i == 1 ? 0 : i + 1));
+            ticketService.updateTicket(ticket);
+        }
+
+        Page<Ticket> first = ticketService.getTicketsByCustomerPage(customer, 2);
+        assertEquals(List.of(tickets.get(1).getID(), tickets.get(0).getID()),
+                first.getItems().stream().map(Ticket::getID).toList(),
+                "The first page should hold the most recent purchases.");
+        Page<Ticket> second = ticketService.getTicketsByCustomerPage(customer, first.getNextRequest());
+        assertEquals(List.of(tickets.get(2).getID()), second.getItems().stream().map(Ticket::getID).toList(),
+                "The next page should continue with older purchases.");
+        assertFalse(second.hasNext(), "The last page should have no next page.");
+    }
+}
@@ -0,0 +1,537 @@
+package test;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An in-memory stand-in for a PostgreSQL database, reached through a JDBC URL of the form
+ * {@code jdbc:fake:<name>}, for testing the database repositories and the connection pool without a server.
+ * <p>
+ * It records every statement it is sent and remembers the tables created through it. Inserts, copies and
+ * updates of those tables are rejected, as PostgreSQL would reject them, if they name an unknown column or
+ * leave a {@code NOT NULL} column without a default empty. Queries answer with the rows registered for them with
+ * {@link #onQuery}, or with no rows.
+ */
+public class FakeDatabase {
+
+    private static final String URL_PREFIX = "jdbc:fake:";
+    private static final Map<String, FakeDatabase> DATABASES = new ConcurrentHashMap<>();
+    private static final Pattern INSERT = Pattern.compile("INSERT INTO (\\w+) \\(([^)]*)\\)");
+    private static final Pattern UPDATE = Pattern.compile("UPDATE (\\w+) SET (.*?) WHERE");
+    private static final Pattern COPY = Pattern.compile("COPY (\\w+) \\(([^)]*)\\) FROM STDIN");
+    private static final Pattern CREATE_TABLE = Pattern.compile("CREATE TABLE IF NOT EXISTS (\\w+) \\((.*)\\)");
+
+    static {
+        try {
+            DriverManager.registerDriver(new FakeDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final String url;
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+    private final List<String> copiedRows = new CopyOnWriteArrayList<>();
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+    private final List<RegisteredQuery> queries = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextID = new AtomicInteger(1);
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger openedConnections = new AtomicInteger();
+    private final AtomicInteger openStatements = new AtomicInteger();
+    private volatile boolean valid = true;
+    private volatile int updateCount = 1;
+
+    /**
+     * The columns of a table created through the database, and those that must be given a value.
+     */
+    private record Table(List<String> columns, List<String> required) {}
+
+    private record RegisteredQuery(String sqlPrefix, List<String> labels, Function<List<Object>, List<Object[]>> rows) {}
+
+    private FakeDatabase(String url) {
+        this.url = url;
+    }
+
+    /**
+     * @return A new, empty database with a URL of its own.
+     */
+    public static FakeDatabase create() {
+        FakeDatabase database = new FakeDatabase(URL_PREFIX + UUID.randomUUID());
+        DATABASES.put(database.url, database);
+        return database;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return Every statement prepared or executed so far, in order.
+     */
+    public List<String> getStatements() {
+        return List.copyOf(statements);
+    }
+
+    /**
+     * @return The statements starting with the given text, in order.
+     */
+    public List<String> getStatements(String sqlPrefix) {
+        return statements.stream().filter(sql -> sql.startsWith(sqlPrefix)).toList();
+    }
+
+    /**
+     * @return The rows received through {@code COPY}, in its text format.
+     */
+    public List<String> getCopiedRows() {
+        return List.copyOf(copiedRows);
+    }
+
+    /**
+     * @return The number of physical connections currently open.
+     */
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * @return The number of physical connections opened so far.
+     */
+    public int getOpenedConnections() {
+        return openedConnections.get();
+    }
+
+    /**
+     * @return The number of statements currently open.
+     */
+    public int getOpenStatements() {
+        return openStatements.get();
+    }
+
+    /**
+     * Makes open connections fail or pass validation, as after the server went away or came back.
+     */
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    /**
+     * Sets the number of rows every {@code UPDATE} or {@code DELETE} reports, 1 by default.
+     */
+    public void setUpdateCount(int updateCount) {
+        this.updateCount = updateCount;
+    }
+
+    /**
+     * Answers queries starting with the given text.
+     *
+     * @param sqlPrefix The start of the queries.
+     * @param labels    The column labels of the result.
+     * @param rows      Gives the rows of the result from the bound parameters.
+     */
+    public void onQuery(String sqlPrefix, List<String> labels, Function<List<Object>, List<Object[]>> rows) {
+        queries.add(0, new RegisteredQuery(sqlPrefix, labels, rows));
+    }
+
+    private void execute(String sql) {
+        statements.add(sql);
+        Matcher create = CREATE_TABLE.matcher(sql);
+        if (create.matches()) {
+            List<String> columns = new ArrayList<>();
+            List<String> required = new ArrayList<>();
+            for (String definition : splitTopLevel(create.group(2))) {
+                String column = definition.trim().split(" ")[0];
+                columns.add(column);
+                if (definition.contains("NOT NULL") && !definition.contains("DEFAULT")
+                        && !definition.contains("PRIMARY KEY")) {
+                    required.add(column);
+                }
+            }
+            tables.put(create.group(1), new Table(columns, required));
+        }
+    }
+
+    /**
+     * Checks a row written to a table the way PostgreSQL's constraints would.
+     */
+    private void checkRow(String table, List<String> columns, List<Object> values) throws SQLException {
+        Table definition = tables.get(table);
+        if (definition == null) {
+            return;
+        }
+        for (String column : columns) {
+            if (!definition.columns().contains(column)) {
+                throw new SQLException("column \"" + column + "\" of relation \"" + table + "\" does not exist");
+            }
+        }
+        for (String column : definition.required()) {
+            int index = columns.indexOf(column);
+            if (index < 0 || values.get(index) == null) {
+                throw new SQLException("null value in column \"" + column + "\" of relation \"" + table
+                        + "\" violates not-null constraint");
+            }
+        }
+    }
+
+    /**
+     * Checks the values an update assigns, which may leave out columns but not set a NOT NULL column to null.
+     */
+    private void checkUpdate(String table, List<String> columns, List<Object> values) throws SQLException {
+        Table definition = tables.get(table);
+        if (definition == null) {
+            return;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (!definition.columns().contains(columns.get(i))) {
+                throw new SQLException("column \"" + columns.get(i) + "\" of relation \"" + table + "\" does not exist");
+            }
+            if (values.get(i) == null && definition.required().contains(columns.get(i))) {
+                throw new SQLException("null value in column \"" + columns.get(i) + "\" of relation \"" + table
+                        + "\" violates not-null constraint");
+            }
+        }
+    }
+
+    private static List<String> splitTopLevel(String definitions) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < definitions.length(); i++) {
+            char c = definitions.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(definitions.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(definitions.substring(start));
+        return parts;
+    }
+
+    private static List<String> columnList(String columns) {
+        return Arrays.stream(columns.split(",")).map(String::trim).toList();
+    }
+
+    private ResultSet query(String sql, List<Object> parameters) {
+        for (RegisteredQuery registered : queries) {
+            if (sql.startsWith(registered.sqlPrefix())) {
+                return resultSet(registered.labels(), registered.rows().apply(parameters));
+            }
+        }
+        if (sql.startsWith("SELECT pg_get_serial_sequence")) {
+            return resultSet(List.of("pg_get_serial_sequence"),
+                    List.<Object[]>of(new Object[]{parameters.get(0) + "_" + parameters.get(1) + "_seq"}));
+        }
+        if (sql.startsWith("SELECT nextval")) {
+            List<Object[]> ids = new ArrayList<>();
+            for (int i = 0; i < (Integer) parameters.get(1); i++) {
+                ids.add(new Object[]{nextID.getAndIncrement()});
+            }
+            return resultSet(List.of("nextval"), ids);
+        }
+        return resultSet(List.of(), List.of());
+    }
+
+    private Connection connect() {
+        openConnections.incrementAndGet();
+        openedConnections.incrementAndGet();
+        boolean[] autoCommit = {true};
+        boolean[] closed = {false};
+        Connection[] self = new Connection[1];
+        self[0] = proxy(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+            case "prepareStatement" -> statement((String) args[0]);
+            case "createStatement" -> statement(null);
+            case "getAutoCommit" -> autoCommit[0];
+            case "setAutoCommit" -> {
+                autoCommit[0] = (Boolean) args[0];
+                yield null;
+            }
+            case "close" -> {
+                if (!closed[0]) {
+                    closed[0] = true;
+                    openConnections.decrementAndGet();
+                }
+                yield null;
+            }
+            case "isClosed" -> closed[0];
+            case "isValid" -> valid && !closed[0];
+            case "isWrapperFor" -> args[0] == PGConnection.class;
+            case "unwrap" -> pgConnection(self[0]);
+            case "toString" -> "FakeConnection@" + url;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> defaultValue(method.getReturnType());
+        });
+        return self[0];
+    }
+
+    private PGConnection pgConnection(Connection connection) {
+        return proxy(PGConnection.class, (proxy, method, args) -> {
+            if (method.getName().equals("getCopyAPI")) {
+                BaseConnection base = proxy(BaseConnection.class,
+                        (baseProxy, baseMethod, baseArgs) -> defaultValue(baseMethod.getReturnType()));
+                return new CopyManager(base) {
+                    @Override
+                    public CopyIn copyIn(String sql) throws SQLException {
+                        return FakeDatabase.this.copyIn(sql);
+                    }
+                };
+            }
+            return defaultValue(method.getReturnType());
+        });
+    }
+
+    private CopyIn copyIn(String sql) throws SQLException {
+        statements.add(sql);
+        Matcher copy = COPY.matcher(sql);
+        if (!copy.matches()) {
+            throw new SQLException("syntax error in COPY statement: " + sql);
+        }
+        List<String> columns = columnList(copy.group(2));
+        StringBuilder data = new StringBuilder();
+        boolean[] active = {true};
+        return proxy(CopyIn.class, (proxy, method, args) -> switch (method.getName()) {
+            case "writeToCopy" -> {
+                data.append(new String((byte[]) args[0], (Integer) args[1], (Integer) args[2], StandardCharsets.UTF_8));
+                yield null;
+            }
+            case "endCopy" -> {
+                active[0] = false;
+                long rows = 0;
+                for (String row : data.toString().split("\n")) {
+                    if (row.isEmpty()) {
+                        continue;
+                    }
+                    List<Object> values = new ArrayList<>();
+                    for (String value : row.split("\t", -1)) {
+                        values.add(value.equals("\\N") ? null : value);
+                    }
+                    if (values.size() != columns.size()) {
+                        throw new SQLException("extra or missing data for COPY into " + copy.group(1) + ": " + row);
+                    }
+                    checkRow(copy.group(1), columns, values);
+                    copiedRows.add(row);
+                    rows++;
+                }
+                yield rows;
+            }
+            case "cancelCopy" -> {
+                active[0] = false;
+                yield null;
+            }
+            case "isActive" -> active[0];
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    private PreparedStatement statement(String preparedSql) {
+        if (preparedSql != null) {
+            statements.add(preparedSql);
+        }
+        openStatements.incrementAndGet();
+        TreeMap<Integer, Object> parameters = new TreeMap<>();
+        List<List<Object>> batches = new ArrayList<>();
+        List<Integer> generatedKeys = new ArrayList<>();
+        boolean[] closed = {false};
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("setNull")) {
+                parameters.put((Integer) args[0], null);
+                return null;
+            }
+            if (name.startsWith("set") && args != null && args.length == 2 && args[0] instanceof Integer index
+                    && !name.equals("setFetchSize")) {
+                parameters.put(index, args[1]);
+                return null;
+            }
+            return switch (name) {
+                case "execute" -> {
+                    execute((String) args[0]);
+                    yield false;
+                }
+                case "executeQuery" -> query(preparedSql, new ArrayList<>(parameters.values()));
+                case "executeUpdate" -> {
+                    generatedKeys.clear();
+                    yield write(preparedSql, new ArrayList<>(parameters.values()), generatedKeys);
+                }
+                case "addBatch" -> {
+                    batches.add(new ArrayList<>(parameters.values()));
+                    parameters.clear();
+                    yield null;
+                }
+                case "executeBatch" -> {
+                    generatedKeys.clear();
+                    int[] counts = new int[batches.size()];
+                    for (int i = 0; i < counts.length; i++) {
+                        counts[i] = write(preparedSql, batches.get(i), generatedKeys);
+                    }
+                    batches.clear();
+                    yield counts;
+                }
+                case "clearParameters" -> {
+                    parameters.clear();
+                    yield null;
+                }
+                case "getGeneratedKeys" -> resultSet(List.of("id"),
+                        generatedKeys.stream().map(id -> new Object[]{id}).toList());
+                case "close" -> {
+                    if (!closed[0]) {
+                        closed[0] = true;
+                        openStatements.decrementAndGet();
+                    }
+                    yield null;
+                }
+                case "isClosed" -> closed[0];
+                default -> defaultValue(method.getReturnType());
+            };
+        });
+    }
+
+    private int write(String sql, List<Object> parameters, List<Integer> generatedKeys) throws SQLException {
+        Matcher insert = INSERT.matcher(sql);
+        if (insert.lookingAt()) {
+            checkRow(insert.group(1), columnList(insert.group(2)), parameters);
+            generatedKeys.add(nextID.getAndIncrement());
+            return 1;
+        }
+        Matcher update = UPDATE.matcher(sql);
+        if (update.lookingAt()) {
+            List<String> columns = new ArrayList<>();
+            for (String assignment : update.group(2).split(",")) {
+                if (assignment.trim().endsWith("= ?")) {
+                    columns.add(assignment.trim().split(" ")[0]);
+                }
+            }
+            checkUpdate(update.group(1), columns, parameters.subList(0, columns.size()));
+        }
+        return updateCount;
+    }
+
+    private static ResultSet resultSet(List<String> labels, List<Object[]> rows) {
+        int[] position = {-1};
+        boolean[] wasNull = {false};
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getColumnCount" -> labels.size();
+            case "getColumnLabel", "getColumnName" -> labels.get((Integer) args[0] - 1);
+            default -> defaultValue(method.getReturnType());
+        });
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "next" -> {
+                    return ++position[0] < rows.size();
+                }
+                case "getMetaData" -> {
+                    return metaData;
+                }
+                case "wasNull" -> {
+                    return wasNull[0];
+                }
+                case "close", "setFetchSize" -> {
+                    return null;
+                }
+            }
+            if (!method.getName().startsWith("get") || args == null || args.length != 1) {
+                return defaultValue(method.getReturnType());
+            }
+            int column = args[0] instanceof Integer index ? index - 1 : labels.indexOf(args[0]);
+            Object value = rows.get(position[0])[column];
+            wasNull[0] = value == null;
+            if (value == null) {
+                return defaultValue(method.getReturnType());
+            }
+            return switch (method.getName()) {
+                case "getInt" -> ((Number) value).intValue();
+                case "getLong" -> ((Number) value).longValue();
+                case "getDouble" -> ((Number) value).doubleValue();
+                case "getString" -> value.toString();
+                case "getTimestamp" -> value instanceof LocalDateTime dateTime ? Timestamp.valueOf(dateTime) : value;
+                default -> value;
+            };
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I> I proxy(Class<I> type, InvocationHandler handler) {
+        return (I) Proxy.newProxyInstance(FakeDatabase.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0.0;
+        }
+        return null;
+    }
+
+    /**
+     * Hands out connections to the fake databases by URL. Public so that libraries configured with a driver
+     * class name, such as Hibernate, can instantiate it.
+     */
+    public static class FakeDriver implements Driver {
+
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            FakeDatabase database = DATABASES.get(url);
+            if (database == null) {
+                throw new SQLException("database \"" + url + "\" does not exist");
+            }
+            return database.connect();
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith(URL_PREFIX);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getLogger(FakeDatabase.class.getName());
+        }
+    }
+}